@@ -0,0 +1,225 @@
+package com.hanframework.kit.futrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * 自适应隔舱,限制提交到{@link EnhanceExecutorService}的在途任务数
+ * 下游变慢时线程池会被占满,所有调用方的延迟一起上升。隔舱根据观察到的执行耗时由{@link ConcurrencyLimit}
+ * 动态计算上限,在途任务数达到上限时不再排队,直接返回一个已经失败的{@link EnhanceFuture},
+ * 失败原因为共享的{@link RejectedExecutionException},不填充异常栈。
+ * <p>
+ * 任务抛出{@link TimeoutException}或{@link RejectedExecutionException}时视为下游过载。
+ * 排队中被撤销的任务只释放名额,不计入样本。
+ *
+ * @author liuxin
+ * @version Id: AdaptiveBulkhead.java, v 0.1 2026-10-18 17:20
+ */
+public class AdaptiveBulkhead implements AdaptiveBulkheadMXBean {
+
+    private static final Logger logger = Logger.getLogger("AdaptiveBulkhead");
+
+    private static final RejectedExecutionException LIMIT_EXCEEDED = ThrowableUtil.unknownStackTrace(
+            new RejectedExecutionException("bulkhead limit exceeded"), AdaptiveBulkhead.class, "submit(...)");
+
+    private final String name;
+
+    private final EnhanceExecutorService executor;
+
+    private final ConcurrencyLimit limit;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final LongAdder accepted = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile ObjectName objectName;
+
+    public AdaptiveBulkhead(String name, EnhanceExecutorService executor, ConcurrencyLimit limit) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.limit = Objects.requireNonNull(limit, "limit");
+    }
+
+    /**
+     * 超过上限时返回已失败的Future,不会抛出{@link RejectedExecutionException}
+     *
+     * @param task 任务
+     * @param <T>  结果类型
+     * @return 增强的Future
+     */
+    public <T> EnhanceFuture<T> submit(Callable<T> task) {
+        Objects.requireNonNull(task, "task");
+        int current = tryAcquire();
+        if (current < 0) {
+            rejected.increment();
+            return failed(LIMIT_EXCEEDED);
+        }
+        MeasuredTask<T> measured = new MeasuredTask<>(task, current);
+        EnhanceFuture<T> future;
+        try {
+            future = executor.submit(measured);
+        } catch (RejectedExecutionException e) {
+            inflight.decrementAndGet();
+            rejected.increment();
+            return failed(e);
+        }
+        accepted.increment();
+        future.addListener(measured);
+        return future;
+    }
+
+    /**
+     * 超过上限时返回已失败的Future,不会抛出{@link RejectedExecutionException}
+     *
+     * @param task 任务
+     * @return 增强的Future
+     */
+    public EnhanceFuture<?> submit(Runnable task) {
+        return submit(Executors.callable(Objects.requireNonNull(task, "task")));
+    }
+
+    /**
+     * @return 获取名额后的在途任务数,超过上限返回-1
+     */
+    private int tryAcquire() {
+        for (; ; ) {
+            int current = inflight.get();
+            if (current >= limit.getLimit()) {
+                return -1;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private static <T> EnhanceFuture<T> failed(Throwable cause) {
+        DefaultEnhancePromise<T> promise = new DefaultEnhancePromise<>();
+        promise.tryFailure(cause);
+        return promise;
+    }
+
+    public ConcurrencyLimit getConcurrencyLimit() {
+        return limit;
+    }
+
+    /**
+     * 注册到平台MBeanServer,ObjectName为com.hanframework.kit:type=AdaptiveBulkhead,name={name}
+     *
+     * @return this
+     */
+    public AdaptiveBulkhead registerMBean() {
+        try {
+            ObjectName objectName = new ObjectName("com.hanframework.kit:type=AdaptiveBulkhead,name=" + ObjectName.quote(name));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+            this.objectName = objectName;
+        } catch (Exception e) {
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "Failed to register bulkhead mbean: " + name, e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 注销MBean,不会关闭底层线程池
+     */
+    public void close() {
+        ObjectName objectName = this.objectName;
+        if (objectName != null) {
+            this.objectName = null;
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (Exception e) {
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.log(Level.FINE, "Failed to unregister bulkhead mbean: " + name, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    @Override
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    @Override
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 记录执行耗时,任务结束(包括撤销)时释放名额并喂入样本
+     */
+    private final class MeasuredTask<T> implements Callable<T>, EnhanceFutureListener<EnhanceFuture<T>> {
+
+        private final Callable<T> task;
+
+        private final int inflightAtAcquire;
+
+        private volatile long runNanos = -1;
+
+        MeasuredTask(Callable<T> task, int inflightAtAcquire) {
+            this.task = task;
+            this.inflightAtAcquire = inflightAtAcquire;
+        }
+
+        @Override
+        public T call() throws Exception {
+            long start = System.nanoTime();
+            try {
+                return task.call();
+            } finally {
+                runNanos = System.nanoTime() - start;
+            }
+        }
+
+        @Override
+        public void onSuccess(EnhanceFuture<T> future) {
+            release(false);
+        }
+
+        @Override
+        public void onThrowable(Throwable throwable) {
+            release(throwable instanceof TimeoutException || throwable instanceof RejectedExecutionException);
+        }
+
+        private void release(boolean dropped) {
+            inflight.decrementAndGet();
+            long runNanos = this.runNanos;
+            if (runNanos >= 0) {
+                limit.onSample(runNanos, inflightAtAcquire, dropped);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.hanframework.kit.futrue;
+
+/**
+ * 自适应隔舱的JMX视图
+ *
+ * @author liuxin
+ * @version Id: AdaptiveBulkheadMXBean.java, v 0.1 2026-10-18 17:20
+ */
+public interface AdaptiveBulkheadMXBean {
+
+    String getName();
+
+    int getInflight();
+
+    int getLimit();
+
+    long getAcceptedCount();
+
+    long getRejectedCount();
+}
@@ -0,0 +1,65 @@
+package com.hanframework.kit.futrue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 加性增、乘性减(AIMD)的并发上限,与TCP拥塞控制相同
+ * 任务成功且在途任务数接近上限时上限加1;任务超时、被拒绝或执行耗时超过阈值时上限乘以回退系数。
+ * 只在在途任务数至少达到上限一半时增加,避免空闲时上限无意义地增长。
+ *
+ * @author liuxin
+ * @version Id: AimdLimit.java, v 0.1 2026-10-18 17:20
+ */
+public class AimdLimit implements ConcurrencyLimit {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final long timeoutNanos;
+
+    private volatile int limit;
+
+    /**
+     * @param initialLimit 初始上限
+     * @param minLimit     最小上限
+     * @param maxLimit     最大上限
+     * @param backoffRatio 过载时的回退系数,(0, 1)
+     * @param timeout      执行耗时超过该值视为过载
+     * @param unit         单位
+     */
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long timeout, TimeUnit unit) {
+        if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit
+                || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("initialLimit: " + initialLimit + ", minLimit: " + minLimit
+                    + ", maxLimit: " + maxLimit + ", backoffRatio: " + backoffRatio);
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long runNanos, int inflight, boolean dropped) {
+        int current = limit;
+        if (dropped || runNanos > timeoutNanos) {
+            limit = Math.max(minLimit, (int) (current * backoffRatio));
+        } else if (inflight * 2 >= current) {
+            limit = Math.min(maxLimit, current + 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AimdLimit(limit: " + limit + ')';
+    }
+}
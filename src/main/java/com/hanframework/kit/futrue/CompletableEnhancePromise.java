@@ -0,0 +1,282 @@
+package com.hanframework.kit.futrue;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 同时实现了{@link CompletionStage}的Promise,可以直接交给使用CompletableFuture的代码。
+ * <p>
+ * thenApply同时满足两个接口,thenCompose为CompletionStage的版本,EnhanceFuture的版本为thenComposeFuture,返回的都是CompletableEnhancePromise;
+ * 其余CompletionStage方法委托给第一次使用时创建的CompletableFuture镜像,镜像只注册一个监听器且不对外暴露,
+ * 调用方无法complete或obtrude它而影响后续的阶段。
+ * {@link #toCompletableFuture()}每次返回一个新的跟随当前Promise完成的CompletableFuture,
+ * 对它complete只影响它自己,撤销它会同时撤销当前Promise。
+ *
+ * @author liuxin
+ * @version Id: CompletableEnhancePromise.java, v 0.1 2026-10-18 11:40
+ * @see CompletableFutureAdapter
+ */
+public class CompletableEnhancePromise<V> extends DefaultEnhancePromise<V> implements CompletionStage<V> {
+
+    private volatile CompletableFuture<V> mirror;
+
+    public CompletableEnhancePromise() {
+        super();
+    }
+
+    public CompletableEnhancePromise(Executor executor) {
+        super(executor);
+    }
+
+    @Override
+    protected <U> DefaultEnhancePromise<U> newPromise() {
+        return new CompletableEnhancePromise<>(executor());
+    }
+
+    @Override
+    public <U> CompletableEnhancePromise<U> thenApply(Function<? super V, ? extends U> fn) {
+        return asCompletable(super.thenApply(fn));
+    }
+
+    @Override
+    public <U> CompletableEnhancePromise<U> thenComposeFuture(Function<? super V, ? extends EnhanceFuture<U>> fn) {
+        return asCompletable(super.thenComposeFuture(fn));
+    }
+
+    /**
+     * CompletionStage的thenCompose,函数返回的CompletionStage通过{@link CompletableFutureAdapter#fromCompletionStage}适配,
+     * 返回EnhanceFuture(例如CompletableEnhancePromise)时不额外包装
+     *
+     * @param fn 返回下一个异步操作的函数
+     * @return 组合后的Promise
+     */
+    @Override
+    public <U> CompletableEnhancePromise<U> thenCompose(Function<? super V, ? extends CompletionStage<U>> fn) {
+        Objects.requireNonNull(fn, "fn");
+        return thenComposeFuture(value -> CompletableFutureAdapter.fromCompletionStage(
+                Objects.requireNonNull(fn.apply(value), "thenCompose function returned null")));
+    }
+
+    /**
+     * 组合操作通过{@link #newPromise()}创建,一定是CompletableEnhancePromise
+     */
+    private static <U> CompletableEnhancePromise<U> asCompletable(EnhanceFuture<U> future) {
+        return (CompletableEnhancePromise<U>) future;
+    }
+
+    /**
+     * 返回一个新的CompletableFuture,调用方complete或obtrudeValue只影响返回的对象,不影响当前Promise和其他阶段
+     *
+     * @return 跟随当前Promise完成的CompletableFuture
+     */
+    @Override
+    public CompletableFuture<V> toCompletableFuture() {
+        return CompletableFutureAdapter.newMirror(this);
+    }
+
+    /**
+     * 内部委托用的镜像,第一次使用时创建
+     */
+    private CompletableFuture<V> mirror() {
+        CompletableFuture<V> mirror = this.mirror;
+        if (mirror == null) {
+            synchronized (this) {
+                mirror = this.mirror;
+                if (mirror == null) {
+                    this.mirror = mirror = CompletableFutureAdapter.newMirror(this);
+                }
+            }
+        }
+        return mirror;
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenApplyAsync(Function<? super V, ? extends U> fn) {
+        return mirror().thenApplyAsync(fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenApplyAsync(Function<? super V, ? extends U> fn, Executor executor) {
+        return mirror().thenApplyAsync(fn, executor);
+    }
+
+    @Override
+    public CompletionStage<Void> thenAccept(Consumer<? super V> action) {
+        return mirror().thenAccept(action);
+    }
+
+    @Override
+    public CompletionStage<Void> thenAcceptAsync(Consumer<? super V> action) {
+        return mirror().thenAcceptAsync(action);
+    }
+
+    @Override
+    public CompletionStage<Void> thenAcceptAsync(Consumer<? super V> action, Executor executor) {
+        return mirror().thenAcceptAsync(action, executor);
+    }
+
+    @Override
+    public CompletionStage<Void> thenRun(Runnable action) {
+        return mirror().thenRun(action);
+    }
+
+    @Override
+    public CompletionStage<Void> thenRunAsync(Runnable action) {
+        return mirror().thenRunAsync(action);
+    }
+
+    @Override
+    public CompletionStage<Void> thenRunAsync(Runnable action, Executor executor) {
+        return mirror().thenRunAsync(action, executor);
+    }
+
+    @Override
+    public <U, R> CompletionStage<R> thenCombine(CompletionStage<? extends U> other,
+                                                 BiFunction<? super V, ? super U, ? extends R> fn) {
+        return mirror().thenCombine(other, fn);
+    }
+
+    @Override
+    public <U, R> CompletionStage<R> thenCombineAsync(CompletionStage<? extends U> other,
+                                                      BiFunction<? super V, ? super U, ? extends R> fn) {
+        return mirror().thenCombineAsync(other, fn);
+    }
+
+    @Override
+    public <U, R> CompletionStage<R> thenCombineAsync(CompletionStage<? extends U> other,
+                                                      BiFunction<? super V, ? super U, ? extends R> fn, Executor executor) {
+        return mirror().thenCombineAsync(other, fn, executor);
+    }
+
+    @Override
+    public <U> CompletionStage<Void> thenAcceptBoth(CompletionStage<? extends U> other,
+                                                    BiConsumer<? super V, ? super U> action) {
+        return mirror().thenAcceptBoth(other, action);
+    }
+
+    @Override
+    public <U> CompletionStage<Void> thenAcceptBothAsync(CompletionStage<? extends U> other,
+                                                         BiConsumer<? super V, ? super U> action) {
+        return mirror().thenAcceptBothAsync(other, action);
+    }
+
+    @Override
+    public <U> CompletionStage<Void> thenAcceptBothAsync(CompletionStage<? extends U> other,
+                                                         BiConsumer<? super V, ? super U> action, Executor executor) {
+        return mirror().thenAcceptBothAsync(other, action, executor);
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterBoth(CompletionStage<?> other, Runnable action) {
+        return mirror().runAfterBoth(other, action);
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action) {
+        return mirror().runAfterBothAsync(other, action);
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action, Executor executor) {
+        return mirror().runAfterBothAsync(other, action, executor);
+    }
+
+    @Override
+    public <U> CompletionStage<U> applyToEither(CompletionStage<? extends V> other, Function<? super V, U> fn) {
+        return mirror().applyToEither(other, fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> applyToEitherAsync(CompletionStage<? extends V> other, Function<? super V, U> fn) {
+        return mirror().applyToEitherAsync(other, fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> applyToEitherAsync(CompletionStage<? extends V> other, Function<? super V, U> fn,
+                                                     Executor executor) {
+        return mirror().applyToEitherAsync(other, fn, executor);
+    }
+
+    @Override
+    public CompletionStage<Void> acceptEither(CompletionStage<? extends V> other, Consumer<? super V> action) {
+        return mirror().acceptEither(other, action);
+    }
+
+    @Override
+    public CompletionStage<Void> acceptEitherAsync(CompletionStage<? extends V> other, Consumer<? super V> action) {
+        return mirror().acceptEitherAsync(other, action);
+    }
+
+    @Override
+    public CompletionStage<Void> acceptEitherAsync(CompletionStage<? extends V> other, Consumer<? super V> action,
+                                                   Executor executor) {
+        return mirror().acceptEitherAsync(other, action, executor);
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterEither(CompletionStage<?> other, Runnable action) {
+        return mirror().runAfterEither(other, action);
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action) {
+        return mirror().runAfterEitherAsync(other, action);
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action, Executor executor) {
+        return mirror().runAfterEitherAsync(other, action, executor);
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenComposeAsync(Function<? super V, ? extends CompletionStage<U>> fn) {
+        return mirror().thenComposeAsync(fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenComposeAsync(Function<? super V, ? extends CompletionStage<U>> fn,
+                                                   Executor executor) {
+        return mirror().thenComposeAsync(fn, executor);
+    }
+
+    @Override
+    public CompletionStage<V> exceptionally(Function<Throwable, ? extends V> fn) {
+        return mirror().exceptionally(fn);
+    }
+
+    @Override
+    public CompletionStage<V> whenComplete(BiConsumer<? super V, ? super Throwable> action) {
+        return mirror().whenComplete(action);
+    }
+
+    @Override
+    public CompletionStage<V> whenCompleteAsync(BiConsumer<? super V, ? super Throwable> action) {
+        return mirror().whenCompleteAsync(action);
+    }
+
+    @Override
+    public CompletionStage<V> whenCompleteAsync(BiConsumer<? super V, ? super Throwable> action, Executor executor) {
+        return mirror().whenCompleteAsync(action, executor);
+    }
+
+    @Override
+    public <U> CompletionStage<U> handle(BiFunction<? super V, Throwable, ? extends U> fn) {
+        return mirror().handle(fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> handleAsync(BiFunction<? super V, Throwable, ? extends U> fn) {
+        return mirror().handleAsync(fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> handleAsync(BiFunction<? super V, Throwable, ? extends U> fn, Executor executor) {
+        return mirror().handleAsync(fn, executor);
+    }
+}
@@ -0,0 +1,127 @@
+package com.hanframework.kit.futrue;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * {@link EnhanceFuture}与{@link CompletableFuture}/{@link CompletionStage}之间的双向适配
+ * 1. 两个方向都只注册一次回调,不会阻塞线程
+ * 2. 撤销会传递到另一方
+ *
+ * @author liuxin
+ * @version Id: CompletableFutureAdapter.java, v 0.1 2026-10-18 11:40
+ * @see CompletableEnhancePromise
+ */
+public final class CompletableFutureAdapter {
+
+    private CompletableFutureAdapter() {
+    }
+
+    /**
+     * 转换为CompletableFuture,撤销CompletableFuture时同时撤销原Future
+     *
+     * @param future 增强的Future
+     * @param <V>    结果类型
+     * @return CompletableFuture
+     */
+    public static <V> CompletableFuture<V> toCompletableFuture(EnhanceFuture<V> future) {
+        Objects.requireNonNull(future, "future");
+        if (future instanceof CompletableEnhancePromise) {
+            return ((CompletableEnhancePromise<V>) future).toCompletableFuture();
+        }
+        return newMirror(future);
+    }
+
+    /**
+     * 转换为EnhanceFuture,撤销EnhanceFuture时同时撤销原CompletionStage
+     *
+     * @param stage CompletionStage
+     * @param <V>   结果类型
+     * @return 增强的Future
+     */
+    public static <V> EnhanceFuture<V> fromCompletionStage(CompletionStage<V> stage) {
+        Objects.requireNonNull(stage, "stage");
+        if (stage instanceof EnhanceFuture) {
+            @SuppressWarnings("unchecked")
+            EnhanceFuture<V> future = (EnhanceFuture<V>) stage;
+            return future;
+        }
+        CompletionStagePromise<V> promise = new CompletionStagePromise<>(stage);
+        stage.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                promise.trySuccess(value);
+            } else {
+                promise.tryFailure(unwrap(throwable));
+            }
+        });
+        return promise;
+    }
+
+    /**
+     * 创建一个跟随future完成的CompletableFuture,只注册一个监听器
+     *
+     * @param future 增强的Future
+     * @param <V>    结果类型
+     * @return CompletableFuture
+     */
+    static <V> CompletableFuture<V> newMirror(EnhanceFuture<V> future) {
+        CompletableFuture<V> mirror = new CompletableFuture<V>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                future.cancel(mayInterruptIfRunning);
+                return cancelled;
+            }
+        };
+        future.addListener(new EnhanceFutureListener<EnhanceFuture<V>>() {
+            @Override
+            public void onSuccess(EnhanceFuture<V> f) {
+                mirror.complete(f.getNow());
+            }
+
+            @Override
+            public void onThrowable(Throwable throwable) {
+                //以CancellationException异常完成时CompletableFuture.isCancelled()同样为true
+                mirror.completeExceptionally(throwable);
+            }
+        });
+        return mirror;
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * 撤销时同时撤销原CompletionStage
+     */
+    private static final class CompletionStagePromise<V> extends DefaultEnhancePromise<V> {
+
+        private final CompletionStage<V> stage;
+
+        CompletionStagePromise(CompletionStage<V> stage) {
+            this.stage = stage;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!super.cancel(mayInterruptIfRunning)) {
+                return false;
+            }
+            try {
+                stage.toCompletableFuture().cancel(mayInterruptIfRunning);
+            } catch (UnsupportedOperationException | CancellationException ignored) {
+                //不支持转换为CompletableFuture的stage无法撤销
+            }
+            return true;
+        }
+    }
+}
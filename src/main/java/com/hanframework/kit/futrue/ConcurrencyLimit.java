@@ -0,0 +1,25 @@
+package com.hanframework.kit.futrue;
+
+/**
+ * 自适应并发上限算法,由{@link AdaptiveBulkhead}在每个任务结束时喂入样本
+ * 实现需要线程安全,{@link #getLimit()}会在每次提交时调用,应当只是一次volatile读。
+ *
+ * @author liuxin
+ * @version Id: ConcurrencyLimit.java, v 0.1 2026-10-18 17:20
+ */
+public interface ConcurrencyLimit {
+
+    /**
+     * @return 当前并发上限
+     */
+    int getLimit();
+
+    /**
+     * 一个任务结束
+     *
+     * @param runNanos 执行耗时
+     * @param inflight 任务开始时的在途任务数
+     * @param dropped  是否因为下游过载而失败(超时或被拒绝)
+     */
+    void onSample(long runNanos, int inflight, boolean dropped);
+}
@@ -1,44 +1,80 @@
 package com.hanframework.kit.futrue;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 /**
+ * 监听器集合,内部直接使用数组存储。
+ * 对外的{@link #listeners()}返回副本;包内通知时通过{@link #array()}拿到内部数组并按{@link #size()}遍历,不再复制。
+ *
  * @author liuxin
  * @version Id: HanFutureListeners.java, v 0.1 2019-06-11 22:57
  */
 public class DefaultEnhanceFutureListeners {
 
-    private List<EnhanceFutureListener> listeners;
+    private EnhanceFutureListener<? extends EnhanceFuture<?>>[] listeners;
+
+    private int size;
 
     @SuppressWarnings("all")
     public DefaultEnhanceFutureListeners() {
-        this.listeners = new ArrayList<>(4);
+        this.listeners = new EnhanceFutureListener[4];
     }
 
     @SuppressWarnings("unused")
     public DefaultEnhanceFutureListeners(EnhanceFutureListener[] listeners) {
-        this.listeners = Arrays.asList(listeners);
+        this.listeners = Arrays.copyOf(listeners, Math.max(listeners.length, 4));
+        this.size = listeners.length;
     }
 
     @SuppressWarnings("all")
     public void add(EnhanceFutureListener<? extends EnhanceFuture<?>> l) {
-        listeners.add(l);
+        EnhanceFutureListener<? extends EnhanceFuture<?>>[] listeners = this.listeners;
+        final int size = this.size;
+        if (size == listeners.length) {
+            this.listeners = listeners = Arrays.copyOf(listeners, size << 1);
+        }
+        listeners[size] = l;
+        this.size = size + 1;
     }
 
     @SuppressWarnings("unused")
     public void remove(EnhanceFutureListener<? extends EnhanceFuture<?>> l) {
-        listeners.remove(l);
+        final EnhanceFutureListener<? extends EnhanceFuture<?>>[] listeners = this.listeners;
+        int size = this.size;
+        for (int i = 0; i < size; i++) {
+            if (listeners[i].equals(l)) {
+                int listenersToMove = size - i - 1;
+                if (listenersToMove > 0) {
+                    System.arraycopy(listeners, i + 1, listeners, i, listenersToMove);
+                }
+                listeners[--size] = null;
+                this.size = size;
+                return;
+            }
+        }
     }
 
+    /**
+     * 返回当前监听器的副本,长度等于{@link #size()}
+     *
+     * @return 监听器数组
+     */
     @SuppressWarnings("all")
     public EnhanceFutureListener<? extends EnhanceFuture<?>>[] listeners() {
-        return listeners.toArray(new EnhanceFutureListener[]{});
+        return Arrays.copyOf(listeners, size);
+    }
+
+    /**
+     * 返回内部数组,有效元素只到{@link #size()},仅供包内通知时遍历,不能修改
+     *
+     * @return 内部监听器数组
+     */
+    EnhanceFutureListener<? extends EnhanceFuture<?>>[] array() {
+        return listeners;
     }
 
     @SuppressWarnings("all")
     public int size() {
-        return listeners.size();
+        return size;
     }
 }
@@ -1,11 +1,25 @@
 package com.hanframework.kit.futrue;
 
 
+import com.hanframework.kit.thread.FastThreadLocal;
+import com.hanframework.kit.thread.HashedWheelTimer;
+import com.hanframework.kit.thread.NamedThreadFactory;
+import com.hanframework.kit.thread.Timeout;
+import com.hanframework.kit.thread.TimerTask;
+
 import java.util.Objects;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,15 +35,32 @@ import java.util.logging.Logger;
 public class DefaultEnhancePromise<V> extends AbstractEnhanceFuture<V> implements Promise<V> {
 
     private final static Logger logger = Logger.getLogger("DefaultEnhancePromise");
+
     /**
-     * 当前异步任务结果
+     * 同一线程内监听器内联嵌套执行的最大深度,超过之后转交给执行器执行,避免完成链过长导致栈溢出
      */
-    private volatile Object result;
+    private static final int MAX_LISTENER_STACK_DEPTH = Math.max(1,
+            Integer.getInteger("hanframework.future.maxListenerStackDepth", 8));
+
+    /**
+     * 当前线程监听器内联嵌套的深度
+     */
+    private static final FastThreadLocal<int[]> LISTENER_STACK_DEPTH = new FastThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
 
     /**
-     * 是否已通知监听器
+     * 超过内联深度之后用于执行通知的执行器,为空时使用{@link ForkJoinPool#commonPool()}
      */
-    private boolean notifyingListeners;
+    private final Executor executor;
+
+    /**
+     * 当前异步任务结果
+     */
+    private volatile Object result;
 
     /**
      * 当异步操作完成,但结果为null,则使用默认值占位。标识已完成的状态
@@ -52,62 +83,150 @@ public class DefaultEnhancePromise<V> extends AbstractEnhanceFuture<V> implement
      */
     private static final CauseHolder CANCELLATION_CAUSE_HOLDER = new CauseHolder(ThrowableUtil.unknownStackTrace(
             new CancellationException(), DefaultEnhancePromise.class, "cancel(...)"));
+
+    /**
+     * 任务出队时已经超过截止时间,共享同一个异常实例
+     */
+    private static final CauseHolder DEADLINE_CAUSE_HOLDER = new CauseHolder(ThrowableUtil.unknownStackTrace(
+            new TimeoutException("deadline exceeded"), DefaultEnhancePromise.class, "run(...)"));
+
+    /**
+     * 超时对象,共享同一个异常实例,超时不需要填充异常栈也不分配对象
+     */
+    private static final CauseHolder TIMEOUT_CAUSE_HOLDER = new CauseHolder(ThrowableUtil.unknownStackTrace(
+            new TimeoutException("timeout"), DefaultEnhancePromise.class, "orTimeout(...)"));
     /**
-     * 等待的任务数量
+     * 等待结果的线程栈(Treiber Stack),无锁入栈,完成时一次性摘除并逐个唤醒。
+     * 没有数量上限,且没有等待线程时完成操作不会加锁。
      */
-    private short waiters;
+    private volatile WaitNode waiters;
+
+    /**
+     * 原子更新volatile waiters
+     */
+    private static final AtomicReferenceFieldUpdater<DefaultEnhancePromise, WaitNode> WAITERS_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(DefaultEnhancePromise.class, WaitNode.class, "waiters");
 
     /**
      * 因为有多种监听器所以用Object,通过判断类型,找到对应的方法执行。
      * 因为监听器属于实例属性,每个任务都有自己的监听器。
+     * 1. null 没有监听器
+     * 2. 只有一个监听器时直接存放监听器本身,不额外分配对象
+     * 3. 多个监听器时为只追加的单向链表{@link ListenerNode},通过CAS头插
      *
      * @see EnhanceFutureListener
      * @see DefaultEnhanceFutureListeners
      */
-    private Object listeners;
+    private volatile Object listeners;
+
+    /**
+     * 原子更新volatile listeners
+     */
+    private static final AtomicReferenceFieldUpdater<DefaultEnhancePromise, Object> LISTENERS_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(DefaultEnhancePromise.class, Object.class, "listeners");
+
+    public DefaultEnhancePromise() {
+        this(null);
+    }
+
+    /**
+     * @param executor 监听器嵌套超过{@code hanframework.future.maxListenerStackDepth}时用于执行通知的执行器
+     */
+    public DefaultEnhancePromise(Executor executor) {
+        this.executor = executor;
+    }
 
     /**
      * 通知所有的监听器执行
+     * 在当前线程内联执行,嵌套深度超过限制后转交给执行器
      */
     private void notifyListeners() {
-        notifyListenersNow();
+        if (listeners == null) {
+            return;
+        }
+        final int[] depth = LISTENER_STACK_DEPTH.get();
+        if (depth[0] < MAX_LISTENER_STACK_DEPTH) {
+            ++depth[0];
+            try {
+                notifyListenersNow();
+            } finally {
+                --depth[0];
+            }
+            return;
+        }
+        safeExecute(executor == null ? ForkJoinPool.commonPool() : executor, this::notifyListenersNow);
+    }
+
+    /**
+     * 执行器拒绝时退化为在当前线程执行,保证监听器不会丢失
+     *
+     * @param executor 执行器
+     * @param task     通知任务
+     */
+    private static void safeExecute(Executor executor, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.warning("Failed to submit a listener notification task, notify in caller thread: " + e);
+            }
+            task.run();
+        }
     }
 
     /**
      * 当存在监听器则调用,否则不执行。
-     * 因为监听器是实例属性,为保证线程安全使用同步代码块,以此来保证其他线程同时进来,导致重复通知
+     * 通过getAndSet一次性摘除整条链,摘到的线程负责通知,以此保证每个监听器只会被通知一次
      */
     private void notifyListenersNow() {
-        Object listeners;
-        synchronized (this) {
-            // Only proceed if there are listeners to notify and we are not already notifying listeners.
-            if (notifyingListeners || this.listeners == null) {
-                return;
-            }
-            notifyingListeners = true;
-            listeners = this.listeners;
-            this.listeners = null;
+        Object listeners = LISTENERS_UPDATER.getAndSet(this, null);
+        if (listeners instanceof ListenerNode) {
+            notifyListenerChain((ListenerNode) listeners);
+        } else if (listeners != null) {
+            notifyListener(listeners);
         }
+    }
+
+    /**
+     * 链表是头插的,摘除后归当前线程独占,原地反转后按添加顺序遍历,不复制
+     *
+     * @param head 链表头
+     */
+    private void notifyListenerChain(ListenerNode head) {
+        ListenerNode prev = null;
+        ListenerNode node = head;
+        Object first;
         for (; ; ) {
-            if (listeners instanceof DefaultEnhanceFutureListeners) {
-                notifyListeners0((DefaultEnhanceFutureListeners) listeners);
+            Object next = node.next;
+            node.next = prev;
+            prev = node;
+            if (next instanceof ListenerNode) {
+                node = (ListenerNode) next;
             } else {
-                notifyListener0(this, (EnhanceFutureListener<?>) listeners);
-            }
-            //执行完成手动清空监听器
-            synchronized (this) {
-                if (this.listeners == null) {
-                    notifyingListeners = false;
-                    return;
-                }
-                listeners = this.listeners;
-                this.listeners = null;
+                //链表尾部一定是最早添加的那个监听器
+                first = next;
+                break;
             }
         }
+        notifyListener(first);
+        for (ListenerNode n = prev; n != null; n = (ListenerNode) n.next) {
+            notifyListener(n.listener);
+        }
+    }
+
+    private void notifyListener(Object listener) {
+        if (listener instanceof ExecutorListener) {
+            final EnhanceFutureListener<?> l = ((ExecutorListener) listener).listener;
+            safeExecute(((ExecutorListener) listener).executor, () -> notifyListener0(this, l));
+        } else if (listener instanceof DefaultEnhanceFutureListeners) {
+            notifyListeners0((DefaultEnhanceFutureListeners) listener);
+        } else {
+            notifyListener0(this, (EnhanceFutureListener<?>) listener);
+        }
     }
 
     private void notifyListeners0(DefaultEnhanceFutureListeners listeners) {
-        EnhanceFutureListener<?>[] a = listeners.listeners();
+        EnhanceFutureListener<?>[] a = listeners.array();
         int size = listeners.size();
         for (int i = 0; i < size; i++) {
             notifyListener0(this, a[i]);
@@ -173,17 +292,7 @@ public class DefaultEnhancePromise<V> extends AbstractEnhanceFuture<V> implement
         if (Thread.interrupted()) {
             throw new InterruptedException(toString());
         }
-        synchronized (this) {
-            while (!isDone()) {
-                incWaiters();
-                try {
-                    wait();
-                } finally {
-                    //线程执行到这里就,结束等待了,减少等待数量
-                    decWaiters();
-                }
-            }
-        }
+        doAwait(0L, true, false);
         return this;
     }
 
@@ -204,65 +313,140 @@ public class DefaultEnhancePromise<V> extends AbstractEnhanceFuture<V> implement
         if (interruptable && Thread.interrupted()) {
             throw new InterruptedException(toString());
         }
+        return doAwait(timeoutNanos, interruptable, true);
+    }
 
-        long startTime = System.nanoTime();
-        long waitTime = timeoutNanos;
+    /**
+     * 将当前线程压入等待栈后park,直到结果完成、超时或者被中断。
+     * 入栈之后会再次检查结果,所以不会错过完成时的唤醒。
+     *
+     * @param timeoutNanos  超时时间,仅在timed为true时有效
+     * @param interruptable 是否响应中断
+     * @param timed         是否限时等待
+     * @return 是否已完成
+     * @throws InterruptedException 线程中断异常
+     */
+    private boolean doAwait(long timeoutNanos, boolean interruptable, boolean timed) throws InterruptedException {
+        final long deadline = timed ? System.nanoTime() + timeoutNanos : 0L;
+        WaitNode node = null;
+        boolean queued = false;
         boolean interrupted = false;
         try {
             for (; ; ) {
-                synchronized (this) {
-                    if (isDone()) {
-                        return true;
-                    }
-                    incWaiters();
-                    try {
-                        wait(waitTime / 1000000, (int) (waitTime % 1000000));
-                    } catch (InterruptedException e) {
-                        if (interruptable) {
-                            throw e;
-                        } else {
-                            interrupted = true;
-                        }
-                    } finally {
-                        decWaiters();
-                    }
-                }
                 if (isDone()) {
                     return true;
-                } else {
-                    waitTime = timeoutNanos - (System.nanoTime() - startTime);
+                }
+                if (node == null) {
+                    node = new WaitNode();
+                } else if (!queued) {
+                    //入栈失败则重试,成功后再检查一次结果再park
+                    node.next = waiters;
+                    queued = WAITERS_UPDATER.compareAndSet(this, node.next, node);
+                } else if (timed) {
+                    long waitTime = deadline - System.nanoTime();
                     if (waitTime <= 0) {
                         return isDone();
                     }
+                    LockSupport.parkNanos(this, waitTime);
+                } else {
+                    LockSupport.park(this);
+                }
+                if (Thread.interrupted()) {
+                    if (interruptable) {
+                        throw new InterruptedException(toString());
+                    }
+                    interrupted = true;
                 }
             }
         } finally {
+            //线程执行到这里就,结束等待了,从等待栈中移除
+            if (queued) {
+                removeWaiter(node);
+            }
             if (interrupted) {
                 Thread.currentThread().interrupt();
             }
         }
     }
 
-    @Override
-    public EnhanceFuture<V> addListener(DefaultEnhanceFutureListeners defaultEnhanceFutureListeners) {
-        synchronized (this) {
-            this.listeners = defaultEnhanceFutureListeners;
-        }
+    /**
+     * 超时或中断的等待线程需要从栈中摘除,避免栈无限增长。
+     * 先将节点的线程置空,再清理所有线程为空的节点,遇到竞争则从头重新扫描。
+     *
+     * @param node 需要移除的节点
+     */
+    private void removeWaiter(WaitNode node) {
+        node.thread = null;
         if (isDone()) {
-            notifyListeners();
+            //已完成时栈已经被整体摘除,无需清理
+            return;
         }
+        retry:
+        for (; ; ) {
+            for (WaitNode pred = null, q = waiters, s; q != null; q = s) {
+                s = q.next;
+                if (q.thread != null) {
+                    pred = q;
+                } else if (pred != null) {
+                    pred.next = s;
+                    if (pred.thread == null) {
+                        continue retry;
+                    }
+                } else if (!WAITERS_UPDATER.compareAndSet(this, q, s)) {
+                    continue retry;
+                }
+            }
+            break;
+        }
+    }
+
+    @Override
+    public EnhanceFuture<V> addListener(DefaultEnhanceFutureListeners defaultEnhanceFutureListeners) {
+        addListener0(Objects.requireNonNull(defaultEnhanceFutureListeners, "listeners"));
         return this;
     }
 
     @Override
     public EnhanceFuture<V> addListener(EnhanceFutureListener hanFutureListener) {
-        synchronized (this) {
-            this.listeners = hanFutureListener;
+        addListener0(Objects.requireNonNull(hanFutureListener, "listener"));
+        return this;
+    }
+
+    @Override
+    public EnhanceFuture<V> addListener(EnhanceFutureListener hanFutureListener, Executor executor) {
+        addListener0(new ExecutorListener(Objects.requireNonNull(hanFutureListener, "listener"),
+                Objects.requireNonNull(executor, "executor")));
+        return this;
+    }
+
+    /**
+     * 无锁追加监听器,已有的监听器不会被覆盖。
+     * 追加之后如果已经完成,则主动触发一次通知;与完成线程竞争时只有一方能摘到链表,不会重复通知。
+     * 注意: 完成之后追加的监听器会在当前线程立即执行,可能早于完成线程仍在通知中的监听器。
+     *
+     * @param listener 监听器或监听器集合
+     */
+    private void addListener0(Object listener) {
+        ListenerNode node = null;
+        for (; ; ) {
+            Object head = this.listeners;
+            Object update;
+            if (head == null) {
+                update = listener;
+            } else {
+                if (node == null) {
+                    node = new ListenerNode(listener);
+                }
+                node.next = head;
+                update = node;
+            }
+            if (LISTENERS_UPDATER.compareAndSet(this, head, update)) {
+                break;
+            }
         }
         if (isDone()) {
             notifyListeners();
         }
-        return this;
     }
 
     @Override
@@ -293,6 +477,144 @@ public class DefaultEnhancePromise<V> extends AbstractEnhanceFuture<V> implement
     }
 
 
+    /**
+     * 超过内联深度之后用于执行通知的执行器
+     *
+     * @return 执行器,可能为空
+     */
+    protected Executor executor() {
+        return executor;
+    }
+
+    /**
+     * 组合操作产生的新Promise,子类可以重写以返回自己的类型
+     *
+     * @param <U> 结果类型
+     * @return 新的Promise
+     */
+    protected <U> DefaultEnhancePromise<U> newPromise() {
+        return new DefaultEnhancePromise<>(executor);
+    }
+
+    @Override
+    public <U> EnhanceFuture<U> thenApply(Function<? super V, ? extends U> fn) {
+        Objects.requireNonNull(fn, "fn");
+        final DefaultEnhancePromise<U> promise = newPromise();
+        addListener0(new EnhanceFutureListener<EnhanceFuture<V>>() {
+            @Override
+            public void onSuccess(EnhanceFuture<V> future) {
+                U value;
+                try {
+                    value = fn.apply(future.getNow());
+                } catch (Throwable t) {
+                    promise.tryFailure(t);
+                    return;
+                }
+                promise.trySuccess(value);
+            }
+
+            @Override
+            public void onThrowable(Throwable throwable) {
+                promise.tryFailure(throwable);
+            }
+        });
+        return promise;
+    }
+
+    @Override
+    public <U> EnhanceFuture<U> thenComposeFuture(Function<? super V, ? extends EnhanceFuture<U>> fn) {
+        Objects.requireNonNull(fn, "fn");
+        final DefaultEnhancePromise<U> promise = newPromise();
+        addListener0(new EnhanceFutureListener<EnhanceFuture<V>>() {
+            @Override
+            public void onSuccess(EnhanceFuture<V> future) {
+                EnhanceFuture<U> next;
+                try {
+                    next = Objects.requireNonNull(fn.apply(future.getNow()), "thenComposeFuture function returned null");
+                } catch (Throwable t) {
+                    promise.tryFailure(t);
+                    return;
+                }
+                next.addListener(new RelayListener<>(promise));
+            }
+
+            @Override
+            public void onThrowable(Throwable throwable) {
+                promise.tryFailure(throwable);
+            }
+        });
+        return promise;
+    }
+
+    @Override
+    public <U, R> EnhanceFuture<R> zip(EnhanceFuture<U> other, BiFunction<? super V, ? super U, ? extends R> fn) {
+        Objects.requireNonNull(other, "other");
+        Objects.requireNonNull(fn, "fn");
+        final DefaultEnhancePromise<R> promise = newPromise();
+        final AtomicInteger remaining = new AtomicInteger(2);
+        //两个Future共用同一个监听器,最后一个成功的负责合并结果
+        EnhanceFutureListener<EnhanceFuture<?>> listener = new EnhanceFutureListener<EnhanceFuture<?>>() {
+            @Override
+            public void onSuccess(EnhanceFuture<?> future) {
+                if (remaining.decrementAndGet() != 0) {
+                    return;
+                }
+                R value;
+                try {
+                    value = fn.apply(getNow(), other.getNow());
+                } catch (Throwable t) {
+                    promise.tryFailure(t);
+                    return;
+                }
+                promise.trySuccess(value);
+            }
+
+            @Override
+            public void onThrowable(Throwable throwable) {
+                promise.tryFailure(throwable);
+            }
+        };
+        addListener0(listener);
+        other.addListener(listener);
+        return promise;
+    }
+
+    @Override
+    public EnhanceFuture<V> orTimeout(long timeout, TimeUnit unit) {
+        scheduleTimeout(this, timeout, unit);
+        return this;
+    }
+
+    @Override
+    public EnhanceFuture<V> withTimeout(long timeout, TimeUnit unit) {
+        DefaultEnhancePromise<V> promise = newPromise();
+        addListener0(new RelayListener<>(promise));
+        scheduleTimeout(promise, timeout, unit);
+        return promise;
+    }
+
+    /**
+     * 在共享时间轮上注册超时任务,到期时以{@link TimeoutException}失败。
+     * 超时任务同时作为监听器,promise完成时撤销超时,撤销只修改状态不分配对象
+     *
+     * @param promise 需要超时控制的promise
+     * @param timeout 超时时间
+     * @param unit    单位
+     */
+    private static void scheduleTimeout(DefaultEnhancePromise<?> promise, long timeout, TimeUnit unit) {
+        Objects.requireNonNull(unit, "unit");
+        if (promise.isDone()) {
+            return;
+        }
+        if (timeout <= 0) {
+            promise.tryFailure0(TIMEOUT_CAUSE_HOLDER);
+            return;
+        }
+        TimeoutTask task = new TimeoutTask(promise);
+        task.timeout = TimerHolder.TIMER.newTimeout(task, timeout, unit);
+        promise.addListener0(task);
+    }
+
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
         if (RESULT_UPDATER.compareAndSet(this, null, CANCELLATION_CAUSE_HOLDER)) {
@@ -367,10 +689,58 @@ public class DefaultEnhancePromise<V> extends AbstractEnhanceFuture<V> implement
         return false;
     }
 
-    private synchronized void checkNotifyWaiters() {
-        if (waiters > 0) {
-            notifyAll();
+    /**
+     * 摘除整个等待栈并逐个唤醒,只唤醒真正在等待的线程。
+     * 没有等待线程时只有一次volatile读,不加锁。
+     */
+    private void checkNotifyWaiters() {
+        for (WaitNode q; (q = waiters) != null; ) {
+            if (WAITERS_UPDATER.compareAndSet(this, q, null)) {
+                for (; q != null; q = q.next) {
+                    Thread t = q.thread;
+                    if (t != null) {
+                        q.thread = null;
+                        LockSupport.unpark(t);
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    @Override
+    public boolean trySuccess(V result) {
+        if (setSuccess0(result)) {
+            notifyListeners();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryFailure(Throwable cause) {
+        if (setFailure0(cause)) {
+            notifyListeners();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 以截止时间已过失败,不填充异常栈也不分配对象
+     *
+     * @return 是否设置成功
+     */
+    boolean tryDeadlineExceeded() {
+        return tryFailure0(DEADLINE_CAUSE_HOLDER);
+    }
+
+    private boolean tryFailure0(CauseHolder causeHolder) {
+        if (setValue0(causeHolder)) {
+            notifyListeners();
+            return true;
         }
+        return false;
     }
 
     @Override
@@ -387,17 +757,103 @@ public class DefaultEnhancePromise<V> extends AbstractEnhanceFuture<V> implement
     }
 
     /**
-     * 每次等待时候调用,检查最大等待
+     * 所有promise共享的时间轮,第一次使用超时时才创建
+     */
+    private static final class TimerHolder {
+        static final HashedWheelTimer TIMER = new HashedWheelTimer(
+                new NamedThreadFactory("enhance-future-timer", true, true), 10, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * 超时任务,同时监听promise的完成以便撤销超时
      */
-    private void incWaiters() {
-        if (waiters == Short.MAX_VALUE) {
-            throw new IllegalStateException("too many waiters: " + this);
+    private static final class TimeoutTask implements TimerTask, EnhanceFutureListener<EnhanceFuture<?>> {
+        private final DefaultEnhancePromise<?> promise;
+        volatile Timeout timeout;
+
+        TimeoutTask(DefaultEnhancePromise<?> promise) {
+            this.promise = promise;
+        }
+
+        @Override
+        public void run(Timeout timeout) {
+            promise.tryFailure0(TIMEOUT_CAUSE_HOLDER);
+        }
+
+        @Override
+        public void onSuccess(EnhanceFuture<?> future) {
+            cancelTimeout();
+        }
+
+        @Override
+        public void onThrowable(Throwable throwable) {
+            cancelTimeout();
+        }
+
+        private void cancelTimeout() {
+            Timeout timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel();
+            }
         }
-        ++waiters;
     }
 
-    private void decWaiters() {
-        --waiters;
+    /**
+     * 将一个Future的结果原样转交给另一个Promise
+     */
+    static final class RelayListener<U> implements EnhanceFutureListener<EnhanceFuture<U>> {
+        private final Promise<U> promise;
+
+        RelayListener(Promise<U> promise) {
+            this.promise = promise;
+        }
+
+        @Override
+        public void onSuccess(EnhanceFuture<U> future) {
+            promise.trySuccess(future.getNow());
+        }
+
+        @Override
+        public void onThrowable(Throwable throwable) {
+            promise.tryFailure(throwable);
+        }
+    }
+
+    /**
+     * 绑定了执行器的监听器,总是在指定的执行器中执行
+     */
+    private static final class ExecutorListener {
+        final EnhanceFutureListener<?> listener;
+        final Executor executor;
+
+        ExecutorListener(EnhanceFutureListener<?> listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+    }
+
+    /**
+     * 监听器链表节点,next为下一个节点或者最早添加的监听器本身
+     */
+    private static final class ListenerNode {
+        final Object listener;
+        Object next;
+
+        ListenerNode(Object listener) {
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * 等待栈节点
+     */
+    private static final class WaitNode {
+        volatile Thread thread;
+        volatile WaitNode next;
+
+        WaitNode() {
+            thread = Thread.currentThread();
+        }
     }
 
     private static final class CauseHolder {
@@ -1,8 +1,12 @@
 package com.hanframework.kit.futrue;
 
+import com.hanframework.kit.metrics.ExecutorMetrics;
+import com.hanframework.kit.thread.TaskPriority;
+
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * 增强了JDK自带Future,必须重新实现线程执行器。
@@ -13,6 +17,53 @@ public class DefaultEnhancePromiseTask<V> extends DefaultEnhancePromise<V> imple
 
     protected final Callable<V> task;
 
+    /**
+     * 中断进行中的标识,执行线程结束时需要等待中断完成,避免中断泄漏到下一个任务
+     */
+    private static final Object INTERRUPTING = new Object();
+
+    private static final AtomicReferenceFieldUpdater<DefaultEnhancePromiseTask, Object> RUNNER_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(DefaultEnhancePromiseTask.class, Object.class, "runner");
+
+    /**
+     * 正在执行任务的线程,未执行或执行结束为null,撤销中断时为{@link #INTERRUPTING}
+     */
+    private volatile Object runner;
+
+    /**
+     * 撤销时是否中断了执行线程,在写runner之前写入,执行线程读到runner之后可见
+     */
+    private boolean interruptedByCancel;
+
+    /**
+     * 提交任务的线程池,撤销时用于从队列中移除
+     */
+    private EnhanceExecutorService owner;
+
+    /**
+     * 线程池开启指标时,提交时绑定
+     */
+    private ExecutorMetrics metrics;
+
+    private long submitNanos;
+
+    /**
+     * 优先级,只在{@link SchedulingTaskQueue}中生效
+     */
+    private TaskPriority priority = TaskPriority.NORMAL;
+
+    /**
+     * 截止时间(System.nanoTime),hasDeadline为false时无效
+     */
+    private long deadlineNanos;
+
+    private boolean hasDeadline;
+
+    /**
+     * 入队序号,相同优先级和截止时间时保证先进先出
+     */
+    long sequence;
+
     public DefaultEnhancePromiseTask(Callable<V> task) {
         this.task = task;
     }
@@ -22,17 +73,152 @@ public class DefaultEnhancePromiseTask<V> extends DefaultEnhancePromise<V> imple
     }
 
     /**
-     * 判断是否被撤销,如果撤销就不执行
+     * 提交之前设置调度属性
+     *
+     * @param priority      优先级
+     * @param deadlineNanos 截止时间(System.nanoTime)
+     * @param hasDeadline   是否有截止时间
+     */
+    void schedule(TaskPriority priority, long deadlineNanos, boolean hasDeadline) {
+        this.priority = priority;
+        this.deadlineNanos = deadlineNanos;
+        this.hasDeadline = hasDeadline;
+    }
+
+    TaskPriority priority() {
+        return priority;
+    }
+
+    boolean hasDeadline() {
+        return hasDeadline;
+    }
+
+    long deadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * 提交到线程池之前绑定线程池和指标,记录提交时间
+     *
+     * @param owner   线程池
+     * @param metrics 指标,可以为空
+     */
+    void bind(EnhanceExecutorService owner, ExecutorMetrics metrics) {
+        this.owner = owner;
+        this.metrics = metrics;
+        if (metrics != null) {
+            this.submitNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 判断是否已完成(被撤销或超时),如果完成就不执行
+     * 执行期间记录执行线程,以便撤销时中断
      */
     @Override
     public void run() {
+        final Thread current = Thread.currentThread();
+        if (!RUNNER_UPDATER.compareAndSet(this, null, current)) {
+            return;
+        }
         try {
-            if (!isCancelled()) {
-                V result = task.call();
-                setSuccess(result);
+            run1();
+        } finally {
+            if (!RUNNER_UPDATER.compareAndSet(this, current, null)) {
+                //撤销线程正在中断当前线程,等待中断完成后再离开,保证中断只会发生在任务执行期间
+                while (runner == INTERRUPTING) {
+                    Thread.yield();
+                }
+                runner = null;
+            }
+            if (interruptedByCancel) {
+                //清除撤销留下的中断标识,同一线程上的下一个任务(例如OrderedEnhanceExecutor、ForkJoinPool)不受影响
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private void run1() {
+        final ExecutorMetrics metrics = this.metrics;
+        if (metrics == null) {
+            if (!isDeadlineExceeded()) {
+                run0();
             }
+            return;
+        }
+        if (isDone()) {
+            metrics.onSkipped();
+            return;
+        }
+        if (isDeadlineExceeded()) {
+            metrics.onExpired(System.nanoTime() - submitNanos, priority);
+            return;
+        }
+        long start = System.nanoTime();
+        metrics.onStart(start - submitNanos, priority);
+        boolean success = false;
+        try {
+            success = run0();
+        } finally {
+            metrics.onComplete(System.nanoTime() - start, success);
+        }
+    }
+
+    /**
+     * 出队时已经超过截止时间,调用方早已放弃等待,直接以超时失败而不执行
+     *
+     * @return 是否已超过截止时间
+     */
+    private boolean isDeadlineExceeded() {
+        if (hasDeadline && System.nanoTime() - deadlineNanos >= 0) {
+            tryDeadlineExceeded();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean run0() {
+        if (isDone()) {
+            return false;
+        }
+        try {
+            V result = task.call();
+            return trySuccess(result);
         } catch (Throwable e) {
-            setFailure(e);
+            tryFailure(e);
+            return false;
+        }
+    }
+
+    /**
+     * 撤销任务
+     * 1. 还在队列中的任务立即从线程池队列中移除,释放队列容量
+     * 2. mayInterruptIfRunning为true时中断正在执行任务的线程
+     *
+     * @param mayInterruptIfRunning 是否中断执行中的线程
+     * @return 是否撤销成功
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!super.cancel(mayInterruptIfRunning)) {
+            return false;
+        }
+        if (metrics != null) {
+            metrics.onCancelled();
+        }
+        Object r = runner;
+        if (r == null) {
+            if (owner != null) {
+                owner.evict(this);
+            }
+        } else if (mayInterruptIfRunning && r instanceof Thread && RUNNER_UPDATER.compareAndSet(this, r, INTERRUPTING)) {
+            interruptedByCancel = true;
+            try {
+                ((Thread) r).interrupt();
+            } finally {
+                runner = r;
+            }
         }
+        return true;
     }
 }
@@ -1,7 +1,16 @@
 package com.hanframework.kit.futrue;
 
+import com.hanframework.kit.metrics.ExecutorMetrics;
+import com.hanframework.kit.metrics.MetricsSampler;
+import com.hanframework.kit.thread.TaskPriority;
+import com.hanframework.kit.thread.VirtualThreads;
+
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 如何重新定义线程执行器,其实在JDK抽象执行器中已经给出了实例代码。
@@ -22,6 +31,16 @@ import java.util.concurrent.*;
  *     // ... add constructors, etc.
  * }}</pre>
  *
+ * <p>
+ * 底层执行器可以是:
+ * 1. {@link #ofWrapper(ThreadPoolExecutor)} 包装的线程池
+ * 2. {@link #ofVirtualThreads(String, int, ExecutorMetrics)} 每个任务一个虚拟线程(JDK 21+),
+ * 可选信号量限制并发,避免压垮下游的连接池
+ * 3. {@link #ofForkJoin(String, int, ExecutorMetrics)} 基于ForkJoinPool的工作窃取,每个工作线程有自己的双端队列,
+ * 工作线程内部提交的任务进入自己的本地队列,大量短任务时避免争抢同一个共享队列
+ * 4. {@link #ofScheduling(ThreadFactory, int, ExecutorMetrics)} 按优先级、截止时间调度的线程池,
+ * 配合{@link #submit(Callable, TaskPriority)}、{@link #submit(Callable, long, TimeUnit)}使用
+ *
  * @author liuxin
  * @version Id: EnhanceExecutorService.java, v 0.1 2019-06-12 10:55
  * @see AbstractExecutorService
@@ -29,39 +48,150 @@ import java.util.concurrent.*;
  */
 public class EnhanceExecutorService extends AbstractExecutorService {
 
-    private ThreadPoolExecutor threadPoolExecutor;
+    /**
+     * 底层执行器
+     */
+    private final ExecutorService executor;
 
     /**
-     * 定时任务打印,当前线程状态
+     * 线程池指标,为空时不采集
      */
-    private ScheduledExecutorService scheduledLogPrintExecutorService = new ScheduledThreadPoolExecutor(1);
+    private final ExecutorMetrics metrics;
 
-    private void openSchedulePrintLog() {
-        scheduledLogPrintExecutorService.scheduleAtFixedRate(new Runnable() {
-            @Override
-            public void run() {
-                int activeCount = threadPoolExecutor.getActiveCount();
-                int corePoolSize = threadPoolExecutor.getCorePoolSize();
-                long taskCount = threadPoolExecutor.getTaskCount();
-                long keepAliveTime = threadPoolExecutor.getKeepAliveTime(TimeUnit.MILLISECONDS);
-                int poolSize = threadPoolExecutor.getPoolSize();
-                int largestPoolSize = threadPoolExecutor.getLargestPoolSize();
-                int maximumPoolSize = threadPoolExecutor.getMaximumPoolSize();
-                int size = threadPoolExecutor.getQueue().size();
-                System.err.println(
-                        String.format("活跃线程数:[%d],队列任务:[%d],固定核心线程数:[%d],已完成任务数:[%d],池大小:[%d],活跃时间:[%dms],触顶线程池大小:[%d],最大池:[%d]",
-                                activeCount, size, corePoolSize, taskCount, poolSize, keepAliveTime, largestPoolSize, maximumPoolSize));
-            }
-        }, 0, 1, TimeUnit.SECONDS);
-    }
+    /**
+     * 并发上限,为空时不限制
+     */
+    private final Semaphore concurrencyLimit;
+
+    /**
+     * 底层线程池的队列是否为{@link SchedulingTaskQueue},只有这种情况下优先级才会生效
+     */
+    private final boolean scheduling;
 
     public static EnhanceExecutorService ofWrapper(ThreadPoolExecutor threadPoolExecutor) {
-        return new EnhanceExecutorService(threadPoolExecutor);
+        return new EnhanceExecutorService(threadPoolExecutor, null, null);
+    }
+
+    /**
+     * 包装线程池并采集指标,开始指标采样,线程池终止(关闭后所有任务都已结束)时才关闭指标采样。
+     * 线程池的拒绝策略会被包装一层,拒绝策略静默丢弃的任务同样计入拒绝数
+     *
+     * @param threadPoolExecutor 线程池
+     * @param metrics            指标
+     * @return EnhanceExecutorService
+     */
+    public static EnhanceExecutorService ofWrapper(ThreadPoolExecutor threadPoolExecutor, ExecutorMetrics metrics) {
+        return new EnhanceExecutorService(threadPoolExecutor, metrics, null);
+    }
+
+    /**
+     * 每个任务一个虚拟线程,不限制并发
+     *
+     * @param namePrefix 线程名前缀
+     * @return EnhanceExecutorService
+     * @throws UnsupportedOperationException 当前JDK不支持虚拟线程
+     */
+    public static EnhanceExecutorService ofVirtualThreads(String namePrefix) {
+        return ofVirtualThreads(namePrefix, 0, null);
+    }
+
+    /**
+     * 每个任务一个虚拟线程,适合阻塞IO(JDBC、文件)类的任务
+     * 超过并发上限的任务在自己的虚拟线程中等待信号量,不会阻塞提交线程
+     *
+     * @param namePrefix     线程名前缀
+     * @param maxConcurrency 最大并发数,小于等于0时不限制
+     * @param metrics        指标,可以为空
+     * @return EnhanceExecutorService
+     * @throws UnsupportedOperationException 当前JDK不支持虚拟线程
+     */
+    public static EnhanceExecutorService ofVirtualThreads(String namePrefix, int maxConcurrency, ExecutorMetrics metrics) {
+        return new EnhanceExecutorService(VirtualThreads.newThreadPerTaskExecutor(namePrefix + "-virtual-"), metrics,
+                maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null);
+    }
+
+    /**
+     * 基于ForkJoinPool的工作窃取执行器,线程数为CPU核数
+     *
+     * @param namePrefix 线程名前缀
+     * @return EnhanceExecutorService
+     */
+    public static EnhanceExecutorService ofForkJoin(String namePrefix) {
+        return ofForkJoin(namePrefix, Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    /**
+     * 基于ForkJoinPool的工作窃取执行器
+     * 使用asyncMode,本地队列按FIFO执行,适合提交后不join的事件型任务。
+     * 注意: ForkJoinPool不支持从队列中移除任务,撤销的任务在出队时跳过执行
+     *
+     * @param namePrefix  线程名前缀
+     * @param parallelism 并行度
+     * @param metrics     指标,可以为空
+     * @return EnhanceExecutorService
+     */
+    public static EnhanceExecutorService ofForkJoin(String namePrefix, int parallelism, ExecutorMetrics metrics) {
+        Objects.requireNonNull(namePrefix, "namePrefix");
+        final AtomicInteger threadNum = new AtomicInteger(1);
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(namePrefix + "-fj-" + threadNum.getAndIncrement());
+            return thread;
+        };
+        return new EnhanceExecutorService(new ForkJoinPool(parallelism, factory, null, true), metrics, null);
     }
 
-    private EnhanceExecutorService(ThreadPoolExecutor threadPoolExecutor) {
-        this.threadPoolExecutor = threadPoolExecutor;
-        openSchedulePrintLog();
+    /**
+     * 使用{@link SchedulingTaskQueue}的固定大小线程池,任务按优先级、截止时间出队
+     *
+     * @param threadFactory 线程工厂
+     * @param threads       线程数
+     * @param metrics       指标,可以为空
+     * @return EnhanceExecutorService
+     */
+    public static EnhanceExecutorService ofScheduling(ThreadFactory threadFactory, int threads, ExecutorMetrics metrics) {
+        return new EnhanceExecutorService(new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new SchedulingTaskQueue(), threadFactory), metrics, null);
+    }
+
+    private EnhanceExecutorService(ExecutorService executor, ExecutorMetrics metrics, Semaphore concurrencyLimit) {
+        this.executor = executor;
+        this.metrics = metrics;
+        this.concurrencyLimit = concurrencyLimit;
+        this.scheduling = executor instanceof ThreadPoolExecutor
+                && ((ThreadPoolExecutor) executor).getQueue() instanceof SchedulingTaskQueue;
+        if (metrics != null) {
+            if (executor instanceof ThreadPoolExecutor) {
+                ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+                RejectedExecutionHandler handler = pool.getRejectedExecutionHandler();
+                if (handler instanceof MeteredRejectedExecutionHandler) {
+                    handler = ((MeteredRejectedExecutionHandler) handler).handler;
+                }
+                pool.setRejectedExecutionHandler(new MeteredRejectedExecutionHandler(handler, metrics));
+            }
+            metrics.start();
+        }
+    }
+
+    /**
+     * 撤销时从队列中移除的任务数量
+     */
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * 是否已经开始等待线程池终止后关闭指标
+     */
+    private final AtomicBoolean terminationWatched = new AtomicBoolean();
+
+    private volatile ScheduledFuture<?> terminationWatcher;
+
+    /**
+     * 线程池指标
+     *
+     * @return 未开启时为null
+     */
+    public ExecutorMetrics getMetrics() {
+        return metrics;
     }
 
     @Override
@@ -84,31 +214,168 @@ public class EnhanceExecutorService extends AbstractExecutorService {
         return (EnhanceFuture<?>) super.submit(task);
     }
 
+    /**
+     * 按优先级提交,只支持底层队列为{@link SchedulingTaskQueue}的线程池,例如{@link #ofScheduling(ThreadFactory, int, ExecutorMetrics)}
+     *
+     * @param task     任务
+     * @param priority 优先级
+     * @param <T>      结果类型
+     * @return 增强的Future
+     * @throws UnsupportedOperationException 底层执行器不按优先级调度
+     */
+    public <T> EnhanceFuture<T> submit(Callable<T> task, TaskPriority priority) {
+        checkScheduling();
+        return schedule(new DefaultEnhancePromiseTask<>(Objects.requireNonNull(task, "task")), priority, 0L, false);
+    }
+
+    /**
+     * 按优先级提交,只支持底层队列为{@link SchedulingTaskQueue}的线程池,例如{@link #ofScheduling(ThreadFactory, int, ExecutorMetrics)}
+     *
+     * @param task     任务
+     * @param priority 优先级
+     * @return 增强的Future
+     * @throws UnsupportedOperationException 底层执行器不按优先级调度
+     */
+    public EnhanceFuture<?> submit(Runnable task, TaskPriority priority) {
+        checkScheduling();
+        return schedule(new DefaultEnhancePromiseTask<>(Objects.requireNonNull(task, "task"), null), priority, 0L, false);
+    }
+
+    /**
+     * 带截止时间提交,出队时已超过截止时间的任务不再执行,直接以{@link TimeoutException}失败。
+     * 超时失败对所有执行器都有效;只有底层队列为{@link SchedulingTaskQueue}时才会让截止时间早的任务先执行,
+     * 其余执行器仍按提交顺序出队
+     *
+     * @param task    任务
+     * @param timeout 从现在开始的截止时间
+     * @param unit    单位
+     * @param <T>     结果类型
+     * @return 增强的Future
+     */
+    public <T> EnhanceFuture<T> submit(Callable<T> task, long timeout, TimeUnit unit) {
+        return schedule(new DefaultEnhancePromiseTask<>(Objects.requireNonNull(task, "task")), TaskPriority.NORMAL,
+                System.nanoTime() + unit.toNanos(timeout), true);
+    }
+
+    /**
+     * 同时指定优先级和截止时间提交,同一优先级中截止时间早的先执行
+     *
+     * @param task     任务
+     * @param priority 优先级
+     * @param timeout  从现在开始的截止时间
+     * @param unit     单位
+     * @param <T>      结果类型
+     * @return 增强的Future
+     * @throws UnsupportedOperationException 底层执行器不按优先级调度
+     */
+    public <T> EnhanceFuture<T> submit(Callable<T> task, TaskPriority priority, long timeout, TimeUnit unit) {
+        checkScheduling();
+        return schedule(new DefaultEnhancePromiseTask<>(Objects.requireNonNull(task, "task")), priority,
+                System.nanoTime() + unit.toNanos(timeout), true);
+    }
+
+    private void checkScheduling() {
+        if (!scheduling) {
+            throw new UnsupportedOperationException("priority requires a SchedulingTaskQueue, see ofScheduling");
+        }
+    }
+
+    private <T> EnhanceFuture<T> schedule(DefaultEnhancePromiseTask<T> task, TaskPriority priority,
+                                          long deadlineNanos, boolean hasDeadline) {
+        task.schedule(Objects.requireNonNull(priority, "priority"), deadlineNanos, hasDeadline);
+        execute(task);
+        return task;
+    }
+
     @Override
     public void shutdown() {
-        threadPoolExecutor.shutdown();
-        scheduledLogPrintExecutorService.shutdown();
+        executor.shutdown();
+        closeMetricsOnTermination();
     }
 
     @Override
     public List<Runnable> shutdownNow() {
-        scheduledLogPrintExecutorService.shutdownNow();
-        return threadPoolExecutor.shutdownNow();
+        List<Runnable> drained = executor.shutdownNow();
+        if (metrics != null) {
+            for (Runnable task : drained) {
+                metrics.onDiscarded();
+                if (task instanceof DefaultEnhancePromiseTask) {
+                    //已经按丢弃计数,调用方之后再执行时不再重复计入指标
+                    ((DefaultEnhancePromiseTask<?>) task).bind(this, null);
+                }
+            }
+            closeMetricsOnTermination();
+        }
+        return drained;
+    }
+
+    /**
+     * 撤销的任务从线程池队列中移除,不再占用队列容量,也不会再被工作线程取出
+     *
+     * @param task 已撤销的任务
+     */
+    void evict(DefaultEnhancePromiseTask<?> task) {
+        if (executor instanceof ThreadPoolExecutor && ((ThreadPoolExecutor) executor).remove(task)) {
+            evicted.increment();
+            if (metrics != null) {
+                metrics.onEvicted();
+            }
+        }
+    }
+
+    /**
+     * 撤销时从队列中移除的任务数量,即撤销释放出的队列容量
+     *
+     * @return 移除数量
+     */
+    public long getEvictedTaskCount() {
+        return evicted.sum();
+    }
+
+    /**
+     * 关闭后排队和执行中的任务仍在更新指标,等线程池终止后再停止采样并注销MBean。
+     * 由{@link #awaitTermination}或共享采样线程上的周期检查触发,先到者关闭
+     */
+    private void closeMetricsOnTermination() {
+        if (metrics == null || !terminationWatched.compareAndSet(false, true)) {
+            return;
+        }
+        if (executor.isTerminated()) {
+            metrics.close();
+            return;
+        }
+        terminationWatcher = MetricsSampler.schedule(this::closeMetricsIfTerminated, 100, TimeUnit.MILLISECONDS);
+        closeMetricsIfTerminated();
+    }
+
+    private void closeMetricsIfTerminated() {
+        if (metrics == null || !executor.isTerminated()) {
+            return;
+        }
+        ScheduledFuture<?> watcher = terminationWatcher;
+        if (watcher != null) {
+            watcher.cancel(false);
+        }
+        metrics.close();
     }
 
     @Override
     public boolean isShutdown() {
-        return threadPoolExecutor.isShutdown();
+        return executor.isShutdown();
     }
 
     @Override
     public boolean isTerminated() {
-        return threadPoolExecutor.isTerminated();
+        return executor.isTerminated();
     }
 
     @Override
     public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
-        return threadPoolExecutor.awaitTermination(timeout, unit);
+        boolean terminated = executor.awaitTermination(timeout, unit);
+        if (terminated && terminationWatched.get()) {
+            closeMetricsIfTerminated();
+        }
+        return terminated;
     }
 
     /**
@@ -120,9 +387,174 @@ public class EnhanceExecutorService extends AbstractExecutorService {
      */
     @Override
     public void execute(Runnable command) {
-        threadPoolExecutor.execute(command);
+        Objects.requireNonNull(command, "command");
+        if (command instanceof DefaultEnhancePromiseTask) {
+            ((DefaultEnhancePromiseTask<?>) command).bind(this, metrics);
+        }
+        if (metrics == null) {
+            dispatch(limit(command));
+            return;
+        }
+        Runnable task;
+        if (command instanceof DefaultEnhancePromiseTask) {
+            task = command;
+        } else {
+            task = new MeteredRunnable(command, metrics);
+        }
+        metrics.onSubmit();
+        try {
+            dispatch(limit(task));
+        } catch (RejectedExecutionException e) {
+            metrics.onRejected();
+            throw e;
+        }
     }
 
+    /**
+     * ForkJoinPool的工作线程内部提交时直接fork到当前线程的本地队列,
+     * JDK 8的ForkJoinPool.execute总是进入共享的提交队列,这里显式处理
+     *
+     * @param task 任务
+     */
+    private void dispatch(Runnable task) {
+        if (executor instanceof ForkJoinPool) {
+            Thread current = Thread.currentThread();
+            if (current instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) current).getPool() == executor
+                    && !executor.isShutdown()) {
+                ForkJoinTask.adapt(task).fork();
+                return;
+            }
+        }
+        executor.execute(task);
+    }
+
+    private Runnable limit(Runnable task) {
+        return concurrencyLimit == null ? task : new PermitRunnable(task, concurrencyLimit);
+    }
+
+    /**
+     * 在执行线程中获取信号量后再执行任务,等待期间被撤销的任务不再占用信号量
+     */
+    private static final class PermitRunnable implements Runnable {
+        private final Runnable task;
+        private final Semaphore permits;
+
+        PermitRunnable(Runnable task, Semaphore permits) {
+            this.task = task;
+            this.permits = permits;
+        }
+
+        @Override
+        public void run() {
+            if (task instanceof Future && ((Future<?>) task).isDone()) {
+                //等待期间已被撤销,不需要信号量
+                task.run();
+                return;
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                //执行器shutdownNow,与线程池丢弃队列中的任务一致,撤销任务不再执行
+                Thread.currentThread().interrupt();
+                if (task instanceof Future) {
+                    ((Future<?>) task).cancel(false);
+                    task.run();
+                }
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * 包装线程池的拒绝策略,静默丢弃的任务也计入拒绝数,并从排队数中减去
+     * 1. DiscardPolicy、DiscardOldestPolicy直接按丢弃处理
+     * 2. 其他策略(CallerRunsPolicy、EagerThreadPoolExecutor的重试、自定义策略)抛出异常时由execute计入拒绝数;
+     * 正常返回时,任务既没有开始执行也不在队列中就认为被丢弃。
+     * 把任务转交给其他执行器异步执行的自定义策略同样会被计为丢弃,之后执行时排队数会再减一次,这种策略不适合和指标一起使用
+     */
+    private static final class MeteredRejectedExecutionHandler implements RejectedExecutionHandler {
+        private final RejectedExecutionHandler handler;
+        private final ExecutorMetrics metrics;
+
+        MeteredRejectedExecutionHandler(RejectedExecutionHandler handler, ExecutorMetrics metrics) {
+            this.handler = handler;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (handler instanceof ThreadPoolExecutor.DiscardPolicy) {
+                metrics.onRejected();
+            } else if (handler instanceof ThreadPoolExecutor.DiscardOldestPolicy) {
+                if (executor.isShutdown()) {
+                    metrics.onRejected();
+                } else {
+                    //丢弃队首的任务后重新提交,与DiscardOldestPolicy一致
+                    if (executor.getQueue().poll() != null) {
+                        metrics.onRejected();
+                    }
+                    executor.execute(r);
+                }
+            } else {
+                //抛出的RejectedExecutionException由execute计入拒绝数
+                handler.rejectedExecution(r, executor);
+                if (!started(r) && !executor.getQueue().contains(r)) {
+                    metrics.onRejected();
+                }
+            }
+        }
+
+        private static boolean started(Runnable r) {
+            if (r instanceof DefaultEnhancePromiseTask) {
+                return ((DefaultEnhancePromiseTask<?>) r).isDone();
+            }
+            return r instanceof MeteredRunnable && ((MeteredRunnable) r).started;
+        }
+    }
+
+    /**
+     * 直接通过execute提交的Runnable,记录指标后原样抛出异常
+     */
+    private static final class MeteredRunnable implements Runnable {
+        private final Runnable command;
+        private final ExecutorMetrics metrics;
+        private final long submitNanos = System.nanoTime();
+
+        /**
+         * 拒绝策略正常返回时用于判断任务是否已由调用方执行
+         */
+        private volatile boolean started;
+
+        MeteredRunnable(Runnable command, ExecutorMetrics metrics) {
+            this.command = command;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void run() {
+            started = true;
+            long start = System.nanoTime();
+            metrics.onStart(start - submitNanos);
+            boolean success = false;
+            try {
+                command.run();
+                success = true;
+            } finally {
+                metrics.onComplete(System.nanoTime() - start, success);
+            }
+        }
+    }
+
+    /**
+     * 依次阻塞等待所有任务完成,需要非阻塞地组合结果时使用{@link EnhanceFutureTools#allOf(EnhanceFuture[])}
+     *
+     * @param enhanceFutures 任务
+     */
     public void sync(EnhanceFuture... enhanceFutures) {
         for (EnhanceFuture enhanceFuture : enhanceFutures) {
             try {
@@ -1,8 +1,11 @@
 package com.hanframework.kit.futrue;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * 在继承原由能力基础之上,对jdk原生异步接口进行增强处理
@@ -78,6 +81,16 @@ public interface EnhanceFuture<V> extends Future<V> {
      */
     EnhanceFuture<V> addListener(EnhanceFutureListener enhanceFutureListener);
 
+    /**
+     * 添加异步监听器,监听器总是在指定的执行器中执行,不会占用完成任务的线程
+     * 适用于耗时的监听器,避免阻塞线程池中的工作线程
+     *
+     * @param enhanceFutureListener 增强监听器
+     * @param executor              执行监听器的执行器
+     * @return 增强的Future
+     */
+    EnhanceFuture<V> addListener(EnhanceFutureListener enhanceFutureListener, Executor executor);
+
 
     /**
      * 添加成功监听器
@@ -104,4 +117,57 @@ public interface EnhanceFuture<V> extends Future<V> {
      * @return 增强的Future
      */
     EnhanceFuture<V> addListener(DefaultEnhanceFutureListeners enhanceFutureListeners);
+
+    /*-------------------以下为非阻塞组合操作,均通过监听器完成,不会阻塞线程-------------------*/
+
+    /**
+     * 成功后对结果进行转换,失败或撤销时直接传递异常
+     *
+     * @param fn  转换函数
+     * @param <U> 转换后的类型
+     * @return 转换后的Future
+     */
+    <U> EnhanceFuture<U> thenApply(Function<? super V, ? extends U> fn);
+
+    /**
+     * 成功后使用结果发起下一个异步操作,结果为下一个异步操作的结果
+     * 不叫thenCompose: 与{@link java.util.concurrent.CompletionStage#thenCompose}擦除后签名相同,
+     * 同时实现两个接口的{@link CompletableEnhancePromise}无法用泛型签名实现两者。
+     *
+     * @param fn  返回下一个异步操作的函数
+     * @param <U> 下一个异步操作的结果类型
+     * @return 组合后的Future
+     */
+    <U> EnhanceFuture<U> thenComposeFuture(Function<? super V, ? extends EnhanceFuture<U>> fn);
+
+    /**
+     * 两个异步操作都成功后合并结果,任何一个失败则立即失败
+     *
+     * @param other 另一个异步操作
+     * @param fn    合并函数
+     * @param <U>   另一个异步操作的结果类型
+     * @param <R>   合并后的类型
+     * @return 合并后的Future
+     */
+    <U, R> EnhanceFuture<R> zip(EnhanceFuture<U> other, BiFunction<? super V, ? super U, ? extends R> fn);
+
+    /**
+     * 超过指定时间仍未完成,则当前Future以{@link java.util.concurrent.TimeoutException}失败
+     * 超时由共享的时间轮触发,不占用等待线程
+     *
+     * @param timeout 超时时间
+     * @param unit    单位
+     * @return this
+     */
+    EnhanceFuture<V> orTimeout(long timeout, TimeUnit unit);
+
+    /**
+     * 返回一个带超时的新Future,超时后新Future以{@link java.util.concurrent.TimeoutException}失败,
+     * 当前Future不受影响
+     *
+     * @param timeout 超时时间
+     * @param unit    单位
+     * @return 带超时的Future
+     */
+    EnhanceFuture<V> withTimeout(long timeout, TimeUnit unit);
 }
@@ -0,0 +1,169 @@
+package com.hanframework.kit.futrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多个异步操作的组合工具
+ * 全部基于监听器完成,不会阻塞任何线程,可以替代{@link EnhanceExecutorService#sync(EnhanceFuture[])}
+ *
+ * @author liuxin
+ * @version Id: EnhanceFutureTools.java, v 0.1 2026-10-18 10:40
+ */
+public final class EnhanceFutureTools {
+
+    private EnhanceFutureTools() {
+    }
+
+    /**
+     * 全部成功后按传入顺序返回所有结果,任何一个失败则立即失败
+     *
+     * @param futures 异步操作
+     * @param <V>     结果类型
+     * @return 所有结果
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <V> EnhanceFuture<List<V>> allOf(EnhanceFuture<? extends V>... futures) {
+        return allOf0(requireNonNullFutures(futures));
+    }
+
+    /**
+     * 全部成功后按传入顺序返回所有结果,任何一个失败则立即失败
+     *
+     * @param futures 异步操作
+     * @param <V>     结果类型
+     * @return 所有结果
+     */
+    public static <V> EnhanceFuture<List<V>> allOf(Collection<? extends EnhanceFuture<? extends V>> futures) {
+        return allOf0(requireNonNullFutures(futures));
+    }
+
+    private static <V> EnhanceFuture<List<V>> allOf0(final List<EnhanceFuture<? extends V>> list) {
+        final DefaultEnhancePromise<List<V>> promise = new DefaultEnhancePromise<>();
+        if (list.isEmpty()) {
+            promise.trySuccess(Collections.emptyList());
+            return promise;
+        }
+        final AtomicInteger remaining = new AtomicInteger(list.size());
+        EnhanceFutureListener<EnhanceFuture<?>> listener = new EnhanceFutureListener<EnhanceFuture<?>>() {
+            @Override
+            public void onSuccess(EnhanceFuture<?> future) {
+                if (remaining.decrementAndGet() != 0) {
+                    return;
+                }
+                List<V> values = new ArrayList<>(list.size());
+                for (EnhanceFuture<? extends V> f : list) {
+                    values.add(f.getNow());
+                }
+                promise.trySuccess(values);
+            }
+
+            @Override
+            public void onThrowable(Throwable throwable) {
+                promise.tryFailure(throwable);
+            }
+        };
+        for (EnhanceFuture<? extends V> future : list) {
+            future.addListener(listener);
+        }
+        return promise;
+    }
+
+    /**
+     * 返回最先完成的结果,无论成功还是失败
+     *
+     * @param futures 异步操作
+     * @param <V>     结果类型
+     * @return 最先完成的结果
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <V> EnhanceFuture<V> anyOf(EnhanceFuture<? extends V>... futures) {
+        final List<EnhanceFuture<? extends V>> list = requireNonNullFutures(futures);
+        if (list.isEmpty()) {
+            throw new IllegalArgumentException("futures must not be empty");
+        }
+        final DefaultEnhancePromise<V> promise = new DefaultEnhancePromise<>();
+        EnhanceFutureListener<EnhanceFuture<? extends V>> listener = new EnhanceFutureListener<EnhanceFuture<? extends V>>() {
+            @Override
+            public void onSuccess(EnhanceFuture<? extends V> future) {
+                promise.trySuccess(future.getNow());
+            }
+
+            @Override
+            public void onThrowable(Throwable throwable) {
+                promise.tryFailure(throwable);
+            }
+        };
+        for (EnhanceFuture<? extends V> future : list) {
+            future.addListener(listener);
+        }
+        return promise;
+    }
+
+    /**
+     * 返回最先成功的结果,全部失败时以最后一个异常失败
+     *
+     * @param futures 异步操作
+     * @param <V>     结果类型
+     * @return 最先成功的结果
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <V> EnhanceFuture<V> firstSuccessful(EnhanceFuture<? extends V>... futures) {
+        final List<EnhanceFuture<? extends V>> list = requireNonNullFutures(futures);
+        if (list.isEmpty()) {
+            throw new IllegalArgumentException("futures must not be empty");
+        }
+        final DefaultEnhancePromise<V> promise = new DefaultEnhancePromise<>();
+        final AtomicInteger remaining = new AtomicInteger(list.size());
+        EnhanceFutureListener<EnhanceFuture<? extends V>> listener = new EnhanceFutureListener<EnhanceFuture<? extends V>>() {
+            @Override
+            public void onSuccess(EnhanceFuture<? extends V> future) {
+                promise.trySuccess(future.getNow());
+            }
+
+            @Override
+            public void onThrowable(Throwable throwable) {
+                if (remaining.decrementAndGet() == 0) {
+                    promise.tryFailure(throwable);
+                }
+            }
+        };
+        for (EnhanceFuture<? extends V> future : list) {
+            future.addListener(listener);
+        }
+        return promise;
+    }
+
+    /**
+     * 注册监听器之前先整体校验,避免部分监听器已经注册后才发现null
+     * 可变参数的重载把数组交给这里,只读取元素复制到新的列表,不会写入数组,因此{@link SafeVarargs}成立
+     *
+     * @param futures 异步操作
+     * @param <F>     异步操作类型
+     * @return 校验后的副本
+     */
+    private static <F> List<F> requireNonNullFutures(F[] futures) {
+        Objects.requireNonNull(futures, "futures");
+        List<F> list = new ArrayList<>(futures.length);
+        for (F future : futures) {
+            list.add(Objects.requireNonNull(future, "future"));
+        }
+        return list;
+    }
+
+    private static <F> List<F> requireNonNullFutures(Collection<? extends F> futures) {
+        Objects.requireNonNull(futures, "futures");
+        List<F> list = new ArrayList<>(futures.size());
+        for (F future : futures) {
+            list.add(Objects.requireNonNull(future, "future"));
+        }
+        return list;
+    }
+}
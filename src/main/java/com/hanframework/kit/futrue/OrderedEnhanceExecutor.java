@@ -0,0 +1,173 @@
+package com.hanframework.kit.futrue;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 按key串行、跨key并行的执行器
+ * 相同key的任务按提交顺序逐个执行,不同key的任务分散到共享的线程池上并行执行。
+ * <p>
+ * 每个key对应一个轻量的队列,只在有任务时存在:提交时通过{@link ConcurrentHashMap#compute}创建或追加,
+ * 执行完最后一个任务时在同一个compute中删除,key的数量不会无限增长。
+ * 同一个key一次最多连续执行{@code batchSize}个任务,之后重新提交到线程池排队,避免热点key长期占用线程。
+ * <p>
+ * 撤销排队中的任务不会把它从key队列中移除,轮到它时直接跳过。
+ *
+ * @author liuxin
+ * @version Id: OrderedEnhanceExecutor.java, v 0.1 2026-10-18 16:50
+ */
+public class OrderedEnhanceExecutor {
+
+    private static final int DEFAULT_BATCH_SIZE = 16;
+
+    private final Executor executor;
+
+    private final int batchSize;
+
+    private final ConcurrentHashMap<Object, KeyQueue> queues = new ConcurrentHashMap<>();
+
+    public OrderedEnhanceExecutor(Executor executor) {
+        this(executor, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param executor  共享线程池
+     * @param batchSize 同一个key连续执行的最大任务数
+     */
+    public OrderedEnhanceExecutor(Executor executor, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize: " + batchSize + " (expected: > 0)");
+        }
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 提交任务,与之前提交的相同key的任务串行执行
+     *
+     * @param key  key,按equals/hashCode区分
+     * @param task 任务
+     * @param <T>  结果类型
+     * @return 增强的Future
+     */
+    public <T> EnhanceFuture<T> submit(Object key, Callable<T> task) {
+        return enqueue(key, new DefaultEnhancePromiseTask<>(Objects.requireNonNull(task, "task")));
+    }
+
+    /**
+     * 提交任务,与之前提交的相同key的任务串行执行
+     *
+     * @param key  key,按equals/hashCode区分
+     * @param task 任务
+     * @return 增强的Future
+     */
+    public EnhanceFuture<?> submit(Object key, Runnable task) {
+        return enqueue(key, new DefaultEnhancePromiseTask<>(Objects.requireNonNull(task, "task"), null));
+    }
+
+    /**
+     * @return 当前有待执行任务的key的数量
+     */
+    public int getKeyCount() {
+        return queues.size();
+    }
+
+    private <T> EnhanceFuture<T> enqueue(Object key, DefaultEnhancePromiseTask<T> task) {
+        Objects.requireNonNull(key, "key");
+        boolean[] schedule = new boolean[1];
+        KeyQueue queue = queues.compute(key, (k, q) -> {
+            if (q == null) {
+                q = new KeyQueue(k);
+            }
+            q.tasks.addLast(task);
+            //第一个任务入队时由提交线程负责提交到线程池
+            if (!q.scheduled) {
+                q.scheduled = true;
+                schedule[0] = true;
+            }
+            return q;
+        });
+        if (schedule[0]) {
+            dispatch(queue);
+        }
+        return task;
+    }
+
+    private void dispatch(KeyQueue queue) {
+        try {
+            executor.execute(queue);
+        } catch (RejectedExecutionException e) {
+            queue.reject(e);
+        }
+    }
+
+    /**
+     * 一个key的待执行任务,ArrayDeque只在ConcurrentHashMap的compute中访问,由桶锁保护
+     */
+    private final class KeyQueue implements Runnable {
+
+        private final Object key;
+
+        private final ArrayDeque<DefaultEnhancePromiseTask<?>> tasks = new ArrayDeque<>(4);
+
+        /**
+         * 是否已提交到线程池,只在compute中修改
+         */
+        private boolean scheduled;
+
+        /**
+         * compute中取出的下一个任务,只在执行线程上读
+         */
+        private DefaultEnhancePromiseTask<?> polled;
+
+        KeyQueue(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < batchSize; i++) {
+                DefaultEnhancePromiseTask<?> task = poll();
+                if (task == null) {
+                    return;
+                }
+                task.run();
+            }
+            //用完本轮配额,重新排队让其他key有机会执行
+            dispatch(this);
+        }
+
+        /**
+         * 取出下一个任务,队列为空时删除映射,之后的提交会创建新的队列
+         */
+        private DefaultEnhancePromiseTask<?> poll() {
+            polled = null;
+            queues.compute(key, (k, q) -> {
+                if (q != this) {
+                    return q;
+                }
+                polled = tasks.pollFirst();
+                if (polled == null) {
+                    scheduled = false;
+                    return null;
+                }
+                return q;
+            });
+            return polled;
+        }
+
+        /**
+         * 线程池拒绝时,当前队列中所有的任务都以拒绝异常失败
+         */
+        void reject(RejectedExecutionException cause) {
+            DefaultEnhancePromiseTask<?> task;
+            while ((task = poll()) != null) {
+                task.tryFailure(cause);
+            }
+        }
+    }
+}
@@ -29,4 +29,20 @@ public interface Promise<V> {
      * @return this
      */
     Promise<V> setFailure(Throwable cause);
+
+    /**
+     * 尝试设置成功标识,已经完成则返回false,不抛出异常
+     *
+     * @param result 结果
+     * @return 是否设置成功
+     */
+    boolean trySuccess(V result);
+
+    /**
+     * 尝试设置失败标识,已经完成则返回false,不抛出异常
+     *
+     * @param cause 异常
+     * @return 是否设置成功
+     */
+    boolean tryFailure(Throwable cause);
 }
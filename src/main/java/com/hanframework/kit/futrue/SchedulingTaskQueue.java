@@ -0,0 +1,131 @@
+package com.hanframework.kit.futrue;
+
+import com.hanframework.kit.thread.TaskPriority;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按优先级、截止时间调度的任务队列,用于替换线程池中先进先出的LinkedBlockingQueue
+ * 1. 优先级高的先执行
+ * 2. 相同优先级中,有截止时间的先于没有截止时间的,截止时间早的先执行
+ * 3. 其余按入队顺序先进先出
+ * <p>
+ * 通过{@link EnhanceExecutorService#submit(java.util.concurrent.Callable, TaskPriority)}等方法提交的任务携带调度属性;
+ * 直接execute的Runnable入队时包装为{@link SequencedRunnable},按{@link TaskPriority#NORMAL}、没有截止时间处理。
+ * 每个元素入队时都分配序号,比较结果是全序,两种任务混合时同样先进先出。
+ * 队列无界,线程池的maximumPoolSize不会生效。
+ *
+ * @author liuxin
+ * @version Id: SchedulingTaskQueue.java, v 0.1 2026-10-18 15:10
+ */
+public class SchedulingTaskQueue extends PriorityBlockingQueue<Runnable> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Comparator<Runnable> COMPARATOR = (a, b) -> {
+        int pa = priorityOf(a);
+        int pb = priorityOf(b);
+        if (pa != pb) {
+            return pa < pb ? -1 : 1;
+        }
+        boolean da = hasDeadline(a);
+        boolean db = hasDeadline(b);
+        if (da != db) {
+            return da ? -1 : 1;
+        }
+        if (da) {
+            long diff = ((DefaultEnhancePromiseTask<?>) a).deadlineNanos() - ((DefaultEnhancePromiseTask<?>) b).deadlineNanos();
+            if (diff != 0) {
+                return diff < 0 ? -1 : 1;
+            }
+        }
+        return Long.compare(sequenceOf(a), sequenceOf(b));
+    };
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SchedulingTaskQueue() {
+        super(16, COMPARATOR);
+    }
+
+    private static int priorityOf(Runnable runnable) {
+        return runnable instanceof DefaultEnhancePromiseTask
+                ? ((DefaultEnhancePromiseTask<?>) runnable).priority().ordinal()
+                : TaskPriority.NORMAL.ordinal();
+    }
+
+    private static boolean hasDeadline(Runnable runnable) {
+        return runnable instanceof DefaultEnhancePromiseTask && ((DefaultEnhancePromiseTask<?>) runnable).hasDeadline();
+    }
+
+    private static long sequenceOf(Runnable runnable) {
+        return runnable instanceof DefaultEnhancePromiseTask
+                ? ((DefaultEnhancePromiseTask<?>) runnable).sequence
+                : ((SequencedRunnable) runnable).sequence;
+    }
+
+    @Override
+    public boolean offer(Runnable runnable) {
+        if (runnable instanceof DefaultEnhancePromiseTask) {
+            ((DefaultEnhancePromiseTask<?>) runnable).sequence = sequence.getAndIncrement();
+            return super.offer(runnable);
+        }
+        if (runnable instanceof SequencedRunnable) {
+            return super.offer(runnable);
+        }
+        return super.offer(new SequencedRunnable(runnable, sequence.getAndIncrement()));
+    }
+
+    /**
+     * 线程池按原始Runnable移除,包装过的按其中的任务匹配
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (super.remove(o)) {
+            return true;
+        }
+        for (Iterator<Runnable> it = iterator(); it.hasNext(); ) {
+            Runnable r = it.next();
+            if (r instanceof SequencedRunnable && ((SequencedRunnable) r).command.equals(o)) {
+                return super.remove(r);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (super.contains(o)) {
+            return true;
+        }
+        for (Runnable r : this) {
+            if (r instanceof SequencedRunnable && ((SequencedRunnable) r).command.equals(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 直接execute的Runnable,入队时分配序号
+     */
+    static final class SequencedRunnable implements Runnable {
+
+        private final Runnable command;
+
+        private final long sequence;
+
+        SequencedRunnable(Runnable command, long sequence) {
+            this.command = command;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            command.run();
+        }
+    }
+}
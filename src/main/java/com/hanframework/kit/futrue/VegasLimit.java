@@ -0,0 +1,92 @@
+package com.hanframework.kit.futrue;
+
+/**
+ * TCP Vegas风格的并发上限
+ * 记录观察到的最小执行耗时作为无负载耗时,根据当前耗时估算下游排队的任务数:
+ * queue = limit * (1 - minRun / run)
+ * 1. queue小于alpha: 下游还有余量,上限加1
+ * 2. queue大于beta: 下游开始排队,上限减1
+ * 3. 超时或被拒绝: 上限减半
+ * alpha、beta随上限按log10增长,大上限时不会过于敏感。
+ * 最小耗时每{@code probeInterval}个样本重置一次,下游真实容量变化后(例如扩容、换机房)能够重新探测。
+ *
+ * @author liuxin
+ * @version Id: VegasLimit.java, v 0.1 2026-10-18 17:20
+ */
+public class VegasLimit implements ConcurrencyLimit {
+
+    private static final int DEFAULT_PROBE_INTERVAL = 1000;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final int probeInterval;
+
+    private volatile int limit;
+
+    private long minRunNanos = Long.MAX_VALUE;
+
+    private int samples;
+
+    public VegasLimit(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, DEFAULT_PROBE_INTERVAL);
+    }
+
+    /**
+     * @param initialLimit  初始上限
+     * @param minLimit      最小上限
+     * @param maxLimit      最大上限
+     * @param probeInterval 每多少个样本重新探测无负载耗时
+     */
+    public VegasLimit(int initialLimit, int minLimit, int maxLimit, int probeInterval) {
+        if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit || probeInterval <= 0) {
+            throw new IllegalArgumentException("initialLimit: " + initialLimit + ", minLimit: " + minLimit
+                    + ", maxLimit: " + maxLimit + ", probeInterval: " + probeInterval);
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.probeInterval = probeInterval;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long runNanos, int inflight, boolean dropped) {
+        if (++samples >= probeInterval) {
+            samples = 0;
+            minRunNanos = Long.MAX_VALUE;
+        }
+        int current = limit;
+        if (dropped) {
+            limit = Math.max(minLimit, current / 2);
+            return;
+        }
+        if (runNanos <= 0) {
+            return;
+        }
+        if (runNanos < minRunNanos) {
+            minRunNanos = runNanos;
+        }
+        //空闲时的样本不能说明下游还能承受更多
+        if (inflight * 2 < current) {
+            return;
+        }
+        double queue = current * (1 - (double) minRunNanos / runNanos);
+        double log = Math.max(1, Math.log10(current));
+        if (queue < 3 * log) {
+            limit = Math.min(maxLimit, current + 1);
+        } else if (queue > 6 * log) {
+            limit = Math.max(minLimit, current - 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VegasLimit(limit: " + limit + ", minRunNanos: " + minRunNanos + ')';
+    }
+}
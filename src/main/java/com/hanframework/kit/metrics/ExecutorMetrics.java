@@ -0,0 +1,372 @@
+package com.hanframework.kit.metrics;
+
+import com.hanframework.kit.thread.TaskPriority;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * 线程池指标,默认不开启,需要显式创建并交给线程池
+ * 1. 计数: 提交、完成、失败、拒绝、撤销,使用LongAdder分段累加,避免多线程竞争同一个变量
+ * 2. 耗时: 排队耗时、执行耗时直方图
+ * 3. 当前值: 活跃任务数、排队任务数
+ * <p>
+ * 峰值与吞吐量由{@link MetricsSampler}的共享线程每秒采样一次,通过{@link #snapshot()}或JMX读取。
+ * 创建时不会开始采样,交给EnhanceExecutorService时由其调用{@link #start()},单独使用时需要自己调用,
+ * 两种情况都要通过{@link #close()}停止,否则共享的采样线程会一直持有该对象。
+ *
+ * @author liuxin
+ * @version Id: ExecutorMetrics.java, v 0.1 2026-10-18 13:05
+ */
+public class ExecutorMetrics implements ExecutorMetricsMXBean {
+
+    private static final Logger logger = Logger.getLogger("ExecutorMetrics");
+
+    private final String name;
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder cancelled = new LongAdder();
+
+    private final LongAdder evicted = new LongAdder();
+
+    private final LongAdder expired = new LongAdder();
+
+    private final LongAdder active = new LongAdder();
+
+    private final LongAdder queued = new LongAdder();
+
+    private final LongHistogram queueWait = new LongHistogram();
+
+    /**
+     * 按优先级区分的排队耗时,用于观察优先级调度是否生效
+     */
+    private final LongHistogram[] queueWaitByPriority = new LongHistogram[TaskPriority.values().length];
+
+    private final LongHistogram runTime = new LongHistogram();
+
+    private ScheduledFuture<?> sampling;
+
+    private boolean closed;
+
+    private volatile long peakActive;
+
+    private volatile long peakQueueDepth;
+
+    private volatile double throughputPerSecond;
+
+    /**
+     * 以下两个字段在{@link #start()}之后只由采样线程访问
+     */
+    private long lastFinished;
+
+    private long lastSampleNanos = System.nanoTime();
+
+    private volatile ObjectName objectName;
+
+    public ExecutorMetrics(String name) {
+        this.name = Objects.requireNonNull(name, "name");
+        for (int i = 0; i < queueWaitByPriority.length; i++) {
+            queueWaitByPriority[i] = new LongHistogram();
+        }
+    }
+
+    /**
+     * 开始在共享的采样线程上采样峰值与吞吐量,重复调用或已经{@link #close()}时不做任何事
+     *
+     * @return this
+     */
+    public synchronized ExecutorMetrics start() {
+        if (sampling == null && !closed) {
+            lastFinished = completed.sum() + failed.sum();
+            lastSampleNanos = System.nanoTime();
+            sampling = MetricsSampler.schedule(this::sample, 1, TimeUnit.SECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * 任务提交
+     */
+    public void onSubmit() {
+        submitted.increment();
+        queued.increment();
+    }
+
+    /**
+     * 任务被线程池拒绝
+     */
+    public void onRejected() {
+        rejected.increment();
+        queued.decrement();
+    }
+
+    /**
+     * 任务出队开始执行
+     *
+     * @param queueWaitNanos 排队耗时
+     */
+    public void onStart(long queueWaitNanos) {
+        onStart(queueWaitNanos, TaskPriority.NORMAL);
+    }
+
+    /**
+     * 任务出队开始执行
+     *
+     * @param queueWaitNanos 排队耗时
+     * @param priority       任务优先级
+     */
+    public void onStart(long queueWaitNanos, TaskPriority priority) {
+        queued.decrement();
+        active.increment();
+        queueWait.record(queueWaitNanos);
+        queueWaitByPriority[priority.ordinal()].record(queueWaitNanos);
+    }
+
+    /**
+     * 任务出队时已超过截止时间,快速失败不再执行
+     *
+     * @param queueWaitNanos 排队耗时
+     * @param priority       任务优先级
+     */
+    public void onExpired(long queueWaitNanos, TaskPriority priority) {
+        queued.decrement();
+        expired.increment();
+        queueWait.record(queueWaitNanos);
+        queueWaitByPriority[priority.ordinal()].record(queueWaitNanos);
+    }
+
+    /**
+     * 任务出队时已经完成(被撤销或超时),不再执行
+     */
+    public void onSkipped() {
+        queued.decrement();
+    }
+
+    /**
+     * 任务执行结束
+     *
+     * @param runNanos 执行耗时
+     * @param success  是否成功
+     */
+    public void onComplete(long runNanos, boolean success) {
+        active.decrement();
+        runTime.record(runNanos);
+        if (success) {
+            completed.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    /**
+     * 任务被撤销
+     */
+    public void onCancelled() {
+        cancelled.increment();
+    }
+
+    /**
+     * 排队中的任务没有执行就被丢弃,例如shutdownNow取出的任务、DiscardPolicy丢弃的任务
+     */
+    public void onDiscarded() {
+        queued.decrement();
+    }
+
+    /**
+     * 撤销的任务被立即移出队列
+     */
+    public void onEvicted() {
+        evicted.increment();
+        queued.decrement();
+    }
+
+    public ExecutorMetricsSnapshot snapshot() {
+        return new ExecutorMetricsSnapshot(this);
+    }
+
+    public LongHistogram queueWaitHistogram() {
+        return queueWait;
+    }
+
+    public LongHistogram queueWaitHistogram(TaskPriority priority) {
+        return queueWaitByPriority[priority.ordinal()];
+    }
+
+    public LongHistogram runTimeHistogram() {
+        return runTime;
+    }
+
+    private void sample() {
+        long activeNow = active.sum();
+        long queuedNow = queued.sum();
+        if (activeNow > peakActive) {
+            peakActive = activeNow;
+        }
+        if (queuedNow > peakQueueDepth) {
+            peakQueueDepth = queuedNow;
+        }
+        long now = System.nanoTime();
+        long finished = completed.sum() + failed.sum();
+        long elapsed = now - lastSampleNanos;
+        if (elapsed > 0) {
+            throughputPerSecond = (finished - lastFinished) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+        }
+        lastFinished = finished;
+        lastSampleNanos = now;
+    }
+
+    /**
+     * 注册到平台MBeanServer,ObjectName为com.hanframework.kit:type=ExecutorMetrics,name={name}
+     *
+     * @return this
+     */
+    public ExecutorMetrics registerMBean() {
+        try {
+            ObjectName objectName = new ObjectName("com.hanframework.kit:type=ExecutorMetrics,name=" + ObjectName.quote(name));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+            this.objectName = objectName;
+        } catch (Exception e) {
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "Failed to register executor metrics mbean: " + name, e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 停止采样并注销MBean,已采集的指标仍可读取
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            if (sampling != null) {
+                sampling.cancel(false);
+            }
+        }
+        ObjectName objectName = this.objectName;
+        if (objectName != null) {
+            this.objectName = null;
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (Exception e) {
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.log(Level.FINE, "Failed to unregister executor metrics mbean: " + name, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getCancelledCount() {
+        return cancelled.sum();
+    }
+
+    @Override
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    @Override
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    @Override
+    public long getActiveCount() {
+        return Math.max(0, active.sum());
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return Math.max(0, queued.sum());
+    }
+
+    @Override
+    public long getPeakActiveCount() {
+        return peakActive;
+    }
+
+    @Override
+    public long getPeakQueueDepth() {
+        return peakQueueDepth;
+    }
+
+    @Override
+    public double getThroughputPerSecond() {
+        return throughputPerSecond;
+    }
+
+    @Override
+    public double getQueueWaitMeanMicros() {
+        return queueWait.snapshot().getMean() / 1000D;
+    }
+
+    @Override
+    public long getQueueWaitP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(queueWait.snapshot().getPercentile(99));
+    }
+
+    @Override
+    public Map<String, Long> getQueueWaitP99MicrosByPriority() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (TaskPriority priority : TaskPriority.values()) {
+            result.put(priority.name(), TimeUnit.NANOSECONDS.toMicros(
+                    queueWaitByPriority[priority.ordinal()].snapshot().getPercentile(99)));
+        }
+        return result;
+    }
+
+    @Override
+    public double getRunTimeMeanMicros() {
+        return runTime.snapshot().getMean() / 1000D;
+    }
+
+    @Override
+    public long getRunTimeP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(runTime.snapshot().getPercentile(99));
+    }
+}
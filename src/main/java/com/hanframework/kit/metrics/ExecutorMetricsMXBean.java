@@ -0,0 +1,63 @@
+package com.hanframework.kit.metrics;
+
+import java.util.Map;
+
+/**
+ * 线程池指标的JMX视图,耗时单位均为微秒
+ *
+ * @author liuxin
+ * @version Id: ExecutorMetricsMXBean.java, v 0.1 2026-10-18 13:05
+ */
+public interface ExecutorMetricsMXBean {
+
+    String getName();
+
+    long getSubmittedCount();
+
+    long getCompletedCount();
+
+    long getFailedCount();
+
+    long getRejectedCount();
+
+    long getCancelledCount();
+
+    /**
+     * 撤销后被立即移出队列的任务数,即撤销释放出的队列容量
+     *
+     * @return long
+     */
+    long getEvictedCount();
+
+    /**
+     * 出队时已超过截止时间而快速失败的任务数
+     *
+     * @return long
+     */
+    long getExpiredCount();
+
+    long getActiveCount();
+
+    long getQueueDepth();
+
+    long getPeakActiveCount();
+
+    long getPeakQueueDepth();
+
+    double getThroughputPerSecond();
+
+    double getQueueWaitMeanMicros();
+
+    long getQueueWaitP99Micros();
+
+    /**
+     * 各优先级排队耗时的p99
+     *
+     * @return 优先级名称 - 微秒
+     */
+    Map<String, Long> getQueueWaitP99MicrosByPriority();
+
+    double getRunTimeMeanMicros();
+
+    long getRunTimeP99Micros();
+}
@@ -0,0 +1,157 @@
+package com.hanframework.kit.metrics;
+
+import com.hanframework.kit.thread.TaskPriority;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 线程池指标快照,耗时单位均为纳秒
+ *
+ * @author liuxin
+ * @version Id: ExecutorMetricsSnapshot.java, v 0.1 2026-10-18 13:05
+ */
+public final class ExecutorMetricsSnapshot {
+
+    private final String name;
+
+    private final long submittedCount;
+
+    private final long completedCount;
+
+    private final long failedCount;
+
+    private final long rejectedCount;
+
+    private final long cancelledCount;
+
+    private final long evictedCount;
+
+    private final long expiredCount;
+
+    private final long activeCount;
+
+    private final long queueDepth;
+
+    private final long peakActiveCount;
+
+    private final long peakQueueDepth;
+
+    private final double throughputPerSecond;
+
+    private final LongHistogram.Snapshot queueWait;
+
+    private final Map<TaskPriority, LongHistogram.Snapshot> queueWaitByPriority;
+
+    private final LongHistogram.Snapshot runTime;
+
+    ExecutorMetricsSnapshot(ExecutorMetrics metrics) {
+        this.name = metrics.getName();
+        this.submittedCount = metrics.getSubmittedCount();
+        this.completedCount = metrics.getCompletedCount();
+        this.failedCount = metrics.getFailedCount();
+        this.rejectedCount = metrics.getRejectedCount();
+        this.cancelledCount = metrics.getCancelledCount();
+        this.evictedCount = metrics.getEvictedCount();
+        this.expiredCount = metrics.getExpiredCount();
+        this.activeCount = metrics.getActiveCount();
+        this.queueDepth = metrics.getQueueDepth();
+        this.peakActiveCount = metrics.getPeakActiveCount();
+        this.peakQueueDepth = metrics.getPeakQueueDepth();
+        this.throughputPerSecond = metrics.getThroughputPerSecond();
+        this.queueWait = metrics.queueWaitHistogram().snapshot();
+        Map<TaskPriority, LongHistogram.Snapshot> byPriority = new EnumMap<>(TaskPriority.class);
+        for (TaskPriority priority : TaskPriority.values()) {
+            byPriority.put(priority, metrics.queueWaitHistogram(priority).snapshot());
+        }
+        this.queueWaitByPriority = Collections.unmodifiableMap(byPriority);
+        this.runTime = metrics.runTimeHistogram().snapshot();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    public long getActiveCount() {
+        return activeCount;
+    }
+
+    public long getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getPeakActiveCount() {
+        return peakActiveCount;
+    }
+
+    public long getPeakQueueDepth() {
+        return peakQueueDepth;
+    }
+
+    public double getThroughputPerSecond() {
+        return throughputPerSecond;
+    }
+
+    public LongHistogram.Snapshot getQueueWait() {
+        return queueWait;
+    }
+
+    public LongHistogram.Snapshot getQueueWait(TaskPriority priority) {
+        return queueWaitByPriority.get(priority);
+    }
+
+    public LongHistogram.Snapshot getRunTime() {
+        return runTime;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutorMetricsSnapshot{" +
+                "name='" + name + '\'' +
+                ", submitted=" + submittedCount +
+                ", completed=" + completedCount +
+                ", failed=" + failedCount +
+                ", rejected=" + rejectedCount +
+                ", cancelled=" + cancelledCount +
+                ", evicted=" + evictedCount +
+                ", expired=" + expiredCount +
+                ", active=" + activeCount +
+                ", queueDepth=" + queueDepth +
+                ", peakActive=" + peakActiveCount +
+                ", peakQueueDepth=" + peakQueueDepth +
+                ", throughput=" + throughputPerSecond +
+                ", queueWait={" + queueWait + '}' +
+                ", queueWaitByPriority=" + queueWaitByPriority +
+                ", runTime={" + runTime + '}' +
+                '}';
+    }
+}
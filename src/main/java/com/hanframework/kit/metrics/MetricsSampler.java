@@ -0,0 +1,54 @@
+package com.hanframework.kit.metrics;
+
+import com.hanframework.kit.thread.NamedThreadFactory;
+
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 所有指标共享的采样线程,整个JVM最多只有一个,第一次使用时创建
+ *
+ * @author liuxin
+ * @version Id: MetricsSampler.java, v 0.1 2026-10-18 13:05
+ */
+public final class MetricsSampler {
+
+    private static final Logger logger = Logger.getLogger("MetricsSampler");
+
+    private MetricsSampler() {
+    }
+
+    private static final class SamplerHolder {
+        static final ScheduledThreadPoolExecutor SAMPLER;
+
+        static {
+            SAMPLER = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("metrics-sampler", true));
+            SAMPLER.setRemoveOnCancelPolicy(true);
+        }
+    }
+
+    /**
+     * 周期性采样,任务抛出异常不会影响后续的采样
+     *
+     * @param task   采样任务
+     * @param period 周期
+     * @param unit   单位
+     * @return 用于撤销采样
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, long period, TimeUnit unit) {
+        Objects.requireNonNull(task, "task");
+        return SamplerHolder.SAMPLER.scheduleAtFixedRate(() -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.log(Level.WARNING, "An exception was thrown by sampler task " + task, t);
+                }
+            }
+        }, period, period, unit);
+    }
+}
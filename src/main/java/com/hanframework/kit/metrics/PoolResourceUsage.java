@@ -0,0 +1,66 @@
+package com.hanframework.kit.metrics;
+
+/**
+ * 一个线程池在一个采样周期内的资源消耗
+ *
+ * @author liuxin
+ * @version Id: PoolResourceUsage.java, v 0.1 2026-10-18 18:20
+ */
+public final class PoolResourceUsage {
+
+    private final String pool;
+
+    private final int threadCount;
+
+    private final long intervalNanos;
+
+    private final long cpuTimeNanos;
+
+    private final long allocatedBytes;
+
+    PoolResourceUsage(String pool, int threadCount, long intervalNanos, long cpuTimeNanos, long allocatedBytes) {
+        this.pool = pool;
+        this.threadCount = threadCount;
+        this.intervalNanos = intervalNanos;
+        this.cpuTimeNanos = cpuTimeNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public String getPool() {
+        return pool;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * @return 周期内消耗的CPU时间,JVM不支持时为-1
+     */
+    public long getCpuTimeNanos() {
+        return cpuTimeNanos;
+    }
+
+    /**
+     * @return 周期内分配的堆内存,JVM不支持时为-1
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return 周期内占用的CPU核数,例如1.5表示平均占用一个半核
+     */
+    public double getCpuCores() {
+        return cpuTimeNanos < 0 || intervalNanos <= 0 ? -1 : (double) cpuTimeNanos / intervalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s threads=%d cpu=%.2f cores allocated=%d bytes", pool, threadCount, getCpuCores(), allocatedBytes);
+    }
+}
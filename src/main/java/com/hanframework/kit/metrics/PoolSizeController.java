@@ -0,0 +1,529 @@
+package com.hanframework.kit.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * 线程数自动调整,参考.NET线程池的爬山算法
+ * 每个采样周期读取吞吐量、排队耗时和CPU使用率,在[minPoolSize, maxPoolSize]范围内按step调整corePoolSize,
+ * maximumPoolSize与corePoolSize保持创建时的差值。每次调整都是一次试探,下一个周期比较调整前后的吞吐量决定方向:
+ * 1. CPU超过上限: 减少线程,更多线程只会增加上下文切换,这次减少不参与吞吐量比较
+ * 2. 上一次增加后吞吐量明显上升且仍有积压: 继续增加;没有明显上升: 退回,并在一段时间内不再达到该线程数
+ * 3. 上一次减少后吞吐量明显下降或出现积压: 退回,并在一段时间内不再减少到该线程数;
+ * 吞吐量不变且仍有空闲线程: 继续减少,同样的吞吐量用更少的线程
+ * 4. 没有进行中的试探时: 有积压立即向上试探;没有积压且连续多个周期有空闲线程时向下试探
+ * 5. 其余保持不变
+ * <p>
+ * 没有积压时增加线程不可能提高吞吐量,因此只在有积压时向上试探;吞吐量的变化不超过容差视为没有变化,避免采样噪声导致来回震荡。
+ * 适用于{@link com.hanframework.kit.thread.HanThreadPoolExecutor}创建的线程池,也可以用于任意ThreadPoolExecutor。
+ * 传入{@link ExecutorMetrics}时使用其排队耗时直方图,否则以队列是否为空判断积压。
+ * 采样在{@link MetricsSampler}的共享线程上执行,每次决策都计入计数并保留最近的记录,可以通过JMX审计。
+ *
+ * @author liuxin
+ * @version Id: PoolSizeController.java, v 0.1 2026-10-18 16:20
+ */
+public class PoolSizeController implements PoolSizeControllerMXBean {
+
+    private static final Logger logger = Logger.getLogger("PoolSizeController");
+
+    /**
+     * 吞吐量变化超过该比例才认为有变化,避免采样噪声导致来回震荡
+     */
+    private static final double THROUGHPUT_TOLERANCE = 0.05;
+
+    /**
+     * 试探被退回后,在该数量的采样周期内不再试探到同一个线程数
+     */
+    private static final int PLATEAU_INTERVALS = 10;
+
+    /**
+     * 连续空闲该数量的采样周期才向下试探
+     */
+    private static final int IDLE_INTERVALS = 3;
+
+    private static final int RECENT_DECISIONS = 64;
+
+    private static final OperatingSystemMXBean OS = ManagementFactory.getOperatingSystemMXBean();
+
+    /**
+     * 系统CPU使用率,JDK14以后是getCpuLoad,之前的getSystemCpuLoad已经过时,不支持时为null
+     */
+    private static final Method CPU_LOAD = cpuLoadMethod();
+
+    private final String name;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ExecutorMetrics metrics;
+
+    private final int minPoolSize;
+
+    private final int maxPoolSize;
+
+    private final int headroom;
+
+    private final int step;
+
+    private final long targetQueueWaitNanos;
+
+    private final double cpuCeiling;
+
+    private final ScheduledFuture<?> sampling;
+
+    private final ArrayDeque<PoolSizeDecision> recentDecisions = new ArrayDeque<>(RECENT_DECISIONS);
+
+    private volatile long increases;
+
+    private volatile long decreases;
+
+    private volatile long holds;
+
+    /**
+     * 以下字段只在采样线程上读写
+     */
+    private long lastSampleNanos = System.nanoTime();
+
+    private long lastCompleted;
+
+    private long lastQueueWaitCount;
+
+    private long lastQueueWaitSum;
+
+    private double lastThroughput = -1;
+
+    /**
+     * 上一次的试探方向,没有进行中的试探(包括CPU饱和导致的减少)时为HOLD
+     */
+    private PoolSizeDecision.Action lastProbe = PoolSizeDecision.Action.HOLD;
+
+    private int plateauSize = Integer.MAX_VALUE;
+
+    private int plateauIntervals;
+
+    private int floorSize;
+
+    private int floorIntervals;
+
+    private int idleIntervals;
+
+    private volatile ObjectName objectName;
+
+    private PoolSizeController(Builder builder) {
+        this.name = builder.name;
+        this.executor = builder.executor;
+        this.metrics = builder.metrics;
+        this.minPoolSize = builder.minPoolSize;
+        this.maxPoolSize = builder.maxPoolSize;
+        this.headroom = Math.max(0, executor.getMaximumPoolSize() - executor.getCorePoolSize());
+        this.step = builder.step;
+        this.targetQueueWaitNanos = builder.targetQueueWaitNanos;
+        this.cpuCeiling = builder.cpuCeiling;
+        this.lastCompleted = executor.getCompletedTaskCount();
+        if (metrics != null) {
+            LongHistogram.Snapshot queueWait = metrics.queueWaitHistogram().snapshot();
+            this.lastQueueWaitCount = queueWait.getCount();
+            this.lastQueueWaitSum = queueWait.getSum();
+        }
+        apply(clamp(executor.getCorePoolSize()));
+        this.sampling = builder.intervalNanos > 0
+                ? MetricsSampler.schedule(this::sample, builder.intervalNanos, TimeUnit.NANOSECONDS) : null;
+    }
+
+    public static Builder builder(ThreadPoolExecutor executor) {
+        return new Builder(executor);
+    }
+
+    void sample() {
+        long now = System.nanoTime();
+        long elapsed = now - lastSampleNanos;
+        if (elapsed <= 0) {
+            return;
+        }
+        long completed = executor.getCompletedTaskCount();
+        double throughput = (completed - lastCompleted) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+        lastCompleted = completed;
+        lastSampleNanos = now;
+
+        double queueWaitNanos = -1;
+        if (metrics != null) {
+            LongHistogram.Snapshot queueWait = metrics.queueWaitHistogram().snapshot();
+            long count = queueWait.getCount() - lastQueueWaitCount;
+            long sum = queueWait.getSum() - lastQueueWaitSum;
+            queueWaitNanos = count > 0 ? (double) sum / count : 0;
+            lastQueueWaitCount = queueWait.getCount();
+            lastQueueWaitSum = queueWait.getSum();
+        }
+        decide(throughput, queueWaitNanos, executor.getQueue().size(), executor.getActiveCount(), cpuLoad());
+    }
+
+    /**
+     * 根据一次采样做出决策并调整线程池
+     *
+     * @param throughput     吞吐量(每秒完成任务数)
+     * @param queueWaitNanos 采样周期内的平均排队耗时,没有指标时为负数
+     * @param queueSize      当前队列长度
+     * @param active         当前活跃线程数
+     * @param cpu            系统CPU使用率,不支持时为负数
+     * @return 决策
+     */
+    PoolSizeDecision decide(double throughput, double queueWaitNanos, int queueSize, int active, double cpu) {
+        int size = executor.getCorePoolSize();
+        boolean backlog = queueWaitNanos >= 0 ? queueWaitNanos > targetQueueWaitNanos : queueSize > 0;
+        boolean cpuSaturated = cpu >= 0 && cpu >= cpuCeiling;
+        if (plateauIntervals > 0 && --plateauIntervals == 0) {
+            plateauSize = Integer.MAX_VALUE;
+        }
+        if (floorIntervals > 0 && --floorIntervals == 0) {
+            floorSize = 0;
+        }
+        boolean idle = !backlog && queueSize == 0 && active + step <= size;
+        idleIntervals = idle ? idleIntervals + 1 : 0;
+        boolean canIncrease = size < maxPoolSize && size + step < plateauSize;
+        boolean canDecrease = size > minPoolSize && size - step > floorSize;
+        boolean measured = lastThroughput >= 0;
+        boolean improved = measured && throughput > lastThroughput * (1 + THROUGHPUT_TOLERANCE);
+        boolean dropped = measured && throughput < lastThroughput * (1 - THROUGHPUT_TOLERANCE);
+
+        PoolSizeDecision.Action action = PoolSizeDecision.Action.HOLD;
+        PoolSizeDecision.Action probe = PoolSizeDecision.Action.HOLD;
+        String reason;
+        if (cpuSaturated && size > minPoolSize) {
+            action = PoolSizeDecision.Action.DECREASE;
+            reason = "cpu saturated";
+        } else if (lastProbe == PoolSizeDecision.Action.INCREASE && measured) {
+            if (!improved && size > minPoolSize) {
+                action = PoolSizeDecision.Action.DECREASE;
+                reason = "no throughput gain after increase";
+                plateauSize = size;
+                plateauIntervals = PLATEAU_INTERVALS;
+            } else if (improved && backlog && canIncrease && !cpuSaturated) {
+                action = probe = PoolSizeDecision.Action.INCREASE;
+                reason = "throughput improved after increase";
+            } else {
+                reason = improved ? "throughput improved, stop climbing" : "no throughput gain, at lower bound";
+            }
+        } else if (lastProbe == PoolSizeDecision.Action.DECREASE && measured) {
+            if ((dropped || backlog) && size < maxPoolSize && !cpuSaturated) {
+                action = PoolSizeDecision.Action.INCREASE;
+                reason = dropped ? "throughput dropped after decrease" : "queue wait above target after decrease";
+                floorSize = size;
+                floorIntervals = PLATEAU_INTERVALS;
+            } else if (!dropped && idle && canDecrease) {
+                action = probe = PoolSizeDecision.Action.DECREASE;
+                reason = "same throughput with fewer threads";
+            } else {
+                reason = "decrease settled";
+            }
+        } else if (backlog) {
+            if (cpuSaturated) {
+                reason = "queue wait above target, cpu saturated";
+            } else if (size >= maxPoolSize) {
+                reason = "queue wait above target, at upper bound";
+            } else if (!canIncrease) {
+                reason = "queue wait above target, below plateau";
+            } else {
+                action = probe = PoolSizeDecision.Action.INCREASE;
+                reason = "queue wait above target, probe up";
+            }
+        } else if (idleIntervals >= IDLE_INTERVALS && canDecrease) {
+            action = probe = PoolSizeDecision.Action.DECREASE;
+            reason = "idle threads, probe down";
+            idleIntervals = 0;
+        } else {
+            reason = "steady";
+        }
+
+        int newSize = size;
+        if (action == PoolSizeDecision.Action.INCREASE) {
+            newSize = clamp(size + step);
+            increases++;
+        } else if (action == PoolSizeDecision.Action.DECREASE) {
+            newSize = clamp(size - step);
+            decreases++;
+        } else {
+            holds++;
+        }
+        apply(newSize);
+        lastProbe = probe;
+        lastThroughput = throughput;
+
+        PoolSizeDecision decision = new PoolSizeDecision(System.currentTimeMillis(), action, reason, size, newSize,
+                throughput, queueWaitNanos < 0 ? -1 : queueWaitNanos / 1000, cpu);
+        synchronized (recentDecisions) {
+            if (recentDecisions.size() == RECENT_DECISIONS) {
+                recentDecisions.pollFirst();
+            }
+            recentDecisions.addLast(decision);
+        }
+        if (action != PoolSizeDecision.Action.HOLD && logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, name + ": " + decision);
+        }
+        return decision;
+    }
+
+    private int clamp(int size) {
+        return Math.max(minPoolSize, Math.min(maxPoolSize, size));
+    }
+
+    /**
+     * JDK9以后corePoolSize不能大于maximumPoolSize,增加时先调整max,减少时先调整core
+     */
+    private void apply(int core) {
+        int max = Math.min(maxPoolSize, core + headroom);
+        if (core > executor.getCorePoolSize()) {
+            executor.setMaximumPoolSize(Math.max(max, executor.getMaximumPoolSize()));
+            executor.setCorePoolSize(core);
+            executor.setMaximumPoolSize(max);
+        } else {
+            executor.setCorePoolSize(core);
+            executor.setMaximumPoolSize(max);
+        }
+    }
+
+    private static Method cpuLoadMethod() {
+        try {
+            Class<?> type = Class.forName("com.sun.management.OperatingSystemMXBean");
+            if (!type.isInstance(OS)) {
+                return null;
+            }
+            try {
+                return type.getMethod("getCpuLoad");
+            } catch (NoSuchMethodException e) {
+                return type.getMethod("getSystemCpuLoad");
+            }
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    static double cpuLoad() {
+        if (CPU_LOAD == null) {
+            return -1;
+        }
+        try {
+            return ((Number) CPU_LOAD.invoke(OS)).doubleValue();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 最近的决策,从旧到新
+     *
+     * @return 决策
+     */
+    public List<PoolSizeDecision> recentDecisions() {
+        synchronized (recentDecisions) {
+            return new ArrayList<>(recentDecisions);
+        }
+    }
+
+    /**
+     * 注册到平台MBeanServer,ObjectName为com.hanframework.kit:type=PoolSizeController,name={name}
+     *
+     * @return this
+     */
+    public PoolSizeController registerMBean() {
+        try {
+            ObjectName objectName = new ObjectName("com.hanframework.kit:type=PoolSizeController,name=" + ObjectName.quote(name));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+            this.objectName = objectName;
+        } catch (Exception e) {
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "Failed to register pool size controller mbean: " + name, e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 停止调整并注销MBean,线程池保持当前大小
+     */
+    public void close() {
+        if (sampling != null) {
+            sampling.cancel(false);
+        }
+        ObjectName objectName = this.objectName;
+        if (objectName != null) {
+            this.objectName = null;
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (Exception e) {
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.log(Level.FINE, "Failed to unregister pool size controller mbean: " + name, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getCorePoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    @Override
+    public int getMaximumPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @Override
+    public int getMinPoolSizeBound() {
+        return minPoolSize;
+    }
+
+    @Override
+    public int getMaxPoolSizeBound() {
+        return maxPoolSize;
+    }
+
+    @Override
+    public long getIncreaseCount() {
+        return increases;
+    }
+
+    @Override
+    public long getDecreaseCount() {
+        return decreases;
+    }
+
+    @Override
+    public long getHoldCount() {
+        return holds;
+    }
+
+    @Override
+    public String getLastDecision() {
+        synchronized (recentDecisions) {
+            PoolSizeDecision last = recentDecisions.peekLast();
+            return last == null ? null : last.toString();
+        }
+    }
+
+    @Override
+    public List<String> getRecentDecisions() {
+        List<String> decisions = new ArrayList<>();
+        for (PoolSizeDecision decision : recentDecisions()) {
+            decisions.add(decision.toString());
+        }
+        return decisions;
+    }
+
+    public static final class Builder {
+
+        private final ThreadPoolExecutor executor;
+
+        private String name;
+
+        private ExecutorMetrics metrics;
+
+        private int minPoolSize = 1;
+
+        private int maxPoolSize = Runtime.getRuntime().availableProcessors() * 4;
+
+        private int step = 1;
+
+        private long intervalNanos = TimeUnit.SECONDS.toNanos(1);
+
+        private long targetQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(1);
+
+        private double cpuCeiling = 0.9;
+
+        private Builder(ThreadPoolExecutor executor) {
+            this.executor = Objects.requireNonNull(executor, "executor");
+        }
+
+        /**
+         * 默认使用指标的名字
+         */
+        public Builder name(String name) {
+            this.name = Objects.requireNonNull(name, "name");
+            return this;
+        }
+
+        /**
+         * 排队耗时来源,不指定时以队列是否为空判断积压
+         */
+        public Builder metrics(ExecutorMetrics metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics");
+            return this;
+        }
+
+        /**
+         * corePoolSize的调整范围,默认[1, CPU核数*4]
+         */
+        public Builder bounds(int minPoolSize, int maxPoolSize) {
+            this.minPoolSize = minPoolSize;
+            this.maxPoolSize = maxPoolSize;
+            return this;
+        }
+
+        /**
+         * 每次调整的线程数,默认1
+         */
+        public Builder step(int step) {
+            this.step = step;
+            return this;
+        }
+
+        /**
+         * 采样周期,默认1秒;0表示不自动采样
+         */
+        public Builder interval(long interval, TimeUnit unit) {
+            this.intervalNanos = unit.toNanos(interval);
+            return this;
+        }
+
+        /**
+         * 平均排队耗时超过该值认为有积压,默认1毫秒
+         */
+        public Builder targetQueueWait(long targetQueueWait, TimeUnit unit) {
+            this.targetQueueWaitNanos = unit.toNanos(targetQueueWait);
+            return this;
+        }
+
+        /**
+         * 系统CPU使用率上限,默认0.9
+         */
+        public Builder cpuCeiling(double cpuCeiling) {
+            this.cpuCeiling = cpuCeiling;
+            return this;
+        }
+
+        /**
+         * 创建并开始调整
+         *
+         * @return PoolSizeController
+         */
+        public PoolSizeController build() {
+            if (minPoolSize <= 0 || maxPoolSize < minPoolSize || step <= 0 || intervalNanos < 0
+                    || targetQueueWaitNanos < 0 || cpuCeiling <= 0) {
+                throw new IllegalArgumentException("minPoolSize: " + minPoolSize + ", maxPoolSize: " + maxPoolSize
+                        + ", step: " + step + ", cpuCeiling: " + cpuCeiling);
+            }
+            if (name == null) {
+                name = metrics != null ? metrics.getName() : "executor@" + Integer.toHexString(System.identityHashCode(executor));
+            }
+            return new PoolSizeController(this);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.hanframework.kit.metrics;
+
+import java.util.List;
+
+/**
+ * 线程数自动调整的JMX视图
+ *
+ * @author liuxin
+ * @version Id: PoolSizeControllerMXBean.java, v 0.1 2026-10-18 16:20
+ */
+public interface PoolSizeControllerMXBean {
+
+    String getName();
+
+    int getCorePoolSize();
+
+    int getMaximumPoolSize();
+
+    int getMinPoolSizeBound();
+
+    int getMaxPoolSizeBound();
+
+    long getIncreaseCount();
+
+    long getDecreaseCount();
+
+    long getHoldCount();
+
+    String getLastDecision();
+
+    /**
+     * 最近的决策,从旧到新
+     *
+     * @return 决策描述
+     */
+    List<String> getRecentDecisions();
+}
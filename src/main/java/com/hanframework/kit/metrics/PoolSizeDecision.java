@@ -0,0 +1,86 @@
+package com.hanframework.kit.metrics;
+
+/**
+ * {@link PoolSizeController}的一次决策,包含决策依据的采样值,用于审计
+ *
+ * @author liuxin
+ * @version Id: PoolSizeDecision.java, v 0.1 2026-10-18 16:20
+ */
+public final class PoolSizeDecision {
+
+    public enum Action {
+        INCREASE, DECREASE, HOLD
+    }
+
+    private final long timestampMillis;
+
+    private final Action action;
+
+    private final String reason;
+
+    private final int previousSize;
+
+    private final int newSize;
+
+    private final double throughputPerSecond;
+
+    private final double queueWaitMicros;
+
+    private final double cpuLoad;
+
+    PoolSizeDecision(long timestampMillis, Action action, String reason, int previousSize, int newSize,
+                     double throughputPerSecond, double queueWaitMicros, double cpuLoad) {
+        this.timestampMillis = timestampMillis;
+        this.action = action;
+        this.reason = reason;
+        this.previousSize = previousSize;
+        this.newSize = newSize;
+        this.throughputPerSecond = throughputPerSecond;
+        this.queueWaitMicros = queueWaitMicros;
+        this.cpuLoad = cpuLoad;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public int getPreviousSize() {
+        return previousSize;
+    }
+
+    public int getNewSize() {
+        return newSize;
+    }
+
+    public double getThroughputPerSecond() {
+        return throughputPerSecond;
+    }
+
+    /**
+     * @return 采样周期内的平均排队耗时,没有指标时为-1
+     */
+    public double getQueueWaitMicros() {
+        return queueWaitMicros;
+    }
+
+    /**
+     * @return 系统CPU使用率[0,1],JVM不支持时为-1
+     */
+    public double getCpuLoad() {
+        return cpuLoad;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %d -> %d (%s) throughput=%.1f/s queueWait=%.0fus cpu=%.2f",
+                action, previousSize, newSize, reason, throughputPerSecond, queueWaitMicros, cpuLoad);
+    }
+}
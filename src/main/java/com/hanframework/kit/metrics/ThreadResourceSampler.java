@@ -0,0 +1,157 @@
+package com.hanframework.kit.metrics;
+
+import com.hanframework.kit.thread.NamedThreadFactory;
+import com.hanframework.kit.thread.ThreadRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按线程池统计CPU时间和内存分配
+ * 周期性读取{@link ThreadRegistry}中登记的线程(即{@link NamedThreadFactory}创建的线程),
+ * 通过{@link com.sun.management.ThreadMXBean}批量获取每个线程累计的CPU时间和分配字节数,
+ * 与上一次采样相减后按线程池名字汇总,得到每个周期的增量。
+ * <p>
+ * 创建采样器时开启{@link ThreadRegistry},只统计之后开始执行的线程。
+ * 线程在两次采样之间结束时,它最后一段时间的消耗无法统计;新线程第一次出现时从0开始计算。
+ * JVM不支持时对应的值为-1。
+ *
+ * @author liuxin
+ * @version Id: ThreadResourceSampler.java, v 0.1 2026-10-18 18:20
+ */
+public class ThreadResourceSampler {
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private final com.sun.management.ThreadMXBean extendedThreadMXBean;
+
+    private final ScheduledFuture<?> sampling;
+
+    /**
+     * 线程id到上一次采样的累计值{cpu, allocated},只在采样时访问
+     */
+    private Map<Long, long[]> lastByThread = new HashMap<>();
+
+    private long lastSampleNanos = System.nanoTime();
+
+    private volatile Map<String, PoolResourceUsage> usages = Collections.emptyMap();
+
+    /**
+     * @param period 采样周期,0表示只通过{@link #sample()}手动采样
+     * @param unit   单位
+     */
+    public ThreadResourceSampler(long period, TimeUnit unit) {
+        ThreadRegistry.enable();
+        this.extendedThreadMXBean = threadMXBean instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) threadMXBean : null;
+        if (threadMXBean.isThreadCpuTimeSupported() && !threadMXBean.isThreadCpuTimeEnabled()) {
+            threadMXBean.setThreadCpuTimeEnabled(true);
+        }
+        if (extendedThreadMXBean != null && extendedThreadMXBean.isThreadAllocatedMemorySupported()
+                && !extendedThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+            extendedThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        this.sampling = period > 0 ? MetricsSampler.schedule(this::sample, period, unit) : null;
+    }
+
+    /**
+     * 采样一次,更新{@link #getUsages()}
+     */
+    public synchronized void sample() {
+        long now = System.nanoTime();
+        long interval = now - lastSampleNanos;
+        lastSampleNanos = now;
+        Map<Long, long[]> currentByThread = new HashMap<>();
+        Map<String, PoolResourceUsage> result = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Thread>> entry : ThreadRegistry.threadsByPool().entrySet()) {
+            String pool = entry.getKey();
+            List<Thread> threads = entry.getValue();
+            long[] ids = new long[threads.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = threads.get(i).getId();
+            }
+            long[] cpu = cpuTimes(ids);
+            long[] allocated = allocatedBytes(ids);
+            long cpuDelta = cpu == null ? -1 : 0;
+            long allocatedDelta = allocated == null ? -1 : 0;
+            int alive = 0;
+            for (int i = 0; i < ids.length; i++) {
+                Thread thread = threads.get(i);
+                if (thread.getState() == Thread.State.TERMINATED) {
+                    ThreadRegistry.unregister(pool, thread);
+                    continue;
+                }
+                long c = cpu == null ? -1 : cpu[i];
+                long a = allocated == null ? -1 : allocated[i];
+                //未启动的线程返回-1
+                if (c < 0 && a < 0) {
+                    continue;
+                }
+                alive++;
+                long[] last = lastByThread.get(ids[i]);
+                if (c >= 0 && cpuDelta >= 0) {
+                    cpuDelta += c - (last == null || last[0] < 0 ? 0 : last[0]);
+                }
+                if (a >= 0 && allocatedDelta >= 0) {
+                    allocatedDelta += a - (last == null || last[1] < 0 ? 0 : last[1]);
+                }
+                currentByThread.put(ids[i], new long[]{c, a});
+            }
+            result.put(pool, new PoolResourceUsage(pool, alive, interval, cpuDelta, allocatedDelta));
+        }
+        lastByThread = currentByThread;
+        usages = Collections.unmodifiableMap(result);
+    }
+
+    private long[] cpuTimes(long[] ids) {
+        if (!threadMXBean.isThreadCpuTimeSupported()) {
+            return null;
+        }
+        if (extendedThreadMXBean != null) {
+            return extendedThreadMXBean.getThreadCpuTime(ids);
+        }
+        long[] times = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            times[i] = threadMXBean.getThreadCpuTime(ids[i]);
+        }
+        return times;
+    }
+
+    private long[] allocatedBytes(long[] ids) {
+        if (extendedThreadMXBean == null || !extendedThreadMXBean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        return extendedThreadMXBean.getThreadAllocatedBytes(ids);
+    }
+
+    /**
+     * @return 最近一个周期每个线程池的消耗,按线程池名字排序
+     */
+    public Map<String, PoolResourceUsage> getUsages() {
+        return usages;
+    }
+
+    /**
+     * @param pool 线程池名字,即{@link NamedThreadFactory}的prefix
+     * @return 最近一个周期的消耗,没有该线程池时为null
+     */
+    public PoolResourceUsage getUsage(String pool) {
+        return usages.get(pool);
+    }
+
+    /**
+     * 停止采样
+     */
+    public void close() {
+        if (sampling != null) {
+            sampling.cancel(false);
+        }
+    }
+}
@@ -1,33 +1,54 @@
 package com.hanframework.kit.server;
 
-import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
+import java.io.IOException;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
+ * 接收连接并轮询交给工作事件循环,只在接收线程上执行
+ *
  * @author liuxin
  * 2020-07-03 00:04
  */
 public class AcceptHandler implements Runnable {
-    private final Selector selector;
+
+    private static final Logger logger = Logger.getLogger("AcceptHandler");
+
+    private final TCPReactor reactor;
 
     private final ServerSocketChannel ssc;
 
-    public AcceptHandler(Selector selector, ServerSocketChannel ssc) {
-        this.selector = selector;
+    public AcceptHandler(TCPReactor reactor, ServerSocketChannel ssc) {
+        this.reactor = reactor;
         this.ssc = ssc;
     }
 
     @Override
     public void run() {
-        try {
-            SocketChannel sc = ssc.accept();
-            sc.configureBlocking(false);
-            SelectionKey sk = sc.register(selector, SelectionKey.OP_READ);
-            sk.attach(new TcpHandler(selector, ssc));
-        } catch (Exception e) {
-
+        //一次唤醒可能对应多个连接,非阻塞accept返回null表示已经取完
+        for (; ; ) {
+            SocketChannel sc;
+            try {
+                sc = ssc.accept();
+            } catch (IOException e) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.log(Level.WARNING, "Failed to accept a connection.", e);
+                }
+                return;
+            }
+            if (sc == null) {
+                return;
+            }
+            try {
+                sc.configureBlocking(false);
+                sc.socket().setTcpNoDelay(true);
+            } catch (IOException e) {
+                EventLoop.closeQuietly(sc);
+                continue;
+            }
+            reactor.next().register(sc);
         }
     }
 }
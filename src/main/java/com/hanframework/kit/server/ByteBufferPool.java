@@ -0,0 +1,80 @@
+package com.hanframework.kit.server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * 固定大小的直接内存缓冲区池,每个{@link EventLoop}一个,只在事件循环线程上使用,不需要同步
+ * 直接内存的分配和回收代价很高,读缓冲区和出站缓冲区都从这里借出,写完后归还,稳态下不再分配。
+ * 超出maxPooled的缓冲区归还时直接丢弃,交给GC回收。
+ * 只收回由{@link #acquire()}借出、还没有归还的缓冲区(按对象身份判断),调用方自己的缓冲区、只读缓冲区、
+ * 借出缓冲区的duplicate/slice以及重复归还都会被忽略,不会被下一次读覆盖。
+ * 借出的缓冲区必须写出或者{@link #release}归还,否则会一直被池引用。
+ *
+ * @author liuxin
+ * 2026-10-18 19:50
+ */
+public final class ByteBufferPool {
+
+    private final int bufferSize;
+
+    private final int maxPooled;
+
+    private final ArrayDeque<ByteBuffer> free;
+
+    /**
+     * 已经借出还没有归还的缓冲区,ByteBuffer的equals比较内容,只能按身份比较
+     */
+    private final Set<ByteBuffer> borrowed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public ByteBufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize <= 0 || maxPooled < 0) {
+            throw new IllegalArgumentException("bufferSize: " + bufferSize + ", maxPooled: " + maxPooled);
+        }
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+        this.free = new ArrayDeque<>(Math.min(maxPooled, 64));
+    }
+
+    /**
+     * @return 已经clear的直接缓冲区,容量为bufferSize
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.pollLast();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+        } else {
+            buffer.clear();
+        }
+        borrowed.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * 归还缓冲区,不是从该池借出的缓冲区或者已经归还过的缓冲区会被忽略
+     *
+     * @param buffer 缓冲区
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.isReadOnly() || !borrowed.remove(buffer)) {
+            return;
+        }
+        if (free.size() < maxPooled) {
+            free.addLast(buffer);
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return 当前池中空闲的缓冲区数
+     */
+    public int pooled() {
+        return free.size();
+    }
+}
@@ -0,0 +1,81 @@
+package com.hanframework.kit.server;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 处理器链,作为连接的{@link ConnectionHandler},把读到的数据依次交给{@link InboundHandler}
+ * 通常第一个处理器是帧解码器({@link LengthFieldFrameDecoder}、{@link DelimiterFrameDecoder}、
+ * {@link FixedLengthFrameDecoder}),后面是业务处理器。解码器有状态,每个连接需要一个新的ChannelPipeline:
+ * <pre>
+ * TCPReactor.builder()
+ *     .handler(() -&gt; new ChannelPipeline()
+ *         .addLast(new LengthFieldFrameDecoder(1 &lt;&lt; 20, 0, 4, 0, 4))
+ *         .addLast(new BusinessHandler()))
+ *     .build();
+ * </pre>
+ * 没有被处理的异常会关闭连接,没有被处理的读空闲和读写空闲事件也会关闭连接。
+ *
+ * @author liuxin
+ * 2026-10-18 20:20
+ */
+public class ChannelPipeline implements ConnectionHandler {
+
+    private static final Logger logger = Logger.getLogger("ChannelPipeline");
+
+    private final HandlerContext head = new HandlerContext(this, (ctx, msg) -> ctx.fireRead(msg));
+
+    private HandlerContext tail = head;
+
+    private TcpHandler connection;
+
+    public ChannelPipeline addLast(InboundHandler handler) {
+        HandlerContext ctx = new HandlerContext(this, Objects.requireNonNull(handler, "handler"));
+        tail.next = ctx;
+        tail = ctx;
+        return this;
+    }
+
+    TcpHandler connection() {
+        return connection;
+    }
+
+    @Override
+    public void onConnected(TcpHandler connection) {
+        this.connection = connection;
+        head.fireConnected();
+    }
+
+    @Override
+    public void onRead(TcpHandler connection, ByteBuffer data) {
+        head.fireRead(data);
+    }
+
+    @Override
+    public void onException(TcpHandler connection, Throwable cause) {
+        head.fireException(cause);
+    }
+
+    @Override
+    public void onIdle(TcpHandler connection, IdleState state) {
+        head.fireIdle(state);
+    }
+
+    @Override
+    public void onClosed(TcpHandler connection) {
+        head.fireClosed();
+    }
+
+    void onUnhandledIdle(IdleState state) {
+        ConnectionHandler.super.onIdle(connection, state);
+    }
+
+    void onUnhandledException(Throwable cause) {
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "An exception reached the end of the pipeline, closing the connection.", cause);
+        }
+        connection.close();
+    }
+}
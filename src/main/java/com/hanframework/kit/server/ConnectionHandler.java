@@ -0,0 +1,60 @@
+package com.hanframework.kit.server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 连接事件回调,所有方法都在连接所属的{@link EventLoop}线程上调用,不要在这里执行阻塞操作
+ *
+ * @author liuxin
+ * 2026-10-18 19:50
+ */
+public interface ConnectionHandler {
+
+    /**
+     * 连接注册到事件循环
+     *
+     * @param connection 连接
+     */
+    default void onConnected(TcpHandler connection) {
+    }
+
+    /**
+     * 读到数据
+     * data是事件循环的池化缓冲区,只在本次调用内有效,需要保留的数据必须复制出去。
+     *
+     * @param connection 连接
+     * @param data       已经flip的数据
+     */
+    void onRead(TcpHandler connection, ByteBuffer data);
+
+    /**
+     * 读写出现异常,默认关闭连接
+     *
+     * @param connection 连接
+     * @param cause      异常
+     */
+    default void onException(TcpHandler connection, Throwable cause) {
+        connection.close();
+    }
+
+    /**
+     * 连接空闲,需要通过{@link TCPReactor.Builder#idleTimeout}配置空闲时间
+     * 默认读空闲和读写空闲时关闭连接(对端可能已经断开),写空闲时什么都不做,通常在这里发送心跳。
+     *
+     * @param connection 连接
+     * @param state      空闲类型
+     */
+    default void onIdle(TcpHandler connection, IdleState state) {
+        if (state != IdleState.WRITER_IDLE) {
+            connection.close();
+        }
+    }
+
+    /**
+     * 连接已关闭
+     *
+     * @param connection 连接
+     */
+    default void onClosed(TcpHandler connection) {
+    }
+}
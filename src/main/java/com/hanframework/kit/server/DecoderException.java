@@ -0,0 +1,16 @@
+package com.hanframework.kit.server;
+
+/**
+ * 解码失败,例如帧超过最大长度,连接中的数据已经无法继续解析
+ *
+ * @author liuxin
+ * 2026-10-18 20:20
+ */
+public class DecoderException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DecoderException(String message) {
+        super(message);
+    }
+}
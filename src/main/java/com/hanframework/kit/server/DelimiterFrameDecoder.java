@@ -0,0 +1,71 @@
+package com.hanframework.kit.server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 分隔符帧解码器,例如按行切分的文本协议
+ * 记录已经扫描过的位置,数据分多次到达时不会重复扫描。
+ *
+ * @author liuxin
+ * 2026-10-18 20:20
+ */
+public class DelimiterFrameDecoder extends FrameDecoder {
+
+    private final int maxFrameLength;
+
+    private final byte[] delimiter;
+
+    private final boolean stripDelimiter;
+
+    /**
+     * 相对于in.position()已经扫描过且没有找到分隔符的字节数
+     */
+    private int scanned;
+
+    /**
+     * @param maxFrameLength 不含分隔符的最大帧长度,超过时抛出{@link DecoderException}
+     * @param delimiter      分隔符
+     * @param stripDelimiter 交给下游的帧是否去掉分隔符
+     */
+    public DelimiterFrameDecoder(int maxFrameLength, byte[] delimiter, boolean stripDelimiter) {
+        if (maxFrameLength <= 0 || delimiter == null || delimiter.length == 0) {
+            throw new IllegalArgumentException("maxFrameLength: " + maxFrameLength + ", delimiter is empty");
+        }
+        this.maxFrameLength = maxFrameLength;
+        this.delimiter = delimiter.clone();
+        this.stripDelimiter = stripDelimiter;
+    }
+
+    @Override
+    protected ByteBuffer decode(HandlerContext ctx, ByteBuffer in) {
+        int start = in.position();
+        int limit = in.limit();
+        byte first = delimiter[0];
+        for (int i = start + scanned; i <= limit - delimiter.length; i++) {
+            if (in.get(i) == first && matches(in, i)) {
+                int frameLength = i - start;
+                if (frameLength > maxFrameLength) {
+                    throw new DecoderException("frame length exceeds " + maxFrameLength + ": " + frameLength);
+                }
+                scanned = 0;
+                in.position(i + delimiter.length);
+                return slice(in, start, stripDelimiter ? frameLength : frameLength + delimiter.length);
+            }
+        }
+        //分隔符可能跨越两次读取,最后delimiter.length - 1个字节下次重新扫描
+        scanned = Math.max(0, limit - start - delimiter.length + 1);
+        if (scanned > maxFrameLength) {
+            throw new DecoderException("frame length exceeds " + maxFrameLength + ": " + scanned);
+        }
+        return null;
+    }
+
+    private boolean matches(ByteBuffer in, int index) {
+        for (int j = 1; j < delimiter.length; j++) {
+            if (in.get(index + j) != delimiter[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,351 @@
+package com.hanframework.kit.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 工作事件循环,一个Selector加一个线程
+ * 由{@link TCPReactor}的接收线程把连接轮询分配过来,连接此后的所有I/O事件都在这个线程上处理。
+ * 其他线程通过{@link #execute(Runnable)}提交任务,任务放入多生产者单消费者的{@link MpscTaskQueue},在每一轮select之后执行。
+ * 唤醒是合并的: 事件循环醒着或已经有线程唤醒过它时不再调用{@link Selector#wakeup()},大量跨线程提交时只唤醒一次。
+ * 连接的空闲检测放在事件循环自己的{@link HashedWheelTimer}上: 时间轮不为空时select的超时时间为下一个tick,
+ * 醒来后处理到期的定时任务,不需要额外的定时线程。
+ *
+ * @author liuxin
+ * 2026-10-18 19:20
+ */
+public class EventLoop implements Executor {
+
+    private static final Logger logger = Logger.getLogger("EventLoop");
+
+    private final Selector selector;
+
+    /**
+     * 开启{@link TCPReactor.Builder#optimizeSelectedKeys}且替换成功时不为null
+     */
+    private final SelectedSelectionKeySet selectedKeys;
+
+    private final Thread thread;
+
+    private final Supplier<? extends ConnectionHandler> handlerFactory;
+
+    private final ByteBufferPool bufferPool;
+
+    private final IdleStateMonitor.Config idleConfig;
+
+    private final HashedWheelTimer timer;
+
+    /**
+     * 每轮select之后更新的时间,连接的每次读写用它更新空闲时间戳,不需要每次调用System.nanoTime()
+     */
+    private long now = System.nanoTime();
+
+    private final MpscTaskQueue tasks = new MpscTaskQueue();
+
+    /**
+     * 为true时事件循环不会阻塞在select上(醒着或者已经被唤醒),提交任务不需要再调用selector.wakeup()
+     */
+    private final AtomicBoolean wakenUp = new AtomicBoolean(true);
+
+    private final LongAdder wakeups = new LongAdder();
+
+    private final CountDownLatch terminationLatch = new CountDownLatch(1);
+
+    /**
+     * 事件循环已经退出,之后提交的任务被拒绝
+     */
+    private volatile boolean terminated;
+
+    /**
+     * 退出之后由谁消费任务队列,保证同一时刻只有一个消费者
+     */
+    private final AtomicBoolean drainLock = new AtomicBoolean();
+
+    private volatile boolean running = true;
+
+    EventLoop(ThreadFactory threadFactory, Supplier<? extends ConnectionHandler> handlerFactory,
+              ByteBufferPool bufferPool, IdleStateMonitor.Config idleConfig,
+              boolean optimizeSelectedKeys) throws IOException {
+        this.selector = Selector.open();
+        this.selectedKeys = optimizeSelectedKeys ? SelectedSelectionKeySet.install(selector) : null;
+        this.thread = threadFactory.newThread(this::run);
+        this.handlerFactory = handlerFactory;
+        this.bufferPool = bufferPool;
+        this.idleConfig = idleConfig;
+        this.timer = idleConfig.isEnabled() ? new HashedWheelTimer(idleConfig.tickNanos(), 512, now) : null;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * @return 当前线程是否为该事件循环的线程
+     */
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * @return 是否使用数组实现的已选择键集合
+     */
+    boolean isSelectedKeysOptimized() {
+        return selectedKeys != null;
+    }
+
+    /**
+     * @return 最近一轮select之后的{@link System#nanoTime()},只能在事件循环线程上使用
+     */
+    long now() {
+        return now;
+    }
+
+    /**
+     * @return 事件循环的直接缓冲区池,只能在事件循环线程上使用
+     */
+    public ByteBufferPool bufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * 提交任务,在事件循环线程上执行
+     *
+     * @param task 任务
+     * @throws RejectedExecutionException 事件循环已经退出
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (terminated) {
+            throw new RejectedExecutionException("event loop terminated");
+        }
+        tasks.offer(task);
+        if (terminated) {
+            //检查之后、入队之前事件循环退出了,最后一次清空可能已经错过这个任务,由提交线程补上
+            drainAfterTermination();
+            return;
+        }
+        if (!inEventLoop() && wakenUp.compareAndSet(false, true)) {
+            wakeups.increment();
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * @return 其他线程提交任务时实际调用selector.wakeup()的次数
+     */
+    long wakeupCount() {
+        return wakeups.sum();
+    }
+
+    /**
+     * 把接收到的连接注册到该事件循环,注册在事件循环线程上完成,避免与select竞争Selector的锁
+     *
+     * @param channel 已经接收的连接
+     */
+    void register(SocketChannel channel) {
+        try {
+            execute(() -> register0(channel));
+        } catch (RejectedExecutionException e) {
+            closeQuietly(channel);
+        }
+    }
+
+    private void register0(SocketChannel channel) {
+        if (terminated) {
+            closeQuietly(channel);
+            return;
+        }
+        try {
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            TcpHandler connection = new TcpHandler(this, channel, key, handlerFactory.get());
+            key.attach(connection);
+            if (timer != null) {
+                connection.startIdleMonitor(new IdleStateMonitor(connection, timer, idleConfig));
+            }
+            connection.onConnected();
+        } catch (ClosedChannelException | ClosedSelectorException e) {
+            closeQuietly(channel);
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                try {
+                    if (selectedKeys != null) {
+                        select();
+                        processSelectedKeysOptimized();
+                    } else if (select() != 0) {
+                        processSelectedKeys();
+                    }
+                    if (timer != null) {
+                        now = System.nanoTime();
+                        timer.expire(now);
+                    }
+                    runAllTasks();
+                } catch (Throwable t) {
+                    //一个连接或定时任务的异常不能结束事件循环,否则这个循环上的所有连接都会被关闭
+                    if (logger.isLoggable(Level.WARNING)) {
+                        logger.log(Level.WARNING, "Unexpected exception in the selector loop.", t);
+                    }
+                }
+            }
+            runAllTasks();
+        } finally {
+            try {
+                closeAll();
+            } finally {
+                try {
+                    terminated = true;
+                    //退出前已经入队的任务: 连接都已关闭,写入会失败并释放缓冲区,注册会关闭socket
+                    drainAfterTermination();
+                } finally {
+                    closeQuietly(selector);
+                    terminationLatch.countDown();
+                }
+            }
+        }
+    }
+
+    /**
+     * 关闭所有连接,一个连接的onClosed抛出异常不影响其他连接
+     */
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            Object attachment = key.attachment();
+            try {
+                if (attachment instanceof TcpHandler) {
+                    ((TcpHandler) attachment).close();
+                } else {
+                    closeQuietly(key.channel());
+                }
+            } catch (Throwable t) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.log(Level.WARNING, "Failed to close a connection while shutting down. Handler: " + attachment, t);
+                }
+            }
+        }
+    }
+
+    /**
+     * 事件循环退出后清空任务队列,可能在任意线程上执行,用drainLock保证单消费者
+     * 一个线程清空时其他线程的任务由它在释放锁之后重新检查并执行。
+     */
+    private void drainAfterTermination() {
+        do {
+            if (!drainLock.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                runAllTasks();
+            } finally {
+                drainLock.set(false);
+            }
+        } while (!tasks.isEmpty());
+    }
+
+    private int select() throws IOException {
+        //先清除标记再检查队列: 之后入队的生产者一定能CAS成功并唤醒,之前入队的任务在这里能看到
+        wakenUp.set(false);
+        int selected;
+        long timeoutNanos = timer == null ? -1 : timer.nanosToNextTick(System.nanoTime());
+        if (!tasks.isEmpty()) {
+            selected = selector.selectNow();
+        } else if (timeoutNanos < 0) {
+            selected = selector.select();
+        } else if (timeoutNanos < TimeUnit.MILLISECONDS.toNanos(1)) {
+            selected = selector.selectNow();
+        } else {
+            selected = selector.select(TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+        }
+        //醒着时提交任务不需要唤醒
+        wakenUp.set(true);
+        now = System.nanoTime();
+        return selected;
+    }
+
+    private void processSelectedKeys() {
+        Set<SelectionKey> selectionKeys = selector.selectedKeys();
+        Iterator<SelectionKey> iterator = selectionKeys.iterator();
+        while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+            processSelectedKey(key);
+        }
+    }
+
+    private void processSelectedKeysOptimized() {
+        SelectionKey[] keys = selectedKeys.keys;
+        int size = selectedKeys.size;
+        try {
+            for (int i = 0; i < size; i++) {
+                processSelectedKey(keys[i]);
+            }
+        } finally {
+            //无论中途是否出错都要清空,下一轮select不能看到上一轮的键
+            selectedKeys.reset();
+        }
+    }
+
+    private void processSelectedKey(SelectionKey key) {
+        Runnable attachment = (Runnable) key.attachment();
+        if (attachment != null && key.isValid()) {
+            try {
+                attachment.run();
+            } catch (Throwable t) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.log(Level.WARNING, "A selection key handler raised an exception. Handler: " + attachment, t);
+                }
+            }
+        }
+    }
+
+    private void runAllTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.log(Level.WARNING, "A task raised an exception. Task: " + task, t);
+                }
+            }
+        }
+    }
+
+    /**
+     * 停止事件循环并关闭所有的连接
+     */
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminationLatch.await(timeout, unit);
+    }
+
+    static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.hanframework.kit.server;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 文件的一段,通过{@link TcpHandler#write(FileRegion)}放入出站队列,
+ * 写出时用{@link FileChannel#transferTo}(Linux上为sendfile)直接从页缓存发送到socket,不经过用户态缓冲区
+ * 一次transferTo可能只发送一部分,剩下的等OP_WRITE后从上次的位置继续。
+ * 只在连接所属的事件循环线程上使用。
+ *
+ * @author liuxin
+ * 2026-10-18 21:10
+ */
+public final class FileRegion {
+
+    private final FileChannel file;
+
+    private final long position;
+
+    private final long count;
+
+    private final boolean closeOnRelease;
+
+    private long transferred;
+
+    /**
+     * 发送file从position开始的count个字节,发送完或连接关闭后不关闭file
+     *
+     * @param file     文件
+     * @param position 起始位置
+     * @param count    字节数
+     */
+    public FileRegion(FileChannel file, long position, long count) {
+        this(file, position, count, false);
+    }
+
+    private FileRegion(FileChannel file, long position, long count, boolean closeOnRelease) {
+        if (file == null || position < 0 || count < 0) {
+            throw new IllegalArgumentException("position: " + position + ", count: " + count);
+        }
+        this.file = file;
+        this.position = position;
+        this.count = count;
+        this.closeOnRelease = closeOnRelease;
+    }
+
+    /**
+     * 打开整个文件,发送完或连接关闭后关闭文件
+     *
+     * @param path 文件路径
+     * @return FileRegion
+     * @throws IOException 打开文件失败
+     */
+    public static FileRegion open(Path path) throws IOException {
+        FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new FileRegion(file, 0, file.size(), true);
+        } catch (IOException | RuntimeException e) {
+            EventLoop.closeQuietly(file);
+            throw e;
+        }
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long transferred() {
+        return transferred;
+    }
+
+    public boolean isDone() {
+        return transferred >= count;
+    }
+
+    /**
+     * 从上次的位置继续发送
+     *
+     * @param target 目标连接
+     * @return 本次发送的字节数,内核发送缓冲区满或已经发送完(包括长度为0的区域)时为0
+     * @throws IOException 发送失败,或文件在发送过程中被截断
+     */
+    long transferTo(WritableByteChannel target) throws IOException {
+        if (isDone()) {
+            return 0;
+        }
+        long offset = position + transferred;
+        long written = file.transferTo(offset, count - transferred, target);
+        if (written == 0 && offset >= file.size()) {
+            //文件被截断,后面永远不会再有数据,不能当作发送缓冲区满去等待OP_WRITE
+            throw new IOException("File truncated: expected " + count + " bytes from position " + position
+                    + " but the file ended after " + transferred);
+        }
+        transferred += written;
+        return written;
+    }
+
+    /**
+     * 发送完或者连接关闭时调用
+     */
+    void release() {
+        if (closeOnRelease) {
+            EventLoop.closeQuietly(file);
+        }
+    }
+}
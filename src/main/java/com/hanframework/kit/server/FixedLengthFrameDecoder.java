@@ -0,0 +1,31 @@
+package com.hanframework.kit.server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 定长帧解码器
+ *
+ * @author liuxin
+ * 2026-10-18 20:20
+ */
+public class FixedLengthFrameDecoder extends FrameDecoder {
+
+    private final int frameLength;
+
+    public FixedLengthFrameDecoder(int frameLength) {
+        if (frameLength <= 0) {
+            throw new IllegalArgumentException("frameLength: " + frameLength + " (expected: > 0)");
+        }
+        this.frameLength = frameLength;
+    }
+
+    @Override
+    protected ByteBuffer decode(HandlerContext ctx, ByteBuffer in) {
+        if (in.remaining() < frameLength) {
+            return null;
+        }
+        int index = in.position();
+        in.position(index + frameLength);
+        return slice(in, index, frameLength);
+    }
+}
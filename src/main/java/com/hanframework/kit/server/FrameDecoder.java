@@ -0,0 +1,159 @@
+package com.hanframework.kit.server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 帧解码器基类,负责把连接读到的字节累积起来并切分成帧
+ * 1. 累积缓冲区为空时直接在读到的缓冲区上解码,不复制;只有不完整的剩余部分才复制到累积缓冲区
+ * 2. 累积缓冲区有半个帧时,只从新数据复制补齐这个帧所需的部分(每次翻倍试探),帧解出后把多复制的字节退回,
+ * 剩下的数据重新走不复制的路径,而不是把整块读到的数据都复制进来
+ * 3. 累积缓冲区尾部空间不够时才整理(把未读数据移到开头),整理后仍然不够才扩容
+ * 4. 帧是底层缓冲区的slice,不复制,只在{@link HandlerContext#fireRead}调用期间有效,需要保留时由下游复制
+ *
+ * @author liuxin
+ * 2026-10-18 20:20
+ */
+public abstract class FrameDecoder implements InboundHandler {
+
+    private static final int INITIAL_CUMULATION_CAPACITY = 1024;
+
+    /**
+     * 补齐半个帧时第一次最少复制的字节数
+     */
+    private static final int MIN_BRIDGE_BYTES = 256;
+
+    /**
+     * 读模式: position到limit为未解码的数据
+     */
+    private ByteBuffer cumulation;
+
+    private int compactions;
+
+    private int expansions;
+
+    @Override
+    public void onRead(HandlerContext ctx, Object msg) throws Exception {
+        if (!(msg instanceof ByteBuffer)) {
+            ctx.fireRead(msg);
+            return;
+        }
+        ByteBuffer data = (ByteBuffer) msg;
+        if (cumulation != null && cumulation.hasRemaining() && !bridge(ctx, data)) {
+            return;
+        }
+        decodeAll(ctx, data);
+        if (data.hasRemaining()) {
+            append(data, data.remaining());
+        }
+    }
+
+    /**
+     * 从data复制字节补齐累积缓冲区中的半个帧
+     *
+     * @return 累积缓冲区是否已经清空,清空后data剩下的部分可以直接解码
+     */
+    private boolean bridge(HandlerContext ctx, ByteBuffer data) throws Exception {
+        int step = Math.max(cumulation.remaining(), MIN_BRIDGE_BYTES);
+        while (data.hasRemaining()) {
+            int copied = Math.min(step, data.remaining());
+            append(data, copied);
+            decodeAll(ctx, cumulation);
+            int left = cumulation.remaining();
+            if (left <= copied) {
+                //剩下的都来自这次复制,退回给data,累积缓冲区回到开头,不需要移动数据
+                data.position(data.position() - left);
+                cumulation.clear();
+                cumulation.limit(0);
+                return true;
+            }
+            step <<= 1;
+        }
+        return false;
+    }
+
+    private void decodeAll(HandlerContext ctx, ByteBuffer in) throws Exception {
+        TcpHandler connection = ctx.connection();
+        //下游关闭连接后停止解码;没有关联连接时(直接驱动处理器链)一直解码
+        while (in.hasRemaining() && (connection == null || connection.isOpen())) {
+            int position = in.position();
+            ByteBuffer frame = decode(ctx, in);
+            if (frame == null) {
+                if (in.position() != position) {
+                    throw new IllegalStateException(getClass().getSimpleName() + ".decode() consumed bytes without producing a frame");
+                }
+                return;
+            }
+            ctx.fireRead(frame);
+        }
+    }
+
+    private void append(ByteBuffer data, int needed) {
+        if (cumulation == null) {
+            cumulation = ByteBuffer.allocate(Math.max(INITIAL_CUMULATION_CAPACITY, needed));
+            cumulation.limit(0);
+        } else if (cumulation.capacity() - cumulation.limit() < needed) {
+            int unread = cumulation.remaining();
+            if (cumulation.capacity() - unread >= needed) {
+                cumulation.compact();
+                cumulation.flip();
+                compactions++;
+            } else {
+                ByteBuffer expanded = ByteBuffer.allocate(Math.max(cumulation.capacity() << 1, unread + needed));
+                expanded.put(cumulation);
+                expanded.flip();
+                cumulation = expanded;
+                expansions++;
+            }
+        }
+        int position = cumulation.position();
+        cumulation.position(cumulation.limit());
+        cumulation.limit(cumulation.capacity());
+        int dataLimit = data.limit();
+        data.limit(data.position() + needed);
+        cumulation.put(data);
+        data.limit(dataLimit);
+        cumulation.limit(cumulation.position());
+        cumulation.position(position);
+    }
+
+    /**
+     * 从in中切出一个帧
+     * 有完整的帧时把in的position移到帧之后并返回帧;数据不够时不移动position并返回null。
+     *
+     * @param ctx 上下文
+     * @param in  读模式的数据
+     * @return 帧,通常用{@link #slice(ByteBuffer, int, int)}得到
+     * @throws Exception 数据无法解析
+     */
+    protected abstract ByteBuffer decode(HandlerContext ctx, ByteBuffer in) throws Exception;
+
+    /**
+     * 不复制地截取in中从index开始的length个字节
+     */
+    protected static ByteBuffer slice(ByteBuffer in, int index, int length) {
+        ByteBuffer frame = in.duplicate();
+        frame.limit(index + length);
+        frame.position(index);
+        return frame.slice();
+    }
+
+    /**
+     * @return 累积缓冲区整理(移动数据)的次数
+     */
+    int compactions() {
+        return compactions;
+    }
+
+    /**
+     * @return 累积缓冲区扩容的次数
+     */
+    int expansions() {
+        return expansions;
+    }
+
+    @Override
+    public void onClosed(HandlerContext ctx) throws Exception {
+        cumulation = null;
+        ctx.fireClosed();
+    }
+}
@@ -0,0 +1,107 @@
+package com.hanframework.kit.server;
+
+/**
+ * 处理器在{@link ChannelPipeline}中的位置,用于把事件传给下一个处理器
+ *
+ * @author liuxin
+ * 2026-10-18 20:20
+ */
+public final class HandlerContext {
+
+    private final ChannelPipeline pipeline;
+
+    private final InboundHandler handler;
+
+    HandlerContext next;
+
+    HandlerContext(ChannelPipeline pipeline, InboundHandler handler) {
+        this.pipeline = pipeline;
+        this.handler = handler;
+    }
+
+    public TcpHandler connection() {
+        return pipeline.connection();
+    }
+
+    public InboundHandler handler() {
+        return handler;
+    }
+
+    public void fireConnected() {
+        HandlerContext next = this.next;
+        if (next != null) {
+            try {
+                next.handler.onConnected(next);
+            } catch (Throwable t) {
+                next.invokeException(t);
+            }
+        }
+    }
+
+    /**
+     * 把消息交给下一个处理器,最后一个处理器之后的消息被丢弃
+     *
+     * @param msg 消息
+     */
+    public void fireRead(Object msg) {
+        HandlerContext next = this.next;
+        if (next != null) {
+            try {
+                next.handler.onRead(next, msg);
+            } catch (Throwable t) {
+                next.invokeException(t);
+            }
+        }
+    }
+
+    /**
+     * 把异常交给下一个处理器,没有处理器处理时关闭连接
+     *
+     * @param cause 异常
+     */
+    public void fireException(Throwable cause) {
+        HandlerContext next = this.next;
+        if (next != null) {
+            next.invokeException(cause);
+        } else {
+            pipeline.onUnhandledException(cause);
+        }
+    }
+
+    /**
+     * 把空闲事件交给下一个处理器,没有处理器处理时读空闲和读写空闲关闭连接
+     *
+     * @param state 空闲类型
+     */
+    public void fireIdle(IdleState state) {
+        HandlerContext next = this.next;
+        if (next != null) {
+            try {
+                next.handler.onIdle(next, state);
+            } catch (Throwable t) {
+                next.invokeException(t);
+            }
+        } else {
+            pipeline.onUnhandledIdle(state);
+        }
+    }
+
+    public void fireClosed() {
+        HandlerContext next = this.next;
+        if (next != null) {
+            try {
+                next.handler.onClosed(next);
+            } catch (Throwable t) {
+                pipeline.onUnhandledException(t);
+            }
+        }
+    }
+
+    void invokeException(Throwable cause) {
+        try {
+            handler.onException(this, cause);
+        } catch (Throwable t) {
+            pipeline.onUnhandledException(t);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.hanframework.kit.server;
+
+/**
+ * 单线程的哈希时间轮,每个{@link EventLoop}一个,只在事件循环线程上使用,不需要同步
+ * 定时任务按到期的tick放入槽中,槽内为双向链表: 添加和取消都是O(1),每个tick只检查一个槽。
+ * 超过一圈的任务记录剩余圈数,每经过一次减一。到期最多推迟一个tick,不会提前。
+ * 事件循环用{@link #nanosToNextTick(long)}作为select的超时时间,醒来后调用{@link #expire(long)},不需要额外的线程。
+ *
+ * @author liuxin
+ * 2026-10-18 21:30
+ */
+final class HashedWheelTimer {
+
+    private final long tickNanos;
+
+    private final Timeout[] wheel;
+
+    private final int mask;
+
+    private final long startTime;
+
+    /**
+     * 已经处理完的tick数
+     */
+    private long tick;
+
+    private int size;
+
+    /**
+     * @param tickNanos     tick的长度
+     * @param ticksPerWheel 槽数,向上取2的幂
+     * @param now           当前时间
+     */
+    HashedWheelTimer(long tickNanos, int ticksPerWheel, long now) {
+        if (tickNanos <= 0 || ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+            throw new IllegalArgumentException("tickNanos: " + tickNanos + ", ticksPerWheel: " + ticksPerWheel);
+        }
+        int length = 1;
+        while (length < ticksPerWheel) {
+            length <<= 1;
+        }
+        this.tickNanos = tickNanos;
+        this.wheel = new Timeout[length];
+        this.mask = length - 1;
+        this.startTime = now;
+    }
+
+    /**
+     * 在deadline之后执行task
+     *
+     * @param task     任务,在事件循环线程上执行
+     * @param deadline {@link System#nanoTime()}的时间点
+     * @return 用于取消
+     */
+    Timeout schedule(Runnable task, long deadline) {
+        Timeout timeout = new Timeout(task);
+        schedule(timeout, deadline);
+        return timeout;
+    }
+
+    /**
+     * 重新调度一个已经到期或取消的Timeout,避免每次都分配新的对象
+     */
+    void schedule(Timeout timeout, long deadline) {
+        if (timeout.bucket >= 0) {
+            throw new IllegalStateException("timeout is already scheduled");
+        }
+        //deadline所在的tick(tick k覆盖(start + k * tickNanos, start + (k + 1) * tickNanos])
+        long ticks = Math.max((deadline - startTime + tickNanos - 1) / tickNanos - 1, tick);
+        timeout.deadline = deadline;
+        timeout.remainingRounds = (ticks - tick) / wheel.length;
+        timeout.cancelled = false;
+        int bucket = (int) (ticks & mask);
+        timeout.bucket = bucket;
+        Timeout head = wheel[bucket];
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        wheel[bucket] = timeout;
+        size++;
+    }
+
+    void cancel(Timeout timeout) {
+        timeout.cancelled = true;
+        if (timeout.bucket >= 0) {
+            unlink(timeout);
+        }
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            wheel[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        size--;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return 距离下一个tick结束的时间,时间轮为空时返回-1
+     */
+    long nanosToNextTick(long now) {
+        if (size == 0) {
+            return -1;
+        }
+        return Math.max(0, startTime + (tick + 1) * tickNanos - now);
+    }
+
+    /**
+     * 处理所有已经结束的tick,执行到期的任务
+     * 先把到期的任务从槽中摘下再逐个执行,任务里取消或重新调度其他Timeout不会影响遍历。
+     *
+     * @param now 当前时间
+     * @return 执行的任务数
+     */
+    int expire(long now) {
+        int expired = 0;
+        while (size > 0 && startTime + (tick + 1) * tickNanos <= now) {
+            Timeout due = null;
+            Timeout timeout = wheel[(int) (tick & mask)];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    unlink(timeout);
+                    timeout.nextDue = due;
+                    due = timeout;
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+            tick++;
+            while (due != null) {
+                Timeout next = due.nextDue;
+                due.nextDue = null;
+                //在同一批中被取消或已经被重新调度的不再执行
+                if (!due.cancelled && !due.isScheduled()) {
+                    expired++;
+                    due.task.run();
+                }
+                due = next;
+            }
+        }
+        if (size == 0) {
+            //时间轮为空时跳到当前的tick,下次调度不需要空转中间的tick
+            tick = Math.max(tick, (now - startTime) / tickNanos);
+        }
+        return expired;
+    }
+
+    static final class Timeout {
+
+        private final Runnable task;
+
+        private long deadline;
+
+        private long remainingRounds;
+
+        private int bucket = -1;
+
+        private boolean cancelled;
+
+        private Timeout prev;
+
+        private Timeout next;
+
+        private Timeout nextDue;
+
+        Timeout(Runnable task) {
+            this.task = task;
+        }
+
+        long deadline() {
+            return deadline;
+        }
+
+        boolean isScheduled() {
+            return bucket >= 0;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.hanframework.kit.server;
+
+/**
+ * 连接空闲的类型,通过{@link ConnectionHandler#onIdle}和{@link InboundHandler#onIdle}通知
+ *
+ * @author liuxin
+ * 2026-10-18 21:30
+ */
+public enum IdleState {
+
+    /**
+     * 超过读空闲时间没有读到数据
+     */
+    READER_IDLE,
+
+    /**
+     * 超过写空闲时间没有写出数据,通常用来发送心跳
+     */
+    WRITER_IDLE,
+
+    /**
+     * 超过空闲时间既没有读也没有写
+     */
+    ALL_IDLE
+}
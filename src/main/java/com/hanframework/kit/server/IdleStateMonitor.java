@@ -0,0 +1,151 @@
+package com.hanframework.kit.server;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一个连接的读、写、读写空闲检测,定时任务放在所属事件循环的{@link HashedWheelTimer}上
+ * 每次读写只更新时间戳(O(1)),不动时间轮;定时任务到期时再根据最后一次读写的时间判断:
+ * 已经空闲就通知并按完整的超时时间重新调度,否则只调度剩下的时间。
+ * 每个连接最多三个Timeout对象,重新调度时复用。
+ *
+ * @author liuxin
+ * 2026-10-18 21:30
+ */
+final class IdleStateMonitor {
+
+    private final TcpHandler connection;
+
+    private final HashedWheelTimer timer;
+
+    private final long readerIdleNanos;
+
+    private final long writerIdleNanos;
+
+    private final long allIdleNanos;
+
+    private HashedWheelTimer.Timeout readerTimeout;
+
+    private HashedWheelTimer.Timeout writerTimeout;
+
+    private HashedWheelTimer.Timeout allTimeout;
+
+    private long lastReadTime;
+
+    private long lastWriteTime;
+
+    IdleStateMonitor(TcpHandler connection, HashedWheelTimer timer, Config config) {
+        this.connection = connection;
+        this.timer = timer;
+        this.readerIdleNanos = config.readerIdleNanos;
+        this.writerIdleNanos = config.writerIdleNanos;
+        this.allIdleNanos = config.allIdleNanos;
+    }
+
+    void start(long now) {
+        lastReadTime = lastWriteTime = now;
+        if (readerIdleNanos > 0) {
+            readerTimeout = timer.schedule(() -> check(IdleState.READER_IDLE), now + readerIdleNanos);
+        }
+        if (writerIdleNanos > 0) {
+            writerTimeout = timer.schedule(() -> check(IdleState.WRITER_IDLE), now + writerIdleNanos);
+        }
+        if (allIdleNanos > 0) {
+            allTimeout = timer.schedule(() -> check(IdleState.ALL_IDLE), now + allIdleNanos);
+        }
+    }
+
+    void onRead(long now) {
+        lastReadTime = now;
+    }
+
+    void onWrite(long now) {
+        lastWriteTime = now;
+    }
+
+    void stop() {
+        if (readerTimeout != null) {
+            timer.cancel(readerTimeout);
+        }
+        if (writerTimeout != null) {
+            timer.cancel(writerTimeout);
+        }
+        if (allTimeout != null) {
+            timer.cancel(allTimeout);
+        }
+    }
+
+    private void check(IdleState state) {
+        if (!connection.isOpen()) {
+            return;
+        }
+        long timeoutNanos;
+        long lastActivity;
+        HashedWheelTimer.Timeout timeout;
+        switch (state) {
+            case READER_IDLE:
+                timeoutNanos = readerIdleNanos;
+                lastActivity = lastReadTime;
+                timeout = readerTimeout;
+                break;
+            case WRITER_IDLE:
+                timeoutNanos = writerIdleNanos;
+                lastActivity = lastWriteTime;
+                timeout = writerTimeout;
+                break;
+            default:
+                timeoutNanos = allIdleNanos;
+                lastActivity = Math.max(lastReadTime, lastWriteTime);
+                timeout = allTimeout;
+                break;
+        }
+        long now = connection.eventLoop().now();
+        long remaining = lastActivity + timeoutNanos - now;
+        if (remaining > 0) {
+            timer.schedule(timeout, now + remaining);
+            return;
+        }
+        timer.schedule(timeout, now + timeoutNanos);
+        connection.onIdle(state);
+    }
+
+    /**
+     * 空闲时间配置,0表示不检测
+     */
+    static final class Config {
+
+        static final Config DISABLED = new Config(0, 0, 0, TimeUnit.NANOSECONDS);
+
+        final long readerIdleNanos;
+
+        final long writerIdleNanos;
+
+        final long allIdleNanos;
+
+        Config(long readerIdle, long writerIdle, long allIdle, TimeUnit unit) {
+            if (readerIdle < 0 || writerIdle < 0 || allIdle < 0) {
+                throw new IllegalArgumentException("readerIdle: " + readerIdle + ", writerIdle: " + writerIdle
+                        + ", allIdle: " + allIdle + " (expected: >= 0)");
+            }
+            this.readerIdleNanos = unit.toNanos(readerIdle);
+            this.writerIdleNanos = unit.toNanos(writerIdle);
+            this.allIdleNanos = unit.toNanos(allIdle);
+        }
+
+        boolean isEnabled() {
+            return readerIdleNanos > 0 || writerIdleNanos > 0 || allIdleNanos > 0;
+        }
+
+        /**
+         * 时间轮的tick: 最短超时的1/8,限制在1ms到100ms之间,空闲事件最多推迟一个tick
+         */
+        long tickNanos() {
+            long min = Long.MAX_VALUE;
+            for (long nanos : new long[]{readerIdleNanos, writerIdleNanos, allIdleNanos}) {
+                if (nanos > 0) {
+                    min = Math.min(min, nanos);
+                }
+            }
+            return Math.max(TimeUnit.MILLISECONDS.toNanos(1), Math.min(TimeUnit.MILLISECONDS.toNanos(100), min / 8));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.hanframework.kit.server;
+
+/**
+ * {@link ChannelPipeline}中的入站处理器,默认实现都是把事件原样传给下一个处理器
+ * 所有方法都在连接所属的{@link EventLoop}线程上调用。
+ *
+ * @author liuxin
+ * 2026-10-18 20:20
+ */
+public interface InboundHandler {
+
+    default void onConnected(HandlerContext ctx) throws Exception {
+        ctx.fireConnected();
+    }
+
+    /**
+     * 读到消息,第一个处理器收到的是连接读到的ByteBuffer,之后是前一个处理器解码出的消息
+     *
+     * @param ctx 上下文
+     * @param msg 消息
+     * @throws Exception 异常交给{@link #onException}
+     */
+    void onRead(HandlerContext ctx, Object msg) throws Exception;
+
+    default void onException(HandlerContext ctx, Throwable cause) throws Exception {
+        ctx.fireException(cause);
+    }
+
+    /**
+     * 连接空闲,最后一个处理器之后按{@link ConnectionHandler#onIdle}的默认方式处理
+     *
+     * @param ctx   上下文
+     * @param state 空闲类型
+     * @throws Exception 异常交给{@link #onException}
+     */
+    default void onIdle(HandlerContext ctx, IdleState state) throws Exception {
+        ctx.fireIdle(state);
+    }
+
+    default void onClosed(HandlerContext ctx) throws Exception {
+        ctx.fireClosed();
+    }
+}
@@ -0,0 +1,89 @@
+package com.hanframework.kit.server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 长度字段帧解码器,长度字段为大端无符号整数
+ * 帧长度 = lengthFieldOffset + lengthFieldLength + 长度字段的值 + lengthAdjustment,
+ * 交给下游前去掉帧开头的initialBytesToStrip个字节。
+ * 例如4字节长度字段只表示消息体长度、下游只需要消息体: (maxFrameLength, 0, 4, 0, 4)。
+ *
+ * @author liuxin
+ * 2026-10-18 20:20
+ */
+public class LengthFieldFrameDecoder extends FrameDecoder {
+
+    private final int maxFrameLength;
+
+    private final int lengthFieldOffset;
+
+    private final int lengthFieldLength;
+
+    private final int lengthAdjustment;
+
+    private final int initialBytesToStrip;
+
+    private final int lengthFieldEndOffset;
+
+    /**
+     * @param maxFrameLength      最大帧长度,超过时抛出{@link DecoderException}
+     * @param lengthFieldOffset   长度字段的偏移
+     * @param lengthFieldLength   长度字段的字节数: 1、2、3、4、8
+     * @param lengthAdjustment    加到长度字段值上的补偿,例如长度字段包含了自身时为负数
+     * @param initialBytesToStrip 去掉帧开头的字节数
+     */
+    public LengthFieldFrameDecoder(int maxFrameLength, int lengthFieldOffset, int lengthFieldLength,
+                                   int lengthAdjustment, int initialBytesToStrip) {
+        if (lengthFieldLength != 1 && lengthFieldLength != 2 && lengthFieldLength != 3
+                && lengthFieldLength != 4 && lengthFieldLength != 8) {
+            throw new IllegalArgumentException("lengthFieldLength: " + lengthFieldLength + " (expected: 1, 2, 3, 4, or 8)");
+        }
+        if (maxFrameLength <= 0 || lengthFieldOffset < 0 || initialBytesToStrip < 0
+                || lengthFieldOffset > maxFrameLength - lengthFieldLength) {
+            throw new IllegalArgumentException("maxFrameLength: " + maxFrameLength + ", lengthFieldOffset: "
+                    + lengthFieldOffset + ", initialBytesToStrip: " + initialBytesToStrip);
+        }
+        this.maxFrameLength = maxFrameLength;
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthFieldLength = lengthFieldLength;
+        this.lengthAdjustment = lengthAdjustment;
+        this.initialBytesToStrip = initialBytesToStrip;
+        this.lengthFieldEndOffset = lengthFieldOffset + lengthFieldLength;
+    }
+
+    @Override
+    protected ByteBuffer decode(HandlerContext ctx, ByteBuffer in) {
+        if (in.remaining() < lengthFieldEndOffset) {
+            return null;
+        }
+        int index = in.position();
+        long length = readLength(in, index + lengthFieldOffset) + lengthAdjustment + lengthFieldEndOffset;
+        if (length < lengthFieldEndOffset || length < initialBytesToStrip) {
+            throw new DecoderException("Adjusted frame length (" + length + ") is less than the header length");
+        }
+        if (length > maxFrameLength) {
+            throw new DecoderException("Adjusted frame length exceeds " + maxFrameLength + ": " + length);
+        }
+        int frameLength = (int) length;
+        if (in.remaining() < frameLength) {
+            return null;
+        }
+        in.position(index + frameLength);
+        return slice(in, index + initialBytesToStrip, frameLength - initialBytesToStrip);
+    }
+
+    private long readLength(ByteBuffer in, int offset) {
+        switch (lengthFieldLength) {
+            case 1:
+                return in.get(offset) & 0xFF;
+            case 2:
+                return in.getShort(offset) & 0xFFFF;
+            case 3:
+                return (in.getShort(offset) & 0xFFFF) << 8 | (in.get(offset + 2) & 0xFF);
+            case 4:
+                return in.getInt(offset) & 0xFFFFFFFFL;
+            default:
+                return in.getLong(offset);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.hanframework.kit.server;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * 多生产者单消费者的无界任务队列,{@link EventLoop}的任务队列
+ * 入队只有一次getAndSet(交换尾指针)和一次有序写,生产者之间不会像CAS循环那样互相重试;
+ * 出队只由事件循环线程执行,不需要任何原子操作。
+ * 生产者交换尾指针之后、链接next之前的短暂窗口里,新任务对消费者不可见,{@link #poll()}可能返回null,
+ * 事件循环靠生产者随后的唤醒保证不会漏掉。
+ *
+ * @author liuxin
+ * 2026-10-18 22:00
+ */
+final class MpscTaskQueue {
+
+    private final AtomicReference<Node> tail;
+
+    /**
+     * 哨兵节点,只由消费者访问
+     */
+    private Node head;
+
+    MpscTaskQueue() {
+        Node stub = new Node(null);
+        head = stub;
+        tail = new AtomicReference<>(stub);
+    }
+
+    /**
+     * 任意线程调用
+     */
+    void offer(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        Node node = new Node(task);
+        Node prev = tail.getAndSet(node);
+        Node.NEXT_UPDATER.lazySet(prev, node);
+    }
+
+    /**
+     * 只能由消费者调用
+     *
+     * @return 队首任务,没有时为null
+     */
+    Runnable poll() {
+        Node next = head.next;
+        if (next == null) {
+            return null;
+        }
+        Runnable task = next.task;
+        //next成为新的哨兵,释放对任务的引用
+        next.task = null;
+        head = next;
+        return task;
+    }
+
+    /**
+     * 只能由消费者调用
+     */
+    boolean isEmpty() {
+        return head.next == null && head == tail.get();
+    }
+
+    private static final class Node {
+
+        static final AtomicReferenceFieldUpdater<Node, Node> NEXT_UPDATER =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+        Runnable task;
+
+        volatile Node next;
+
+        Node(Runnable task) {
+            this.task = task;
+        }
+    }
+}
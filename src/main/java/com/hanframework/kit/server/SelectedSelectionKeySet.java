@@ -0,0 +1,160 @@
+package com.hanframework.kit.server;
+
+import java.lang.reflect.Field;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 数组实现的已选择键集合,替换JDK Selector内部的HashSet
+ * JDK每次select把就绪的键add进HashSet,事件循环再通过迭代器遍历并逐个remove,热路径上有哈希和迭代器分配。
+ * 替换之后add只是追加到数组,事件循环按下标遍历,处理完一次性{@link #reset()}。
+ * 通过{@link #install(Selector)}替换sun.nio.ch.SelectorImpl的selectedKeys和publicSelectedKeys字段:
+ * 先尝试反射,JDK9+没有开放sun.nio.ch时再尝试sun.misc.Unsafe,都不行时返回null,继续使用原来的集合。
+ *
+ * @author liuxin
+ * 2026-10-18 22:30
+ */
+final class SelectedSelectionKeySet extends AbstractSet<SelectionKey> {
+
+    private static final Logger logger = Logger.getLogger("SelectedSelectionKeySet");
+
+    SelectionKey[] keys = new SelectionKey[1024];
+
+    int size;
+
+    @Override
+    public boolean add(SelectionKey key) {
+        if (key == null) {
+            return false;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+        }
+        keys[size++] = key;
+        return true;
+    }
+
+    /**
+     * 与Netty一样不去重,每次select之后都会清空,同一个键在一轮select中只会被JDK添加一次
+     */
+    @Override
+    public boolean contains(Object o) {
+        return false;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<SelectionKey> iterator() {
+        return new Iterator<SelectionKey>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public SelectionKey next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return keys[index++];
+            }
+        };
+    }
+
+    /**
+     * 清空,释放对键的引用
+     */
+    void reset() {
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * 把selector内部的已选择键集合替换为数组实现
+     *
+     * @param selector 刚打开的Selector
+     * @return 替换后的集合,无法替换时返回null
+     */
+    static SelectedSelectionKeySet install(Selector selector) {
+        SelectedSelectionKeySet keySet = new SelectedSelectionKeySet();
+        Throwable cause;
+        try {
+            Class<?> selectorImplClass = Class.forName("sun.nio.ch.SelectorImpl", false, ClassLoader.getSystemClassLoader());
+            if (!selectorImplClass.isInstance(selector)) {
+                throw new IllegalStateException("Unsupported selector: " + selector.getClass().getName());
+            }
+            Field selectedKeysField = selectorImplClass.getDeclaredField("selectedKeys");
+            Field publicSelectedKeysField = selectorImplClass.getDeclaredField("publicSelectedKeys");
+            try {
+                selectedKeysField.setAccessible(true);
+                publicSelectedKeysField.setAccessible(true);
+                selectedKeysField.set(selector, keySet);
+                publicSelectedKeysField.set(selector, keySet);
+                return keySet;
+            } catch (RuntimeException | IllegalAccessException e) {
+                //JDK9+没有--add-opens java.base/sun.nio.ch时抛出InaccessibleObjectException
+                if (!UnsafeAccess.putObject(selector, selectedKeysField, keySet)
+                        || !UnsafeAccess.putObject(selector, publicSelectedKeysField, keySet)) {
+                    throw e;
+                }
+                return keySet;
+            }
+        } catch (Throwable t) {
+            cause = t;
+        }
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "Failed to install the array-backed selected-key set, using the default one.", cause);
+        }
+        return null;
+    }
+
+    /**
+     * 延迟加载sun.misc.Unsafe,不可用时不影响反射路径
+     */
+    private static final class UnsafeAccess {
+
+        private static final Object UNSAFE;
+
+        static {
+            Object unsafe = null;
+            try {
+                Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafe = field.get(null);
+            } catch (Throwable ignored) {
+            }
+            UNSAFE = unsafe;
+        }
+
+        static boolean putObject(Object target, Field field, Object value) {
+            if (UNSAFE == null) {
+                return false;
+            }
+            try {
+                Class<?> unsafeClass = UNSAFE.getClass();
+                long offset = (long) unsafeClass.getMethod("objectFieldOffset", Field.class).invoke(UNSAFE, field);
+                unsafeClass.getMethod("putObject", Object.class, long.class, Object.class).invoke(UNSAFE, target, offset, value);
+                return true;
+            } catch (Throwable t) {
+                return false;
+            }
+        }
+    }
+}
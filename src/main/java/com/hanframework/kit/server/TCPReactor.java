@@ -1,16 +1,26 @@
 package com.hanframework.kit.server;
 
+import com.hanframework.kit.thread.NamedThreadFactory;
+
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.net.SocketAddress;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
-import java.nio.channels.SocketChannel;
 import java.util.Iterator;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
+ * 主从Reactor
+ * 调用{@link #start()}的线程作为接收线程,只处理OP_ACCEPT;接收到的连接轮询分配给N个{@link EventLoop},
+ * 每个EventLoop有自己的Selector和线程,负责连接此后所有的读写。N默认为CPU核数。
+ * 每个连接通过{@link Builder#handler(Supplier)}创建自己的{@link ConnectionHandler},默认丢弃读到的数据。
+ * 通过{@link Builder#idleTimeout}配置空闲检测后,空闲的连接通过{@link ConnectionHandler#onIdle}通知,默认关闭。
+ *
  * @author liuxin
  * 2020-07-02 23:40
  */
@@ -20,35 +30,205 @@ public class TCPReactor {
 
     private final ServerSocketChannel ssc;
 
+    private final EventLoop[] workers;
+
+    private final AtomicInteger nextWorker = new AtomicInteger();
+
+    private volatile boolean running = true;
+
     public TCPReactor(Integer port) throws IOException {
+        this(builder().port(port));
+    }
+
+    private TCPReactor(Builder builder) throws IOException {
         selector = Selector.open();
         ssc = ServerSocketChannel.open();
-        InetSocketAddress inetSocketAddress = new InetSocketAddress(port);
+        InetSocketAddress inetSocketAddress = new InetSocketAddress(builder.port);
         ssc.socket().bind(inetSocketAddress);
         ssc.configureBlocking(false);
         SelectionKey sk = ssc.register(selector, SelectionKey.OP_ACCEPT);
-        sk.attach(new AcceptHandler(selector, ssc));
+        sk.attach(new AcceptHandler(this, ssc));
+        NamedThreadFactory threadFactory = new NamedThreadFactory("tcp-worker-" + getLocalPort(), false, true);
+        workers = new EventLoop[builder.workerCount];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new EventLoop(threadFactory, builder.handlerFactory,
+                    new ByteBufferPool(builder.bufferSize, builder.maxPooledBuffers), builder.idleConfig,
+                    builder.optimizeSelectedKeys);
+        }
     }
 
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getLocalPort() {
+        return ssc.socket().getLocalPort();
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    /**
+     * @return 工作事件循环是否使用数组实现的已选择键集合
+     */
+    public boolean isSelectedKeysOptimized() {
+        return workers[0].isSelectedKeysOptimized();
+    }
+
+    /**
+     * 启动工作事件循环,当前线程进入接收循环,直到{@link #close()}或线程被中断
+     *
+     * @throws Exception select失败
+     */
     public void start() throws Exception {
-        while (!Thread.interrupted()) {
-            int localPort = ssc.socket().getLocalPort();
-            if (selector.select() != 0) {
-                System.out.println("等待事件发生在端口:" + localPort);
-                Set<SelectionKey> selectionKeys = selector.selectedKeys();
-                Iterator<SelectionKey> iterator = selectionKeys.iterator();
-                while (iterator.hasNext()) {
-                    dispatch(iterator.next());
-                    iterator.remove();
+        for (EventLoop worker : workers) {
+            worker.start();
+        }
+        try {
+            while (running && !Thread.interrupted()) {
+                if (selector.select() != 0) {
+                    Set<SelectionKey> selectionKeys = selector.selectedKeys();
+                    Iterator<SelectionKey> iterator = selectionKeys.iterator();
+                    while (iterator.hasNext()) {
+                        dispatch(iterator.next());
+                        iterator.remove();
+                    }
                 }
             }
+        } finally {
+            EventLoop.closeQuietly(ssc);
+            EventLoop.closeQuietly(selector);
+            for (EventLoop worker : workers) {
+                worker.shutdown();
+            }
         }
     }
 
+    /**
+     * 停止接收,关闭所有的工作事件循环和连接
+     */
+    public void close() {
+        running = false;
+        selector.wakeup();
+        for (EventLoop worker : workers) {
+            worker.shutdown();
+        }
+    }
+
+    /**
+     * 等待所有的工作事件循环结束
+     *
+     * @param timeout 超时时间
+     * @param unit    单位
+     * @return 是否全部结束
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (EventLoop worker : workers) {
+            if (!worker.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 轮询选择工作事件循环
+     *
+     * @return EventLoop
+     */
+    EventLoop next() {
+        return workers[(nextWorker.getAndIncrement() & Integer.MAX_VALUE) % workers.length];
+    }
+
     private void dispatch(SelectionKey selectionKey) {
         Runnable attachment = (Runnable) selectionKey.attachment();
         if (attachment != null) {
             attachment.run();
         }
     }
+
+    public static final class Builder {
+
+        private int port;
+
+        private int workerCount = Runtime.getRuntime().availableProcessors();
+
+        private Supplier<? extends ConnectionHandler> handlerFactory = () -> (connection, data) -> {
+        };
+
+        private int bufferSize = 16 * 1024;
+
+        private int maxPooledBuffers = 256;
+
+        private IdleStateMonitor.Config idleConfig = IdleStateMonitor.Config.DISABLED;
+
+        private boolean optimizeSelectedKeys;
+
+        private Builder() {
+        }
+
+        /**
+         * 监听端口,0表示随机端口
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * 工作事件循环数,默认CPU核数
+         */
+        public Builder workerCount(int workerCount) {
+            if (workerCount <= 0) {
+                throw new IllegalArgumentException("workerCount: " + workerCount + " (expected: > 0)");
+            }
+            this.workerCount = workerCount;
+            return this;
+        }
+
+        /**
+         * 每个连接的事件回调,每个连接调用一次
+         */
+        public Builder handler(Supplier<? extends ConnectionHandler> handlerFactory) {
+            this.handlerFactory = Objects.requireNonNull(handlerFactory, "handlerFactory");
+            return this;
+        }
+
+        /**
+         * 池化直接缓冲区的大小,默认16KB;每个事件循环最多缓存maxPooledBuffers个,默认256
+         */
+        public Builder buffers(int bufferSize, int maxPooledBuffers) {
+            if (bufferSize <= 0 || maxPooledBuffers < 0) {
+                throw new IllegalArgumentException("bufferSize: " + bufferSize + ", maxPooledBuffers: " + maxPooledBuffers);
+            }
+            this.bufferSize = bufferSize;
+            this.maxPooledBuffers = maxPooledBuffers;
+            return this;
+        }
+
+        /**
+         * 连接的读空闲、写空闲、读写空闲时间,0表示不检测,默认都不检测
+         * 由每个事件循环的时间轮检测,tick为最短空闲时间的1/8(1ms到100ms),通知最多推迟一个tick。
+         */
+        public Builder idleTimeout(long readerIdle, long writerIdle, long allIdle, TimeUnit unit) {
+            this.idleConfig = new IdleStateMonitor.Config(readerIdle, writerIdle, allIdle, unit);
+            return this;
+        }
+
+        /**
+         * 工作事件循环的Selector是否替换为数组实现的已选择键集合,默认不替换
+         * 需要反射或Unsafe访问sun.nio.ch.SelectorImpl,不能访问时自动退回JDK原来的集合。
+         */
+        public Builder optimizeSelectedKeys(boolean optimizeSelectedKeys) {
+            this.optimizeSelectedKeys = optimizeSelectedKeys;
+            return this;
+        }
+
+        public TCPReactor build() throws IOException {
+            return new TCPReactor(this);
+        }
+    }
 }
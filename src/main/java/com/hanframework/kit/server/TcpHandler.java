@@ -1,29 +1,365 @@
 package com.hanframework.kit.server;
 
-import java.nio.channels.Selector;
-import java.nio.channels.ServerSocketChannel;
+import com.hanframework.kit.futrue.DefaultEnhancePromise;
+import com.hanframework.kit.futrue.EnhanceFuture;
+import com.hanframework.kit.futrue.ThrowableUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
+ * 一个连接的I/O处理,只在所属的{@link EventLoop}线程上执行
+ * 1. 读: 每次可读事件从事件循环的{@link ByteBufferPool}借一个直接缓冲区,最多连续读{@code MAX_READS_PER_EVENT}次,
+ * 交给{@link ConnectionHandler#onRead}后归还
+ * 2. 写: {@link #write(ByteBuffer)}可以在任意线程调用,只放入出站队列并返回写结果,{@link #flush()}用gathering write一次写出多个缓冲区;
+ * 只有写不完时才注册OP_WRITE,写完后立即取消,避免空转
+ * 3. 通过{@link #alloc()}借出的缓冲区写完后自动归还到池中,稳态下每条消息不再分配内存
+ * 4. {@link #write(FileRegion)}与缓冲区进入同一个出站队列,按写入顺序发送;轮到文件时用transferTo零拷贝发送,
+ * 发送不完同样注册OP_WRITE,可写后从上次的位置继续
+ * 5. 配置了空闲时间时,每次读到或写出数据只更新{@link IdleStateMonitor}的时间戳,空闲时通过{@link ConnectionHandler#onIdle}通知
+ *
  * @author liuxin
  * 2020-07-03 00:07
  */
 public class TcpHandler implements Runnable {
 
-    private final Selector selector;
+    private static final Logger logger = Logger.getLogger("TcpHandler");
+
+    /**
+     * 一次可读事件最多读取的次数,避免一个连接占满事件循环
+     */
+    private static final int MAX_READS_PER_EVENT = 16;
+
+    /**
+     * 一次gathering write最多写出的缓冲区数
+     */
+    private static final int MAX_GATHERING_BUFFERS = 64;
+
+    /**
+     * 连接关闭后写入或者关闭时还没有写出,共享同一个异常实例
+     */
+    private static final ClosedChannelException CLOSED_CHANNEL_EXCEPTION = ThrowableUtil.unknownStackTrace(
+            new ClosedChannelException(), TcpHandler.class, "write(...)");
+
+    private final EventLoop eventLoop;
+
+    private final SocketChannel channel;
+
+    private final SelectionKey key;
+
+    private final ConnectionHandler handler;
+
+    /**
+     * {@link ByteBuffer}或{@link FileRegion}
+     */
+    private final ArrayDeque<Object> outbound = new ArrayDeque<>();
+
+    /**
+     * 与outbound一一对应,消息写完出队时完成
+     */
+    private final ArrayDeque<DefaultEnhancePromise<Void>> promises = new ArrayDeque<>();
+
+    private final ByteBuffer[] gathering = new ByteBuffer[MAX_GATHERING_BUFFERS];
+
+    private IdleStateMonitor idleMonitor;
+
+    private boolean closed;
+
+    public TcpHandler(EventLoop eventLoop, SocketChannel channel, SelectionKey key, ConnectionHandler handler) {
+        this.eventLoop = eventLoop;
+        this.channel = channel;
+        this.key = key;
+        this.handler = handler;
+    }
+
+    public EventLoop eventLoop() {
+        return eventLoop;
+    }
+
+    public SocketChannel channel() {
+        return channel;
+    }
+
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * 交给{@link ConnectionHandler#onException},它自己抛出异常时记录日志并关闭连接,不让异常传到事件循环
+     */
+    private void fireException(Throwable cause) {
+        try {
+            handler.onException(this, cause);
+        } catch (Throwable t) {
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "ConnectionHandler.onException raised an exception, closing the connection.", t);
+            }
+            close();
+        }
+    }
 
-    private final ServerSocketChannel ssc;
+    void startIdleMonitor(IdleStateMonitor idleMonitor) {
+        this.idleMonitor = idleMonitor;
+        idleMonitor.start(eventLoop.now());
+    }
+
+    void onIdle(IdleState state) {
+        try {
+            handler.onIdle(this, state);
+        } catch (Throwable t) {
+            fireException(t);
+        }
+    }
 
-    public TcpHandler(Selector selector, ServerSocketChannel ssc) {
-        this.selector = selector;
-        this.ssc = ssc;
+    void onConnected() {
+        try {
+            handler.onConnected(this);
+        } catch (Throwable t) {
+            fireException(t);
+        }
     }
 
     @Override
     public void run() {
         try {
+            int readyOps = key.readyOps();
+            if ((readyOps & SelectionKey.OP_WRITE) != 0) {
+                flush();
+            }
+            if ((readyOps & SelectionKey.OP_READ) != 0 && !closed) {
+                read();
+            }
+        } catch (Throwable t) {
+            fireException(t);
+        }
+    }
+
+    private void read() throws IOException {
+        ByteBufferPool pool = eventLoop.bufferPool();
+        ByteBuffer buffer = pool.acquire();
+        try {
+            for (int i = 0; i < MAX_READS_PER_EVENT && !closed; i++) {
+                int n = channel.read(buffer);
+                if (n < 0) {
+                    close();
+                    return;
+                }
+                if (n == 0) {
+                    return;
+                }
+                if (idleMonitor != null) {
+                    idleMonitor.onRead(eventLoop.now());
+                }
+                buffer.flip();
+                handler.onRead(this, buffer);
+                buffer.clear();
+            }
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * 从事件循环的池中借一个直接缓冲区,写出后自动归还,只能在事件循环线程上调用
+     *
+     * @return 已经clear的缓冲区
+     */
+    public ByteBuffer alloc() {
+        return eventLoop.bufferPool().acquire();
+    }
+
+    /**
+     * 放入出站队列,直到{@link #flush()}才会写出;缓冲区的所有权交给连接,写出前不能再修改
+     * 可以在任意线程调用,不在事件循环线程上时交给事件循环执行。
+     *
+     * @param buffer 已经flip的数据
+     * @return 缓冲区全部写入socket后成功,连接关闭时以{@link ClosedChannelException}失败;
+     * 监听器在事件循环线程上执行,不要在监听器里阻塞
+     */
+    public EnhanceFuture<Void> write(ByteBuffer buffer) {
+        return write0(buffer, false);
+    }
+
+    public EnhanceFuture<Void> writeAndFlush(ByteBuffer buffer) {
+        return write0(buffer, true);
+    }
+
+    /**
+     * 把文件的一段放入出站队列,直到{@link #flush()}才会发送
+     *
+     * @param region 文件区域,所有权交给连接
+     * @return 整个区域发送完后成功
+     */
+    public EnhanceFuture<Void> write(FileRegion region) {
+        return write0(region, false);
+    }
+
+    public EnhanceFuture<Void> writeAndFlush(FileRegion region) {
+        return write0(region, true);
+    }
+
+    private EnhanceFuture<Void> write0(Object msg, boolean flush) {
+        DefaultEnhancePromise<Void> promise = new DefaultEnhancePromise<>(eventLoop);
+        if (eventLoop.inEventLoop()) {
+            enqueue(msg, promise, flush);
+        } else {
+            try {
+                eventLoop.execute(() -> enqueue(msg, promise, flush));
+            } catch (RejectedExecutionException e) {
+                //事件循环已经退出,连接已经关闭。缓冲区池不是线程安全的,退出后的清空任务可能正在其他线程上使用它,
+                //这里不归还,直接丢弃缓冲区交给GC;文件区域与池无关,照常关闭
+                if (msg instanceof FileRegion) {
+                    ((FileRegion) msg).release();
+                }
+                promise.tryFailure(CLOSED_CHANNEL_EXCEPTION);
+            }
+        }
+        return promise;
+    }
+
+    private void enqueue(Object msg, DefaultEnhancePromise<Void> promise, boolean flush) {
+        if (closed) {
+            release(msg);
+            promise.tryFailure(CLOSED_CHANNEL_EXCEPTION);
+            return;
+        }
+        outbound.addLast(msg);
+        promises.addLast(promise);
+        if (flush) {
+            flush();
+        }
+    }
+
+    /**
+     * 写出出站队列,写不完时注册OP_WRITE,等可写后继续
+     */
+    public void flush() {
+        if (!eventLoop.inEventLoop()) {
+            executeUnlessTerminated(this::flush);
+            return;
+        }
+        if (closed) {
+            return;
+        }
+        try {
+            flush0();
+        } catch (IOException e) {
+            fireException(e);
+        }
+    }
+
+    private void flush0() throws IOException {
+        while (!outbound.isEmpty()) {
+            boolean regionDone = false;
+            long written;
+            Object first = outbound.peekFirst();
+            if (first instanceof FileRegion) {
+                FileRegion region = (FileRegion) first;
+                written = region.transferTo(channel);
+                if (region.isDone()) {
+                    outbound.pollFirst();
+                    region.release();
+                    promises.pollFirst().trySuccess(null);
+                    regionDone = true;
+                }
+            } else {
+                written = writeBuffers();
+            }
+            if (written > 0 && idleMonitor != null) {
+                idleMonitor.onWrite(eventLoop.now());
+            }
+            if (written == 0 && !regionDone && !outbound.isEmpty()) {
+                //内核发送缓冲区满了,等待可写
+                setOpWrite(true);
+                return;
+            }
+        }
+        setOpWrite(false);
+    }
+
+    /**
+     * 用gathering write写出队首连续的缓冲区,遇到文件区域为止
+     */
+    private long writeBuffers() throws IOException {
+        int count = 0;
+        for (Object msg : outbound) {
+            if (!(msg instanceof ByteBuffer)) {
+                break;
+            }
+            gathering[count++] = (ByteBuffer) msg;
+            if (count == MAX_GATHERING_BUFFERS) {
+                break;
+            }
+        }
+        long written = channel.write(gathering, 0, count);
+        Arrays.fill(gathering, 0, count, null);
+        ByteBufferPool pool = eventLoop.bufferPool();
+        Object head;
+        while ((head = outbound.peekFirst()) instanceof ByteBuffer && !((ByteBuffer) head).hasRemaining()) {
+            outbound.pollFirst();
+            pool.release((ByteBuffer) head);
+            promises.pollFirst().trySuccess(null);
+        }
+        return written;
+    }
+
+    private void release(Object msg) {
+        if (msg instanceof FileRegion) {
+            ((FileRegion) msg).release();
+        } else {
+            eventLoop.bufferPool().release((ByteBuffer) msg);
+        }
+    }
 
-        } catch (Exception e) {
+    private void setOpWrite(boolean enable) {
+        int interestOps = key.interestOps();
+        if (enable && (interestOps & SelectionKey.OP_WRITE) == 0) {
+            key.interestOps(interestOps | SelectionKey.OP_WRITE);
+        } else if (!enable && (interestOps & SelectionKey.OP_WRITE) != 0) {
+            key.interestOps(interestOps & ~SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * 事件循环退出时已经关闭了所有连接,flush和close不需要再执行
+     */
+    private void executeUnlessTerminated(Runnable task) {
+        try {
+            eventLoop.execute(task);
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
 
+    /**
+     * 关闭连接,丢弃还没有写出的数据,它们的写结果以{@link ClosedChannelException}失败
+     */
+    public void close() {
+        if (!eventLoop.inEventLoop()) {
+            executeUnlessTerminated(this::close);
+            return;
+        }
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (idleMonitor != null) {
+            idleMonitor.stop();
+        }
+        key.cancel();
+        EventLoop.closeQuietly(channel);
+        Object msg;
+        while ((msg = outbound.pollFirst()) != null) {
+            release(msg);
+            promises.pollFirst().tryFailure(CLOSED_CHANNEL_EXCEPTION);
         }
+        handler.onClosed(this);
     }
 }
@@ -0,0 +1,59 @@
+package com.hanframework.kit.thread;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 积极扩容的任务队列,参考Tomcat的TaskQueue
+ * ThreadPoolExecutor只有在offer失败时才会创建超过corePoolSize的线程,这里在没有空闲线程且
+ * 线程数未达到maximumPoolSize时故意返回false,让线程池先扩容再排队。
+ * 只能配合{@link EagerThreadPoolExecutor}使用,由它统计已提交未完成的任务数。
+ *
+ * @author liuxin
+ * @version Id: EagerTaskQueue.java, v 0.1 2026-10-18 15:40
+ */
+public class EagerTaskQueue extends LinkedBlockingQueue<Runnable> {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient volatile EagerThreadPoolExecutor executor;
+
+    public EagerTaskQueue(int capacity) {
+        super(capacity);
+    }
+
+    void setExecutor(EagerThreadPoolExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean offer(Runnable runnable) {
+        EagerThreadPoolExecutor executor = this.executor;
+        if (executor == null) {
+            return super.offer(runnable);
+        }
+        int poolSize = executor.getPoolSize();
+        if (poolSize >= executor.getMaximumPoolSize()) {
+            return super.offer(runnable);
+        }
+        //已提交未完成的任务数不超过线程数,说明有线程空闲,排队即可
+        if (executor.getSubmittedCount() <= poolSize) {
+            return super.offer(runnable);
+        }
+        return false;
+    }
+
+    /**
+     * 线程池拒绝后再尝试入队一次,绕过扩容判断
+     *
+     * @param runnable 任务
+     * @return 是否入队成功
+     */
+    boolean force(Runnable runnable) {
+        EagerThreadPoolExecutor executor = this.executor;
+        if (executor != null && executor.isShutdown()) {
+            throw new RejectedExecutionException("Executor not running, can't force a command into the queue");
+        }
+        return super.offer(runnable);
+    }
+}
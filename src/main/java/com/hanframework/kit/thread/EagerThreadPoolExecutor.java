@@ -0,0 +1,83 @@
+package com.hanframework.kit.thread;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 配合{@link EagerTaskQueue}使用的线程池,统计已提交未完成的任务数
+ * 被拒绝时先强制入队一次,仍然放不下才交给用户的拒绝策略。
+ *
+ * @author liuxin
+ * @version Id: EagerThreadPoolExecutor.java, v 0.1 2026-10-18 15:40
+ */
+public class EagerThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final AtomicInteger submittedCount = new AtomicInteger();
+
+    public EagerThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                   EagerTaskQueue workQueue, ThreadFactory threadFactory,
+                                   RejectedExecutionHandler handler) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, new RetryPolicy(handler));
+        workQueue.setExecutor(this);
+    }
+
+    /**
+     * @return 已提交但还没有执行完的任务数(包括排队中的)
+     */
+    public int getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        submittedCount.incrementAndGet();
+        super.execute(command);
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        submittedCount.decrementAndGet();
+    }
+
+    @Override
+    public boolean remove(Runnable task) {
+        boolean removed = super.remove(task);
+        if (removed) {
+            submittedCount.decrementAndGet();
+        }
+        return removed;
+    }
+
+    /**
+     * 拒绝前强制入队一次,仍然失败时不再计数并交给用户的拒绝策略
+     */
+    private static final class RetryPolicy implements RejectedExecutionHandler {
+
+        private final RejectedExecutionHandler delegate;
+
+        RetryPolicy(RejectedExecutionHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            EagerThreadPoolExecutor eager = (EagerThreadPoolExecutor) executor;
+            try {
+                if (((EagerTaskQueue) eager.getQueue()).force(r)) {
+                    return;
+                }
+            } catch (RejectedExecutionException ignored) {
+                //线程池已关闭
+            }
+            eager.submittedCount.decrementAndGet();
+            delegate.rejectedExecution(r, executor);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.hanframework.kit.thread;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * ThreadLocal的一个变体,在{@link FastThreadLocalThread}上通过数组下标访问,没有ThreadLocalMap的哈希探测
+ * 每个实例在创建时分配一个全局下标,在其他线程上退化为通过一个普通ThreadLocal取得数组再按下标访问。
+ * <p>
+ * 使用{@link NamedThreadFactory#NamedThreadFactory(String, boolean, boolean)}创建的线程即为FastThreadLocalThread,
+ * 线程结束时所有的值会被自动清理;普通线程需要在合适的时机调用{@link #removeAll()}。
+ * 下标不会回收,应当作为static常量使用,不要为每个请求创建新的实例。
+ *
+ * @author liuxin
+ * @version Id: FastThreadLocal.java, v 0.1 2026-10-18 17:50
+ */
+public class FastThreadLocal<V> {
+
+    private final int index;
+
+    public FastThreadLocal() {
+        index = InternalThreadLocalMap.nextVariableIndex();
+    }
+
+    /**
+     * 清理当前线程上所有的FastThreadLocal,触发各自的{@link #onRemoval(Object)}
+     */
+    public static void removeAll() {
+        InternalThreadLocalMap threadLocalMap = InternalThreadLocalMap.getIfSet();
+        if (threadLocalMap == null) {
+            return;
+        }
+        try {
+            Object v = threadLocalMap.indexedVariable(InternalThreadLocalMap.VARIABLES_TO_REMOVE_INDEX);
+            if (v != InternalThreadLocalMap.UNSET) {
+                @SuppressWarnings("unchecked")
+                Set<FastThreadLocal<?>> variablesToRemove = (Set<FastThreadLocal<?>>) v;
+                FastThreadLocal<?>[] variables = variablesToRemove.toArray(new FastThreadLocal[0]);
+                for (FastThreadLocal<?> tlv : variables) {
+                    tlv.remove(threadLocalMap);
+                }
+            }
+        } finally {
+            InternalThreadLocalMap.remove();
+        }
+    }
+
+    public final V get() {
+        InternalThreadLocalMap threadLocalMap = InternalThreadLocalMap.get();
+        Object v = threadLocalMap.indexedVariable(index);
+        if (v != InternalThreadLocalMap.UNSET) {
+            @SuppressWarnings("unchecked")
+            V value = (V) v;
+            return value;
+        }
+        return initialize(threadLocalMap);
+    }
+
+    public final void set(V value) {
+        InternalThreadLocalMap threadLocalMap = InternalThreadLocalMap.get();
+        if (threadLocalMap.setIndexedVariable(index, value)) {
+            addToVariablesToRemove(threadLocalMap, this);
+        }
+    }
+
+    public final boolean isSet() {
+        InternalThreadLocalMap threadLocalMap = InternalThreadLocalMap.getIfSet();
+        return threadLocalMap != null && threadLocalMap.indexedVariable(index) != InternalThreadLocalMap.UNSET;
+    }
+
+    public final void remove() {
+        InternalThreadLocalMap threadLocalMap = InternalThreadLocalMap.getIfSet();
+        if (threadLocalMap != null) {
+            remove(threadLocalMap);
+        }
+    }
+
+    private void remove(InternalThreadLocalMap threadLocalMap) {
+        Object v = threadLocalMap.removeIndexedVariable(index);
+        if (v == InternalThreadLocalMap.UNSET) {
+            return;
+        }
+        removeFromVariablesToRemove(threadLocalMap, this);
+        @SuppressWarnings("unchecked")
+        V value = (V) v;
+        onRemoval(value);
+    }
+
+    private V initialize(InternalThreadLocalMap threadLocalMap) {
+        V v = initialValue();
+        threadLocalMap.setIndexedVariable(index, v);
+        addToVariablesToRemove(threadLocalMap, this);
+        return v;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addToVariablesToRemove(InternalThreadLocalMap threadLocalMap, FastThreadLocal<?> variable) {
+        Object v = threadLocalMap.indexedVariable(InternalThreadLocalMap.VARIABLES_TO_REMOVE_INDEX);
+        Set<FastThreadLocal<?>> variablesToRemove;
+        if (v == InternalThreadLocalMap.UNSET || v == null) {
+            variablesToRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+            threadLocalMap.setIndexedVariable(InternalThreadLocalMap.VARIABLES_TO_REMOVE_INDEX, variablesToRemove);
+        } else {
+            variablesToRemove = (Set<FastThreadLocal<?>>) v;
+        }
+        variablesToRemove.add(variable);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void removeFromVariablesToRemove(InternalThreadLocalMap threadLocalMap, FastThreadLocal<?> variable) {
+        Object v = threadLocalMap.indexedVariable(InternalThreadLocalMap.VARIABLES_TO_REMOVE_INDEX);
+        if (v != InternalThreadLocalMap.UNSET && v != null) {
+            ((Set<FastThreadLocal<?>>) v).remove(variable);
+        }
+    }
+
+    /**
+     * 第一次get时的初始值
+     *
+     * @return 默认null
+     */
+    protected V initialValue() {
+        return null;
+    }
+
+    /**
+     * 值被remove或线程结束清理时回调
+     *
+     * @param value 被移除的值
+     */
+    protected void onRemoval(V value) {
+    }
+}
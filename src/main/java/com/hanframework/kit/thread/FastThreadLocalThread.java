@@ -0,0 +1,53 @@
+package com.hanframework.kit.thread;
+
+/**
+ * 持有{@link InternalThreadLocalMap}的线程,{@link FastThreadLocal}在该线程上只需要一次数组下标访问
+ * 线程执行结束时自动调用{@link FastThreadLocal#removeAll()},释放槽位中的对象并触发onRemoval回调。
+ *
+ * @author liuxin
+ * @version Id: FastThreadLocalThread.java, v 0.1 2026-10-18 17:50
+ */
+public class FastThreadLocalThread extends Thread {
+
+    private InternalThreadLocalMap threadLocalMap;
+
+    public FastThreadLocalThread(Runnable target) {
+        super(wrap(target));
+    }
+
+    public FastThreadLocalThread(Runnable target, String name) {
+        super(wrap(target), name);
+    }
+
+    public FastThreadLocalThread(ThreadGroup group, Runnable target, String name) {
+        super(group, wrap(target), name);
+    }
+
+    public FastThreadLocalThread(ThreadGroup group, Runnable target, String name, long stackSize) {
+        super(group, wrap(target), name, stackSize);
+    }
+
+    private static Runnable wrap(Runnable target) {
+        if (target == null) {
+            return null;
+        }
+        return () -> {
+            try {
+                target.run();
+            } finally {
+                FastThreadLocal.removeAll();
+            }
+        };
+    }
+
+    /**
+     * 只能由当前线程访问,不需要同步
+     */
+    final InternalThreadLocalMap threadLocalMap() {
+        return threadLocalMap;
+    }
+
+    final void setThreadLocalMap(InternalThreadLocalMap threadLocalMap) {
+        this.threadLocalMap = threadLocalMap;
+    }
+}
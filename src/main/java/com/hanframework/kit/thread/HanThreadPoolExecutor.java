@@ -1,39 +1,92 @@
 package com.hanframework.kit.thread;
 
+import java.util.Objects;
 import java.util.concurrent.*;
 
 /**
+ * 线程池配置,通过{@link #builder()}创建
+ * <pre>
+ * ThreadPoolExecutor executor = HanThreadPoolExecutor.builder()
+ *     .threadFactory(new NamedThreadFactory("biz"))
+ *     .corePoolSize(4)
+ *     .maximumPoolSize(16)
+ *     .queueStrategy(QueueStrategy.EAGER, 1024)
+ *     .build()
+ *     .getExecutory();
+ * </pre>
+ * 未指定拒绝策略时使用{@link QueueStrategy}匹配的默认拒绝策略。
+ *
  * @author liuxin
  * @version Id: HanThreadPoolExecutor.java, v 0.1 2019-05-09 16:40
  */
 public class HanThreadPoolExecutor {
 
-  private ThreadFactory threadFactory;
-  private int corePoolSize;
-  private int maximumPoolSize;
-  private long keepAliveTime;
-  private RejectedExecutionHandler rejectedExecutionHandler = new ThreadPoolExecutor.AbortPolicy();
-
+  private final ThreadFactory threadFactory;
+  private final int corePoolSize;
+  private final int maximumPoolSize;
+  private final long keepAliveTime;
+  private final TimeUnit unit;
+  private final QueueStrategy queueStrategy;
+  private final int queueCapacity;
+  private final BlockingQueue<Runnable> workQueue;
+  private final boolean allowCoreThreadTimeOut;
+  private final RejectedExecutionHandler rejectedExecutionHandler;
 
+  /**
+   * @deprecated 使用{@link #builder()}
+   */
+  @Deprecated
   public HanThreadPoolExecutor(ThreadFactory threadFactory) {
     this(threadFactory, 4, 8);
   }
 
-
+  /**
+   * @deprecated 使用{@link #builder()}
+   */
+  @Deprecated
   public HanThreadPoolExecutor(ThreadFactory threadFactory, int corePoolSize, int maximumPoolSize) {
-    this.threadFactory = threadFactory;
-    this.corePoolSize = corePoolSize;
-    this.maximumPoolSize = maximumPoolSize;
+    this(threadFactory, corePoolSize, maximumPoolSize, 0, new ThreadPoolExecutor.AbortPolicy());
   }
 
+  /**
+   * @deprecated 使用{@link #builder()}
+   */
+  @Deprecated
   public HanThreadPoolExecutor(ThreadFactory threadFactory, int corePoolSize, int maximumPoolSize, long keepAliveTime, RejectedExecutionHandler rejectedExecutionHandler) {
     this.threadFactory = threadFactory;
     this.corePoolSize = corePoolSize;
     this.maximumPoolSize = maximumPoolSize;
     this.keepAliveTime = keepAliveTime;
+    this.unit = TimeUnit.SECONDS;
+    this.queueStrategy = QueueStrategy.UNBOUNDED;
+    this.queueCapacity = Integer.MAX_VALUE;
+    this.workQueue = null;
+    this.allowCoreThreadTimeOut = false;
     this.rejectedExecutionHandler = rejectedExecutionHandler;
   }
 
+  private HanThreadPoolExecutor(Builder builder) {
+    this.threadFactory = builder.threadFactory;
+    this.corePoolSize = builder.corePoolSize;
+    this.maximumPoolSize = builder.maximumPoolSize;
+    this.keepAliveTime = builder.keepAliveTime;
+    this.unit = builder.unit;
+    this.queueStrategy = builder.queueStrategy;
+    this.queueCapacity = builder.queueCapacity;
+    this.workQueue = builder.workQueue;
+    this.allowCoreThreadTimeOut = builder.allowCoreThreadTimeOut;
+    this.rejectedExecutionHandler = builder.rejectedExecutionHandler != null
+      ? builder.rejectedExecutionHandler : queueStrategy.defaultRejectedHandler();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public QueueStrategy getQueueStrategy() {
+    return queueStrategy;
+  }
+
   /**
    * corePoolSize    核心线程数
    * maximumPoolSize 线程池最大容量
@@ -60,11 +113,128 @@ public class HanThreadPoolExecutor {
    * 3.LinkedBlockingQueue阻塞队列大小的配置是可选的，如果我们初始化时指定一个大小，
    * 它就是有边界的，如果不指定，它就是无边界的。说是无边界，其实是采用了默认大小为Integer.MAX_VALUE的容量 。
    * 它的内部实现是一个链表。
+   * <p> 1
+   * 每次调用都会创建新的线程池和新的工作队列,通过{@link Builder#workQueue(BlockingQueue)}指定的队列除外。
    * @return ThreadPoolExecutor
    */
   public ThreadPoolExecutor getExecutory() {
-    return new ThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime,
-      TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>()
-      , threadFactory, rejectedExecutionHandler);
+    ThreadPoolExecutor executor;
+    if (workQueue != null) {
+      executor = new ThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime, unit,
+        workQueue, threadFactory, rejectedExecutionHandler);
+    } else if (queueStrategy == QueueStrategy.EAGER) {
+      executor = new EagerThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime, unit,
+        (EagerTaskQueue) queueStrategy.newQueue(queueCapacity), threadFactory, rejectedExecutionHandler);
+    } else {
+      executor = new ThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime, unit,
+        queueStrategy.newQueue(queueCapacity), threadFactory, rejectedExecutionHandler);
+    }
+    if (allowCoreThreadTimeOut) {
+      executor.allowCoreThreadTimeOut(true);
+    }
+    return executor;
+  }
+
+  public static final class Builder {
+
+    private ThreadFactory threadFactory;
+    private int corePoolSize = 4;
+    private int maximumPoolSize = 8;
+    private long keepAliveTime = 60;
+    private TimeUnit unit = TimeUnit.SECONDS;
+    private QueueStrategy queueStrategy = QueueStrategy.UNBOUNDED;
+    private int queueCapacity = Integer.MAX_VALUE;
+    private BlockingQueue<Runnable> workQueue;
+    private boolean allowCoreThreadTimeOut;
+    private RejectedExecutionHandler rejectedExecutionHandler;
+
+    private Builder() {
+    }
+
+    /**
+     * 默认{@link NamedThreadFactory}
+     */
+    public Builder threadFactory(ThreadFactory threadFactory) {
+      this.threadFactory = Objects.requireNonNull(threadFactory, "threadFactory");
+      return this;
+    }
+
+    /**
+     * 默认4
+     */
+    public Builder corePoolSize(int corePoolSize) {
+      this.corePoolSize = corePoolSize;
+      return this;
+    }
+
+    /**
+     * 默认8,UNBOUNDED策略下不生效
+     */
+    public Builder maximumPoolSize(int maximumPoolSize) {
+      this.maximumPoolSize = maximumPoolSize;
+      return this;
+    }
+
+    /**
+     * 超过核心线程数的线程空闲多久后回收,默认60秒
+     */
+    public Builder keepAliveTime(long keepAliveTime, TimeUnit unit) {
+      this.keepAliveTime = keepAliveTime;
+      this.unit = Objects.requireNonNull(unit, "unit");
+      return this;
+    }
+
+    public Builder allowCoreThreadTimeOut(boolean allowCoreThreadTimeOut) {
+      this.allowCoreThreadTimeOut = allowCoreThreadTimeOut;
+      return this;
+    }
+
+    /**
+     * 不需要容量的策略:UNBOUNDED、SYNCHRONOUS
+     */
+    public Builder queueStrategy(QueueStrategy queueStrategy) {
+      this.queueStrategy = Objects.requireNonNull(queueStrategy, "queueStrategy");
+      return this;
+    }
+
+    /**
+     * 有界策略:BOUNDED、EAGER
+     */
+    public Builder queueStrategy(QueueStrategy queueStrategy, int queueCapacity) {
+      this.queueStrategy = Objects.requireNonNull(queueStrategy, "queueStrategy");
+      this.queueCapacity = queueCapacity;
+      return this;
+    }
+
+    /**
+     * 使用自定义的工作队列,忽略队列策略(拒绝策略的默认值仍然取自队列策略)
+     * 队列实例会被getExecutory()创建的所有线程池共享,只应调用一次getExecutory()。
+     */
+    public Builder workQueue(BlockingQueue<Runnable> workQueue) {
+      this.workQueue = Objects.requireNonNull(workQueue, "workQueue");
+      return this;
+    }
+
+    /**
+     * 不指定时使用队列策略匹配的拒绝策略
+     */
+    public Builder rejectedExecutionHandler(RejectedExecutionHandler rejectedExecutionHandler) {
+      this.rejectedExecutionHandler = Objects.requireNonNull(rejectedExecutionHandler, "rejectedExecutionHandler");
+      return this;
+    }
+
+    public HanThreadPoolExecutor build() {
+      if (corePoolSize < 0 || maximumPoolSize <= 0 || maximumPoolSize < corePoolSize || keepAliveTime < 0) {
+        throw new IllegalArgumentException("corePoolSize: " + corePoolSize + ", maximumPoolSize: " + maximumPoolSize
+          + ", keepAliveTime: " + keepAliveTime);
+      }
+      if (workQueue == null && queueStrategy.isBounded() && (queueCapacity <= 0 || queueCapacity == Integer.MAX_VALUE)) {
+        throw new IllegalArgumentException(queueStrategy + " requires a queue capacity, got: " + queueCapacity);
+      }
+      if (threadFactory == null) {
+        threadFactory = new NamedThreadFactory();
+      }
+      return new HanThreadPoolExecutor(this);
+    }
   }
 }
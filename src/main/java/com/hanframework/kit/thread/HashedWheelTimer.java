@@ -0,0 +1,383 @@
+package com.hanframework.kit.thread;
+
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 哈希时间轮定时器,适合大量、精度要求不高的超时任务(如请求超时)
+ * 1. 新增任务无锁压入待处理栈,由时间轮线程在每个tick转移到对应的槽位,O(1)
+ * 2. 撤销任务只修改状态,O(1)且不分配对象,槽位被轮转到时再摘除
+ * 3. 只有一个工作线程,在第一次添加任务时启动
+ * <p>
+ * 精度取决于tickDuration,任务不会早于到期时间执行,但可能晚一个tick。
+ *
+ * @author liuxin
+ * @version Id: HashedWheelTimer.java, v 0.1 2026-10-18 11:02
+ */
+public class HashedWheelTimer {
+
+    private static final Logger logger = Logger.getLogger("HashedWheelTimer");
+
+    private static final int WORKER_STATE_INIT = 0;
+    private static final int WORKER_STATE_STARTED = 1;
+    private static final int WORKER_STATE_SHUTDOWN = 2;
+
+    private static final AtomicIntegerFieldUpdater<HashedWheelTimer> WORKER_STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(HashedWheelTimer.class, "workerState");
+
+    private static final AtomicReferenceFieldUpdater<HashedWheelTimer, HashedWheelTimeout> NEW_TIMEOUTS_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(HashedWheelTimer.class, HashedWheelTimeout.class, "newTimeouts");
+
+    private volatile int workerState;
+
+    private final Thread workerThread;
+
+    private final long tickDuration;
+
+    private final HashedWheelBucket[] wheel;
+
+    private final int mask;
+
+    private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+
+    private final AtomicLong pendingTimeouts = new AtomicLong();
+
+    /**
+     * 时间轮启动时间,所有任务的deadline都是相对这个时间的纳秒数
+     */
+    private volatile long startTime;
+
+    /**
+     * 新增的任务,以侵入式无锁栈的方式等待时间轮线程转移到槽位
+     */
+    private volatile HashedWheelTimeout newTimeouts;
+
+    public HashedWheelTimer(ThreadFactory threadFactory) {
+        this(threadFactory, 100, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * @param threadFactory 时间轮线程工厂
+     * @param tickDuration  每个tick的时长
+     * @param unit          时长单位
+     * @param ticksPerWheel 槽位数量,会向上取整为2的幂
+     */
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        Objects.requireNonNull(threadFactory, "threadFactory");
+        Objects.requireNonNull(unit, "unit");
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+            throw new IllegalArgumentException("ticksPerWheel must be in (0, 2^30]: " + ticksPerWheel);
+        }
+        int normalized = 1;
+        while (normalized < ticksPerWheel) {
+            normalized <<= 1;
+        }
+        this.wheel = new HashedWheelBucket[normalized];
+        for (int i = 0; i < normalized; i++) {
+            wheel[i] = new HashedWheelBucket();
+        }
+        this.mask = normalized - 1;
+        this.tickDuration = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        this.workerThread = threadFactory.newThread(new Worker());
+    }
+
+    /**
+     * 添加延迟任务
+     *
+     * @param task  任务
+     * @param delay 延迟时间
+     * @param unit  单位
+     * @return 超时句柄
+     */
+    public Timeout newTimeout(TimerTask task, long delay, TimeUnit unit) {
+        Objects.requireNonNull(task, "task");
+        Objects.requireNonNull(unit, "unit");
+        start();
+        long deadline = System.nanoTime() + unit.toNanos(delay) - startTime;
+        //溢出保护
+        if (delay > 0 && deadline < 0) {
+            deadline = Long.MAX_VALUE;
+        }
+        HashedWheelTimeout timeout = new HashedWheelTimeout(this, task, deadline);
+        pendingTimeouts.incrementAndGet();
+        for (; ; ) {
+            HashedWheelTimeout head = newTimeouts;
+            timeout.nextPending = head;
+            if (NEW_TIMEOUTS_UPDATER.compareAndSet(this, head, timeout)) {
+                break;
+            }
+        }
+        return timeout;
+    }
+
+    /**
+     * 还未执行也未撤销的任务数量
+     *
+     * @return long
+     */
+    public long pendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    private void start() {
+        switch (workerState) {
+            case WORKER_STATE_INIT:
+                if (WORKER_STATE_UPDATER.compareAndSet(this, WORKER_STATE_INIT, WORKER_STATE_STARTED)) {
+                    workerThread.start();
+                }
+                break;
+            case WORKER_STATE_STARTED:
+                break;
+            case WORKER_STATE_SHUTDOWN:
+                throw new IllegalStateException("cannot be started once stopped");
+            default:
+                throw new Error("Invalid WorkerState");
+        }
+        boolean interrupted = false;
+        while (startTime == 0) {
+            try {
+                startTimeInitialized.await();
+            } catch (InterruptedException ignore) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 停止时间轮,未执行的任务全部丢弃
+     */
+    public void stop() {
+        if (Thread.currentThread() == workerThread) {
+            throw new IllegalStateException(HashedWheelTimer.class.getSimpleName() + ".stop() cannot be called from timer task");
+        }
+        if (WORKER_STATE_UPDATER.getAndSet(this, WORKER_STATE_SHUTDOWN) != WORKER_STATE_STARTED) {
+            return;
+        }
+        boolean interrupted = false;
+        while (workerThread.isAlive()) {
+            workerThread.interrupt();
+            try {
+                workerThread.join(100);
+            } catch (InterruptedException ignored) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Worker implements Runnable {
+
+        private long tick;
+
+        @Override
+        public void run() {
+            long now = System.nanoTime();
+            //0用来标识未初始化
+            startTime = now == 0 ? 1 : now;
+            startTimeInitialized.countDown();
+            do {
+                final long deadline = waitForNextTick();
+                if (deadline > 0) {
+                    HashedWheelBucket bucket = wheel[(int) (tick & mask)];
+                    transferTimeoutsToBuckets();
+                    bucket.expireTimeouts(deadline);
+                    tick++;
+                }
+            } while (WORKER_STATE_UPDATER.get(HashedWheelTimer.this) == WORKER_STATE_STARTED);
+        }
+
+        private void transferTimeoutsToBuckets() {
+            HashedWheelTimeout timeout = NEW_TIMEOUTS_UPDATER.getAndSet(HashedWheelTimer.this, null);
+            while (timeout != null) {
+                HashedWheelTimeout next = timeout.nextPending;
+                timeout.nextPending = null;
+                if (timeout.state != HashedWheelTimeout.ST_CANCELLED) {
+                    long calculated = timeout.deadline / tickDuration;
+                    timeout.remainingRounds = (calculated - tick) / wheel.length;
+                    //已经过期的任务放入当前槽位,马上执行
+                    final long ticks = Math.max(calculated, tick);
+                    wheel[(int) (ticks & mask)].addTimeout(timeout);
+                }
+                timeout = next;
+            }
+        }
+
+        /**
+         * 睡眠到下一个tick
+         *
+         * @return 当前相对启动时间的纳秒数,被停止时返回负数
+         */
+        private long waitForNextTick() {
+            long deadline = tickDuration * (tick + 1);
+            for (; ; ) {
+                final long currentTime = System.nanoTime() - startTime;
+                long sleepTimeMs = (deadline - currentTime + 999999) / 1000000;
+                if (sleepTimeMs <= 0) {
+                    return currentTime == Long.MIN_VALUE ? -Long.MAX_VALUE : currentTime;
+                }
+                try {
+                    Thread.sleep(sleepTimeMs);
+                } catch (InterruptedException ignored) {
+                    if (WORKER_STATE_UPDATER.get(HashedWheelTimer.this) == WORKER_STATE_SHUTDOWN) {
+                        return Long.MIN_VALUE;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class HashedWheelTimeout implements Timeout {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<HashedWheelTimeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(HashedWheelTimeout.class, "state");
+
+        private final HashedWheelTimer timer;
+
+        private final long deadline;
+
+        /**
+         * 撤销后置空,尽早释放任务引用的对象
+         */
+        private TimerTask task;
+
+        private volatile int state;
+
+        /**
+         * 剩余圈数,只由时间轮线程读写
+         */
+        long remainingRounds;
+
+        HashedWheelTimeout nextPending;
+
+        HashedWheelTimeout next;
+
+        HashedWheelTimeout prev;
+
+        HashedWheelTimeout(HashedWheelTimer timer, TimerTask task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            timer.pendingTimeouts.decrementAndGet();
+            task = null;
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            timer.pendingTimeouts.decrementAndGet();
+            try {
+                task.run(this);
+            } catch (Throwable t) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.log(Level.WARNING, "An exception was thrown by " + TimerTask.class.getSimpleName() + '.', t);
+                }
+            }
+        }
+    }
+
+    /**
+     * 槽位,双向链表,只由时间轮线程访问
+     */
+    private static final class HashedWheelBucket {
+
+        private HashedWheelTimeout head;
+
+        private HashedWheelTimeout tail;
+
+        void addTimeout(HashedWheelTimeout timeout) {
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        /**
+         * 执行到期的任务,顺便摘除已撤销的任务
+         *
+         * @param deadline 当前时间
+         */
+        void expireTimeouts(long deadline) {
+            HashedWheelTimeout timeout = head;
+            while (timeout != null) {
+                HashedWheelTimeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.deadline <= deadline) {
+                        timeout.expire();
+                    } else {
+                        throw new IllegalStateException(String.format(
+                                "timeout.deadline (%d) > deadline (%d)", timeout.deadline, deadline));
+                    }
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(HashedWheelTimeout timeout) {
+            HashedWheelTimeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                if (timeout == tail) {
+                    tail = null;
+                    head = null;
+                } else {
+                    head = next;
+                }
+            } else if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
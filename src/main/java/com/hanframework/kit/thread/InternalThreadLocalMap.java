@@ -0,0 +1,117 @@
+package com.hanframework.kit.thread;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link FastThreadLocal}的存储,每个线程一个按下标访问的数组
+ * {@link FastThreadLocalThread}直接持有该对象;其他线程通过一个普通的ThreadLocal获取,相当于退化为标准实现。
+ * 下标0保留给当前线程已设置的FastThreadLocal集合,用于{@link FastThreadLocal#removeAll()}。
+ *
+ * @author liuxin
+ * @version Id: InternalThreadLocalMap.java, v 0.1 2026-10-18 17:50
+ */
+final class InternalThreadLocalMap {
+
+    static final Object UNSET = new Object();
+
+    static final int VARIABLES_TO_REMOVE_INDEX = 0;
+
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger(VARIABLES_TO_REMOVE_INDEX + 1);
+
+    private static final ThreadLocal<InternalThreadLocalMap> SLOW_THREAD_LOCAL_MAP = new ThreadLocal<>();
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private Object[] indexedVariables;
+
+    private InternalThreadLocalMap() {
+        indexedVariables = new Object[INITIAL_CAPACITY];
+        Arrays.fill(indexedVariables, UNSET);
+    }
+
+    static int nextVariableIndex() {
+        int index = NEXT_INDEX.getAndIncrement();
+        if (index < 0) {
+            NEXT_INDEX.decrementAndGet();
+            throw new IllegalStateException("too many thread-local indexed variables");
+        }
+        return index;
+    }
+
+    static InternalThreadLocalMap get() {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof FastThreadLocalThread) {
+            FastThreadLocalThread fastThread = (FastThreadLocalThread) thread;
+            InternalThreadLocalMap map = fastThread.threadLocalMap();
+            if (map == null) {
+                map = new InternalThreadLocalMap();
+                fastThread.setThreadLocalMap(map);
+            }
+            return map;
+        }
+        InternalThreadLocalMap map = SLOW_THREAD_LOCAL_MAP.get();
+        if (map == null) {
+            map = new InternalThreadLocalMap();
+            SLOW_THREAD_LOCAL_MAP.set(map);
+        }
+        return map;
+    }
+
+    static InternalThreadLocalMap getIfSet() {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof FastThreadLocalThread) {
+            return ((FastThreadLocalThread) thread).threadLocalMap();
+        }
+        return SLOW_THREAD_LOCAL_MAP.get();
+    }
+
+    static void remove() {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof FastThreadLocalThread) {
+            ((FastThreadLocalThread) thread).setThreadLocalMap(null);
+        } else {
+            SLOW_THREAD_LOCAL_MAP.remove();
+        }
+    }
+
+    Object indexedVariable(int index) {
+        Object[] lookup = indexedVariables;
+        return index < lookup.length ? lookup[index] : UNSET;
+    }
+
+    /**
+     * @return 是否是新设置的值
+     */
+    boolean setIndexedVariable(int index, Object value) {
+        Object[] lookup = indexedVariables;
+        if (index < lookup.length) {
+            Object oldValue = lookup[index];
+            lookup[index] = value;
+            return oldValue == UNSET;
+        }
+        expandIndexedVariables(index, value);
+        return true;
+    }
+
+    Object removeIndexedVariable(int index) {
+        Object[] lookup = indexedVariables;
+        if (index < lookup.length) {
+            Object v = lookup[index];
+            lookup[index] = UNSET;
+            return v;
+        }
+        return UNSET;
+    }
+
+    private void expandIndexedVariables(int index, Object value) {
+        Object[] oldArray = indexedVariables;
+        final int oldCapacity = oldArray.length;
+        //扩容到大于index的最小2的幂
+        int newCapacity = Integer.highestOneBit(index) << 1;
+        Object[] newArray = Arrays.copyOf(oldArray, newCapacity);
+        Arrays.fill(newArray, oldCapacity, newArray.length, UNSET);
+        newArray[index] = value;
+        indexedVariables = newArray;
+    }
+}
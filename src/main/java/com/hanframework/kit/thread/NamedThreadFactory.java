@@ -5,6 +5,12 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
+ * 带名字前缀的线程工厂
+ * fastThreadLocal为true时创建{@link FastThreadLocalThread},线程上的{@link FastThreadLocal}通过数组下标访问,
+ * 线程结束时自动清理。
+ * {@link ThreadRegistry}开启时,线程开始执行时以prefix为线程池名字登记,执行结束时注销,用于按线程池统计CPU时间和内存分配;
+ * 创建后从未启动的线程不会被登记。
+ *
  * @author liuxin
  * @version Id: NamedThreadFactory.java, v 0.1 2019-05-09 16:49
  */
@@ -16,10 +22,14 @@ public class NamedThreadFactory implements ThreadFactory {
 
   protected final String mPrefix;
 
+  protected final String mPoolName;
+
   protected final boolean mDaemon;
 
   protected final ThreadGroup mGroup;
 
+  protected final boolean mFastThreadLocal;
+
   public NamedThreadFactory() {
     this("pool-" + POOL_SEQ.getAndIncrement(), false);
   }
@@ -29,8 +39,14 @@ public class NamedThreadFactory implements ThreadFactory {
   }
 
   public NamedThreadFactory(String prefix, boolean daemon) {
+    this(prefix, daemon, false);
+  }
+
+  public NamedThreadFactory(String prefix, boolean daemon, boolean fastThreadLocal) {
+    mPoolName = prefix;
     mPrefix = prefix + "-thread-";
     mDaemon = daemon;
+    mFastThreadLocal = fastThreadLocal;
     SecurityManager s = System.getSecurityManager();
     mGroup = (s == null) ? Thread.currentThread().getThreadGroup() : s.getThreadGroup();
   }
@@ -38,11 +54,30 @@ public class NamedThreadFactory implements ThreadFactory {
   @Override
   public Thread newThread(Runnable runnable) {
     String name = mPrefix + mThreadNum.getAndIncrement();
-    Thread ret = new Thread(mGroup, runnable, name, 0);
+    Runnable task = () -> {
+      if (!ThreadRegistry.isEnabled()) {
+        runnable.run();
+        return;
+      }
+      Thread current = Thread.currentThread();
+      ThreadRegistry.register(mPoolName, current);
+      try {
+        runnable.run();
+      } finally {
+        ThreadRegistry.unregister(mPoolName, current);
+      }
+    };
+    Thread ret = mFastThreadLocal
+      ? new FastThreadLocalThread(mGroup, task, name, 0)
+      : new Thread(mGroup, task, name, 0);
     ret.setDaemon(mDaemon);
     return ret;
   }
 
+  public String getPoolName() {
+    return mPoolName;
+  }
+
   public ThreadGroup getThreadGroup() {
     return mGroup;
   }
@@ -0,0 +1,98 @@
+package com.hanframework.kit.thread;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 线程池工作队列策略,每种策略带有与之匹配的默认拒绝策略
+ *
+ * @author liuxin
+ * @version Id: QueueStrategy.java, v 0.1 2026-10-18 15:40
+ */
+public enum QueueStrategy {
+
+    /**
+     * 无界LinkedBlockingQueue,原有行为
+     * 线程数永远不会超过corePoolSize,maximumPoolSize不生效,过载时内存无限增长。
+     * 只有线程池关闭后才会拒绝,默认AbortPolicy。
+     */
+    UNBOUNDED {
+        @Override
+        BlockingQueue<Runnable> newQueue(int capacity) {
+            return new LinkedBlockingQueue<>();
+        }
+
+        @Override
+        RejectedExecutionHandler defaultRejectedHandler() {
+            return new ThreadPoolExecutor.AbortPolicy();
+        }
+    },
+
+    /**
+     * 有界ArrayBlockingQueue
+     * 核心线程满了先排队,队列满了再扩容到maximumPoolSize,仍然放不下时快速失败,
+     * 默认AbortPolicy,调用方立即感知过载。
+     */
+    BOUNDED {
+        @Override
+        BlockingQueue<Runnable> newQueue(int capacity) {
+            return new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        RejectedExecutionHandler defaultRejectedHandler() {
+            return new ThreadPoolExecutor.AbortPolicy();
+        }
+    },
+
+    /**
+     * SynchronousQueue直接移交,没有排队
+     * 没有空闲线程时立即创建新线程直到maximumPoolSize,之后默认CallerRunsPolicy由提交线程自己执行,
+     * 形成天然的背压。
+     */
+    SYNCHRONOUS {
+        @Override
+        BlockingQueue<Runnable> newQueue(int capacity) {
+            return new SynchronousQueue<>();
+        }
+
+        @Override
+        RejectedExecutionHandler defaultRejectedHandler() {
+            return new ThreadPoolExecutor.CallerRunsPolicy();
+        }
+    },
+
+    /**
+     * Tomcat风格的积极扩容队列{@link EagerTaskQueue}
+     * 没有空闲线程时先扩容到maximumPoolSize,线程全部忙碌后才进入有界队列排队。
+     * 线程池拒绝时会再尝试入队一次(期间可能有线程空闲下来),仍然放不下时才交给AbortPolicy。
+     */
+    EAGER {
+        @Override
+        BlockingQueue<Runnable> newQueue(int capacity) {
+            return new EagerTaskQueue(capacity);
+        }
+
+        @Override
+        RejectedExecutionHandler defaultRejectedHandler() {
+            return new ThreadPoolExecutor.AbortPolicy();
+        }
+    };
+
+    /**
+     * 是否需要指定队列容量
+     *
+     * @return BOUNDED、EAGER返回true
+     */
+    public boolean isBounded() {
+        return this == BOUNDED || this == EAGER;
+    }
+
+    abstract BlockingQueue<Runnable> newQueue(int capacity);
+
+    abstract RejectedExecutionHandler defaultRejectedHandler();
+}
@@ -0,0 +1,246 @@
+package com.hanframework.kit.thread;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 停机协调器,按阶段有序、阶段内并行地执行停机钩子
+ * 1. 阶段有名字和依赖,依赖的阶段全部结束后才开始;依赖必须先注册,因此不会出现环
+ * 2. 每个阶段在自己的依赖全部结束时立即开始,不等待其他无关阶段;阶段内的钩子各自在一个守护线程上并行执行
+ * 3. 每个阶段有总的截止时间,从该阶段自己开始时计算,到期仍未结束的钩子被中断并记为超时,不再阻塞后续阶段
+ * 4. 结束后返回{@link ShutdownReport},记录每个钩子的耗时和结果,并输出到日志
+ * <pre>
+ * ShutdownCoordinator coordinator = ThreadHookTools.coordinator();
+ * coordinator.addPhase("reactor", 5, TimeUnit.SECONDS);
+ * coordinator.addPhase("executor", 10, TimeUnit.SECONDS, "reactor");
+ * coordinator.addPhase("writer", 5, TimeUnit.SECONDS, "executor");
+ * coordinator.addHook("executor", "order-pool", () -&gt; pool.shutdown());
+ * </pre>
+ *
+ * @author liuxin
+ * @version Id: ShutdownCoordinator.java, v 0.1 2026-10-18 18:50
+ */
+public class ShutdownCoordinator {
+
+    private static final Logger logger = Logger.getLogger("ShutdownCoordinator");
+
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+
+    private ShutdownReport report;
+
+    /**
+     * 注册阶段
+     *
+     * @param name      阶段名
+     * @param timeout   阶段内所有钩子的总截止时间
+     * @param unit      单位
+     * @param dependsOn 依赖的阶段,必须已经注册
+     * @return this
+     */
+    public synchronized ShutdownCoordinator addPhase(String name, long timeout, TimeUnit unit, String... dependsOn) {
+        Objects.requireNonNull(name, "name");
+        checkNotStarted();
+        if (phases.containsKey(name)) {
+            throw new IllegalArgumentException("phase already exists: " + name);
+        }
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout: " + timeout + " (expected: > 0)");
+        }
+        for (String dependency : dependsOn) {
+            if (!phases.containsKey(dependency)) {
+                throw new IllegalArgumentException("unknown dependency: " + dependency + " of phase: " + name);
+            }
+        }
+        phases.put(name, new Phase(name, unit.toNanos(timeout), Arrays.asList(dependsOn)));
+        return this;
+    }
+
+    /**
+     * 注册钩子
+     *
+     * @param phase 阶段名
+     * @param name  钩子名,用于报告
+     * @param hook  钩子
+     * @return this
+     */
+    public synchronized ShutdownCoordinator addHook(String phase, String name, Runnable hook) {
+        checkNotStarted();
+        Phase p = phases.get(phase);
+        if (p == null) {
+            throw new IllegalArgumentException("unknown phase: " + phase);
+        }
+        p.hooks.add(new Hook(Objects.requireNonNull(name, "name"), Objects.requireNonNull(hook, "hook")));
+        return this;
+    }
+
+    private void checkNotStarted() {
+        if (report != null) {
+            throw new IllegalStateException("shutdown already started");
+        }
+    }
+
+    /**
+     * 执行所有阶段,只会执行一次,之后的调用直接返回第一次的报告
+     *
+     * @return 报告
+     */
+    public synchronized ShutdownReport shutdown() {
+        if (report != null) {
+            return report;
+        }
+        long start = System.nanoTime();
+        List<ShutdownReport.HookResult> results = new ArrayList<>();
+        Set<String> finished = new HashSet<>();
+        List<Phase> pending = new ArrayList<>(phases.values());
+        List<Phase> running = new ArrayList<>();
+        Semaphore signal = new Semaphore(0);
+        boolean interrupted = false;
+        while (!pending.isEmpty() || !running.isEmpty()) {
+            for (Iterator<Phase> it = pending.iterator(); it.hasNext(); ) {
+                Phase phase = it.next();
+                if (finished.containsAll(phase.dependsOn)) {
+                    it.remove();
+                    phase.start(signal);
+                    running.add(phase);
+                }
+            }
+            boolean progressed = false;
+            long waitNanos = Long.MAX_VALUE;
+            long now = System.nanoTime();
+            for (Iterator<Phase> it = running.iterator(); it.hasNext(); ) {
+                Phase phase = it.next();
+                long remaining = phase.timeoutNanos - (now - phase.startNanos);
+                if (phase.isDone() || remaining <= 0 || interrupted) {
+                    it.remove();
+                    results.addAll(phase.finish());
+                    finished.add(phase.name);
+                    progressed = true;
+                } else {
+                    waitNanos = Math.min(waitNanos, remaining);
+                }
+            }
+            if (!progressed && !running.isEmpty()) {
+                try {
+                    //任一钩子结束或最近的截止时间到期时醒来
+                    signal.tryAcquire(waitNanos, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        report = new ShutdownReport(Collections.unmodifiableList(results), System.nanoTime() - start);
+        if (logger.isLoggable(Level.INFO)) {
+            logger.info(report.toString());
+        }
+        return report;
+    }
+
+    private static final class Hook {
+
+        final String name;
+
+        final Runnable task;
+
+        volatile long startNanos;
+
+        volatile long endNanos;
+
+        volatile Throwable cause;
+
+        Thread thread;
+
+        Hook(String name, Runnable task) {
+            this.name = name;
+            this.task = task;
+        }
+    }
+
+    private static final class Phase {
+
+        final String name;
+
+        final long timeoutNanos;
+
+        final List<String> dependsOn;
+
+        final List<Hook> hooks = new ArrayList<>();
+
+        CountDownLatch done;
+
+        long startNanos;
+
+        Phase(String name, long timeoutNanos, List<String> dependsOn) {
+            this.name = name;
+            this.timeoutNanos = timeoutNanos;
+            this.dependsOn = dependsOn;
+        }
+
+        void start(Semaphore signal) {
+            startNanos = System.nanoTime();
+            done = new CountDownLatch(hooks.size());
+            ThreadFactory threadFactory = new NamedThreadFactory("shutdown-" + name, true);
+            for (Hook hook : hooks) {
+                hook.thread = threadFactory.newThread(() -> {
+                    hook.startNanos = System.nanoTime();
+                    try {
+                        hook.task.run();
+                    } catch (Throwable t) {
+                        hook.cause = t;
+                    } finally {
+                        hook.endNanos = System.nanoTime();
+                        done.countDown();
+                        signal.release();
+                    }
+                });
+                hook.thread.start();
+            }
+        }
+
+        boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        /**
+         * 收集结果,仍未结束的钩子被中断并记为超时
+         */
+        List<ShutdownReport.HookResult> finish() {
+            List<ShutdownReport.HookResult> results = new ArrayList<>(hooks.size());
+            long now = System.nanoTime();
+            for (Hook hook : hooks) {
+                long end = hook.endNanos;
+                if (end == 0) {
+                    hook.thread.interrupt();
+                    long startNanos = hook.startNanos;
+                    results.add(new ShutdownReport.HookResult(name, hook.name, ShutdownReport.Status.TIMED_OUT,
+                            startNanos == 0 ? 0 : now - startNanos, null));
+                } else {
+                    Throwable cause = hook.cause;
+                    if (cause != null && logger.isLoggable(Level.WARNING)) {
+                        logger.log(Level.WARNING, "Shutdown hook failed: " + name + "/" + hook.name, cause);
+                    }
+                    results.add(new ShutdownReport.HookResult(name, hook.name,
+                            cause == null ? ShutdownReport.Status.SUCCESS : ShutdownReport.Status.FAILED,
+                            end - hook.startNanos, cause));
+                }
+            }
+            return results;
+        }
+    }
+}
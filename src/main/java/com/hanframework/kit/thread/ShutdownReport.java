@@ -0,0 +1,111 @@
+package com.hanframework.kit.thread;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ShutdownCoordinator}的执行结果
+ *
+ * @author liuxin
+ * @version Id: ShutdownReport.java, v 0.1 2026-10-18 18:50
+ */
+public final class ShutdownReport {
+
+    public enum Status {
+        SUCCESS, FAILED, TIMED_OUT
+    }
+
+    private final List<HookResult> hooks;
+
+    private final long durationNanos;
+
+    ShutdownReport(List<HookResult> hooks, long durationNanos) {
+        this.hooks = hooks;
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * @return 按阶段执行顺序排列的钩子结果
+     */
+    public List<HookResult> getHooks() {
+        return hooks;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return 是否所有的钩子都成功
+     */
+    public boolean isSuccess() {
+        for (HookResult hook : hooks) {
+            if (hook.getStatus() != Status.SUCCESS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("shutdown finished in ")
+                .append(TimeUnit.NANOSECONDS.toMillis(durationNanos)).append("ms");
+        for (HookResult hook : hooks) {
+            sb.append("\n  ").append(hook);
+        }
+        return sb.toString();
+    }
+
+    public static final class HookResult {
+
+        private final String phase;
+
+        private final String name;
+
+        private final Status status;
+
+        private final long durationNanos;
+
+        private final Throwable cause;
+
+        HookResult(String phase, String name, Status status, long durationNanos, Throwable cause) {
+            this.phase = phase;
+            this.name = name;
+            this.status = status;
+            this.durationNanos = durationNanos;
+            this.cause = cause;
+        }
+
+        public String getPhase() {
+            return phase;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return 执行耗时,超时的钩子为截止时已执行的时间
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * @return 钩子抛出的异常,没有时为null
+         */
+        public Throwable getCause() {
+            return cause;
+        }
+
+        @Override
+        public String toString() {
+            return phase + "/" + name + " " + status + " " + TimeUnit.NANOSECONDS.toMillis(durationNanos) + "ms";
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.hanframework.kit.thread;
+
+/**
+ * 任务优先级,按声明顺序从高到低
+ *
+ * @author liuxin
+ * @version Id: TaskPriority.java, v 0.1 2026-10-18 15:10
+ */
+public enum TaskPriority {
+
+    /**
+     * 交互式请求,调用方在等待结果
+     */
+    HIGH,
+
+    /**
+     * 默认优先级
+     */
+    NORMAL,
+
+    /**
+     * 批处理等可以延后的任务
+     */
+    LOW
+}
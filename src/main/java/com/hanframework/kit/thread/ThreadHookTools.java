@@ -6,7 +6,41 @@ package com.hanframework.kit.thread;
  */
 public final class ThreadHookTools {
 
+    /**
+     * 直接注册JVM停机钩子,多个钩子之间没有顺序
+     * 需要有序停机时使用{@link #coordinator()}
+     *
+     * @param hook 钩子
+     */
     public static void addHook(Thread hook) {
         Runtime.getRuntime().addShutdownHook(hook);
     }
+
+    /**
+     * 全局的停机协调器,第一次调用时作为一个JVM停机钩子注册
+     *
+     * @return 停机协调器
+     */
+    public static ShutdownCoordinator coordinator() {
+        return CoordinatorHolder.COORDINATOR;
+    }
+
+    /**
+     * 向全局停机协调器的某个阶段注册钩子
+     *
+     * @param phase 阶段名,需要先通过{@link ShutdownCoordinator#addPhase}注册
+     * @param name  钩子名
+     * @param hook  钩子
+     */
+    public static void addHook(String phase, String name, Runnable hook) {
+        coordinator().addHook(phase, name, hook);
+    }
+
+    private static final class CoordinatorHolder {
+        static final ShutdownCoordinator COORDINATOR = new ShutdownCoordinator();
+
+        static {
+            addHook(new Thread(COORDINATOR::shutdown, "shutdown-coordinator"));
+        }
+    }
 }
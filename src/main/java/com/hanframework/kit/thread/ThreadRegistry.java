@@ -0,0 +1,75 @@
+package com.hanframework.kit.thread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link NamedThreadFactory}创建的线程按线程池名字登记在这里,供采样器统计每个线程池的资源消耗
+ * 默认关闭,通过{@link #enable()}(创建ThreadResourceSampler时自动调用)或系统属性
+ * {@code hanframework.thread.registry=true}开启。开启后线程在开始执行时登记、执行结束时注销,
+ * 只持有正在运行的线程;创建后从未启动的线程不会登记。开启之前已经在运行的线程不会被统计。
+ *
+ * @author liuxin
+ * @version Id: ThreadRegistry.java, v 0.1 2026-10-18 18:20
+ */
+public final class ThreadRegistry {
+
+    private static final ConcurrentHashMap<String, Set<Thread>> THREADS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = Boolean.getBoolean("hanframework.thread.registry");
+
+    private ThreadRegistry() {
+    }
+
+    /**
+     * 开启登记,之后开始执行的线程才会登记
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 在compute内加入,与{@link #unregister}移除空集合互斥,不会加入一个已经被移除的集合
+     */
+    public static void register(String pool, Thread thread) {
+        THREADS.compute(pool, (k, threads) -> {
+            if (threads == null) {
+                threads = ConcurrentHashMap.newKeySet();
+            }
+            threads.add(thread);
+            return threads;
+        });
+    }
+
+    public static void unregister(String pool, Thread thread) {
+        THREADS.computeIfPresent(pool, (k, threads) -> {
+            threads.remove(thread);
+            return threads.isEmpty() ? null : threads;
+        });
+    }
+
+    /**
+     * @return 线程池名字到当前登记的线程,按名字排序
+     */
+    public static Map<String, List<Thread>> threadsByPool() {
+        List<String> pools = new ArrayList<>(THREADS.keySet());
+        Collections.sort(pools);
+        Map<String, List<Thread>> result = new LinkedHashMap<>();
+        for (String pool : pools) {
+            Set<Thread> threads = THREADS.get(pool);
+            if (threads != null) {
+                result.put(pool, new ArrayList<>(threads));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package com.hanframework.kit.thread;
+
+/**
+ * {@link HashedWheelTimer#newTimeout(TimerTask, long, java.util.concurrent.TimeUnit)}返回的句柄
+ *
+ * @author liuxin
+ * @version Id: Timeout.java, v 0.1 2026-10-18 11:02
+ */
+public interface Timeout {
+
+    /**
+     * 是否已到期执行
+     *
+     * @return boolean
+     */
+    boolean isExpired();
+
+    /**
+     * 是否已撤销
+     *
+     * @return boolean
+     */
+    boolean isCancelled();
+
+    /**
+     * 撤销任务,O(1)且不分配对象,已撤销的任务在下一次轮转到所在槽位时被摘除
+     *
+     * @return 是否撤销成功,已到期或已撤销返回false
+     */
+    boolean cancel();
+}
@@ -0,0 +1,19 @@
+package com.hanframework.kit.thread;
+
+/**
+ * 延迟执行的任务
+ *
+ * @author liuxin
+ * @version Id: TimerTask.java, v 0.1 2026-10-18 11:02
+ * @see HashedWheelTimer
+ */
+public interface TimerTask {
+
+    /**
+     * 到期执行
+     *
+     * @param timeout 当前任务对应的超时句柄
+     * @throws Exception 未知异常
+     */
+    void run(Timeout timeout) throws Exception;
+}
@@ -0,0 +1,114 @@
+package com.hanframework.kit.thread;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程(JDK 21+)支持
+ * 为了让同一个jar仍然可以运行在Java 8上,这里通过反射调用{@code Thread.ofVirtual()}和
+ * {@code Executors.newThreadPerTaskExecutor(ThreadFactory)},运行时JDK不支持时{@link #isSupported()}返回false。
+ *
+ * @author liuxin
+ * @version Id: VirtualThreads.java, v 0.1 2026-10-18 14:10
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+
+    private static final Method BUILDER_NAME;
+
+    private static final Method BUILDER_FACTORY;
+
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    private static final Throwable UNAVAILABILITY_CAUSE;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newThreadPerTaskExecutor = null;
+        Throwable cause = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builderClass.getMethod("name", String.class, long.class);
+            factory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            //JDK 19/20中虚拟线程为预览特性,未开启时调用会抛出UnsupportedOperationException
+            ofVirtual.invoke(null);
+        } catch (Throwable t) {
+            cause = t instanceof InvocationTargetException ? t.getCause() : t;
+        }
+        if (cause == null) {
+            OF_VIRTUAL = ofVirtual;
+            BUILDER_NAME = name;
+            BUILDER_FACTORY = factory;
+            NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+        } else {
+            OF_VIRTUAL = null;
+            BUILDER_NAME = null;
+            BUILDER_FACTORY = null;
+            NEW_THREAD_PER_TASK_EXECUTOR = null;
+        }
+        UNAVAILABILITY_CAUSE = cause;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前JDK是否支持虚拟线程
+     *
+     * @return boolean
+     */
+    public static boolean isSupported() {
+        return UNAVAILABILITY_CAUSE == null;
+    }
+
+    /**
+     * 创建虚拟线程工厂,线程名为prefix + 序号
+     *
+     * @param prefix 线程名前缀
+     * @return 线程工厂
+     * @throws UnsupportedOperationException 当前JDK不支持虚拟线程
+     */
+    public static ThreadFactory newThreadFactory(String prefix) {
+        Objects.requireNonNull(prefix, "prefix");
+        ensureSupported();
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, prefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Failed to create virtual thread factory", e);
+        }
+    }
+
+    /**
+     * 每个任务一个虚拟线程的执行器
+     *
+     * @param prefix 线程名前缀
+     * @return 执行器
+     * @throws UnsupportedOperationException 当前JDK不支持虚拟线程
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        ThreadFactory factory = newThreadFactory(prefix);
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    private static void ensureSupported() {
+        if (UNAVAILABILITY_CAUSE != null) {
+            throw new UnsupportedOperationException("Virtual threads require JDK 21+, current: "
+                    + System.getProperty("java.version"), UNAVAILABILITY_CAUSE);
+        }
+    }
+}
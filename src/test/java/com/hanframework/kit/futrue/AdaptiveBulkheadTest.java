@@ -0,0 +1,89 @@
+package com.hanframework.kit.futrue;
+
+import com.hanframework.kit.thread.HanThreadPoolExecutor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @author liuxin
+ * 2026-10-18 17:20
+ */
+public class AdaptiveBulkheadTest {
+
+    @Test
+    public void rejectOverLimit() throws Exception {
+        EnhanceExecutorService service = EnhanceExecutorService.ofWrapper(HanThreadPoolExecutor.builder()
+                .corePoolSize(4)
+                .maximumPoolSize(4)
+                .build()
+                .getExecutory());
+        AdaptiveBulkhead bulkhead = new AdaptiveBulkhead("bulkhead-test", service,
+                new AimdLimit(2, 1, 10, 0.5, 1, TimeUnit.MINUTES));
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            EnhanceFuture<?> first = bulkhead.submit(() -> await(release));
+            EnhanceFuture<?> second = bulkhead.submit(() -> await(release));
+            EnhanceFuture<?> rejected = bulkhead.submit(() -> {
+            });
+            Assert.assertTrue(rejected.isDone());
+            Assert.assertTrue(rejected.cause() instanceof RejectedExecutionException);
+            Assert.assertEquals(2, bulkhead.getInflight());
+            Assert.assertEquals(1, bulkhead.getRejectedCount());
+
+            release.countDown();
+            Assert.assertTrue(EnhanceFutureTools.allOf(first, second).await(5, TimeUnit.SECONDS));
+            awaitIdle(bulkhead);
+            //在途任务数达到上限一半,成功后加性增加;两个任务完成的先后顺序决定加1还是加2
+            int grown = bulkhead.getLimit();
+            Assert.assertTrue(grown == 3 || grown == 4);
+            Assert.assertEquals(0, bulkhead.getInflight());
+
+            EnhanceFuture<String> timeout = bulkhead.submit(() -> {
+                throw new TimeoutException("downstream");
+            });
+            Assert.assertTrue(timeout.await(5, TimeUnit.SECONDS));
+            awaitIdle(bulkhead);
+            Assert.assertEquals(Math.max(1, grown / 2), bulkhead.getLimit());
+            Assert.assertEquals(3, bulkhead.getAcceptedCount());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void vegasBacksOffWhenRunTimeGrows() {
+        VegasLimit limit = new VegasLimit(20, 1, 100);
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 20, false);
+        Assert.assertEquals(21, limit.getLimit());
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(30), 21, false);
+        Assert.assertEquals(20, limit.getLimit());
+        //空闲时不增加
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 1, false);
+        Assert.assertEquals(20, limit.getLimit());
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 20, true);
+        Assert.assertEquals(10, limit.getLimit());
+    }
+
+    /**
+     * 等待者先于监听器被唤醒,名额在监听器中释放
+     */
+    private static void awaitIdle(AdaptiveBulkhead bulkhead) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bulkhead.getInflight() != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.hanframework.kit.futrue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * @author liuxin
+ * 2026-10-18 11:58
+ */
+public class CompletableFutureAdapterTest {
+
+    @Test
+    public void enhanceToCompletable() {
+        DefaultEnhancePromise<String> promise = new DefaultEnhancePromise<>();
+        CompletableFuture<String> cf = CompletableFutureAdapter.toCompletableFuture(promise);
+        Assert.assertFalse(cf.isDone());
+        promise.setSuccess("ok");
+        Assert.assertEquals("ok", cf.getNow(null));
+
+        DefaultEnhancePromise<String> cancelled = new DefaultEnhancePromise<>();
+        CompletableFutureAdapter.toCompletableFuture(cancelled).cancel(true);
+        Assert.assertTrue(cancelled.isCancelled());
+    }
+
+    @Test
+    public void completableToEnhance() {
+        CompletableFuture<String> cf = new CompletableFuture<>();
+        EnhanceFuture<String> future = CompletableFutureAdapter.fromCompletionStage(cf);
+        cf.completeExceptionally(new IllegalStateException("boom"));
+        Assert.assertTrue(future.cause() instanceof IllegalStateException);
+
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFutureAdapter.fromCompletionStage(source).cancel(true);
+        Assert.assertTrue(source.isCancelled());
+    }
+
+    @Test
+    public void promiseAsCompletionStage() {
+        CompletableEnhancePromise<Integer> promise = new CompletableEnhancePromise<>();
+        CompletionStage<Integer> stage = promise;
+        CompletableFuture<Integer> composed = stage
+                .thenCompose(v -> CompletableFuture.completedFuture(v + 1))
+                .thenCombine(CompletableFuture.completedFuture(10), Integer::sum)
+                .toCompletableFuture();
+        EnhanceFuture<String> applied = promise.thenApply(String::valueOf);
+        //两个版本的thenCompose都保留泛型,返回CompletableEnhancePromise
+        CompletableEnhancePromise<String> fromStage = promise.thenCompose(v -> CompletableFuture.completedFuture("s" + v));
+        CompletableEnhancePromise<String> fromFuture = promise.thenComposeFuture(v -> promise.thenApply(u -> "f" + u));
+        promise.setSuccess(1);
+        Assert.assertEquals("s1", fromStage.getNow());
+        Assert.assertEquals("f1", fromFuture.getNow());
+        Assert.assertEquals(Integer.valueOf(12), composed.join());
+        Assert.assertEquals("1", applied.getNow());
+        Assert.assertTrue(applied instanceof CompletionStage);
+    }
+
+    @Test
+    public void toCompletableFutureCannotCompleteThePromise() {
+        CompletableEnhancePromise<Integer> promise = new CompletableEnhancePromise<>();
+        CompletableFuture<Integer> later = promise.thenApplyAsync(v -> v + 1, Runnable::run).toCompletableFuture();
+        CompletableFuture<Integer> external = promise.toCompletableFuture();
+        external.complete(100);
+        external.obtrudeValue(200);
+        Assert.assertFalse(promise.isDone());
+        Assert.assertFalse(later.isDone());
+        promise.setSuccess(1);
+        Assert.assertEquals(Integer.valueOf(2), later.join());
+        Assert.assertEquals(Integer.valueOf(1), promise.toCompletableFuture().join());
+    }
+}
@@ -0,0 +1,256 @@
+package com.hanframework.kit.futrue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author liuxin
+ * 2026-10-18 10:12
+ */
+public class DefaultEnhancePromiseTest {
+
+    @Test
+    public void awaitWakesAllWaiters() throws Exception {
+        DefaultEnhancePromise<String> promise = new DefaultEnhancePromise<>();
+        int waiters = 200;
+        CountDownLatch started = new CountDownLatch(waiters);
+        CountDownLatch finished = new CountDownLatch(waiters);
+        AtomicInteger success = new AtomicInteger();
+        for (int i = 0; i < waiters; i++) {
+            Thread t = new Thread(() -> {
+                started.countDown();
+                try {
+                    if ("ok".equals(promise.await().getNow())) {
+                        success.incrementAndGet();
+                    }
+                } catch (InterruptedException ignored) {
+                } finally {
+                    finished.countDown();
+                }
+            });
+            t.setDaemon(true);
+            t.start();
+        }
+        started.await();
+        promise.setSuccess("ok");
+        Assert.assertTrue(finished.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(waiters, success.get());
+    }
+
+    @Test
+    public void timedAwait() throws Exception {
+        DefaultEnhancePromise<String> promise = new DefaultEnhancePromise<>();
+        Assert.assertFalse(promise.await(20, TimeUnit.MILLISECONDS));
+        promise.setSuccess(null);
+        Assert.assertTrue(promise.await(20, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(promise.isSuccess());
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void awaitInterrupted() throws Exception {
+        DefaultEnhancePromise<String> promise = new DefaultEnhancePromise<>();
+        Thread.currentThread().interrupt();
+        promise.await();
+    }
+
+    @Test
+    public void listenersAreAppendedInOrder() {
+        DefaultEnhancePromise<String> promise = new DefaultEnhancePromise<>();
+        List<String> calls = new ArrayList<>();
+        promise.addSuccessListener(v -> calls.add("a" + v));
+        promise.addSuccessListener(v -> calls.add("b" + v));
+        DefaultEnhanceFutureListeners group = new DefaultEnhanceFutureListeners();
+        group.add(new EnhanceFutureListener<EnhanceFuture<String>>() {
+            @Override
+            public void onSuccess(EnhanceFuture<String> future) {
+                calls.add("c" + future.getNow());
+            }
+
+            @Override
+            public void onThrowable(Throwable throwable) {
+            }
+        });
+        promise.addListener(group);
+        promise.setSuccess("1");
+        promise.addSuccessListener(v -> calls.add("d" + v));
+        Assert.assertEquals(Arrays.asList("a1", "b1", "c1", "d1"), calls);
+    }
+
+    @Test
+    public void listenersRemoveByEqualsAndReturnCopy() {
+        DefaultEnhanceFutureListeners group = new DefaultEnhanceFutureListeners();
+        group.add(new NamedListener("a"));
+        group.add(new NamedListener("b"));
+        group.remove(new NamedListener("a"));
+        Assert.assertEquals(1, group.size());
+        EnhanceFutureListener<? extends EnhanceFuture<?>>[] snapshot = group.listeners();
+        Assert.assertEquals(1, snapshot.length);
+        snapshot[0] = null;
+        Assert.assertEquals(new NamedListener("b"), group.listeners()[0]);
+    }
+
+    private static final class NamedListener implements EnhanceFutureListener<EnhanceFuture<String>> {
+
+        private final String name;
+
+        NamedListener(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void onSuccess(EnhanceFuture<String> future) {
+        }
+
+        @Override
+        public void onThrowable(Throwable throwable) {
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof NamedListener && ((NamedListener) o).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+    }
+
+    @Test
+    public void executorListenerRunsOnExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "listener-executor"));
+        try {
+            DefaultEnhancePromise<String> promise = new DefaultEnhancePromise<>();
+            CountDownLatch latch = new CountDownLatch(1);
+            String[] threadName = new String[1];
+            promise.addListener(new EnhanceFutureListener<EnhanceFuture<String>>() {
+                @Override
+                public void onSuccess(EnhanceFuture<String> future) {
+                    threadName[0] = Thread.currentThread().getName();
+                    latch.countDown();
+                }
+
+                @Override
+                public void onThrowable(Throwable throwable) {
+                }
+            }, executor);
+            promise.setSuccess("ok");
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals("listener-executor", threadName[0]);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void deepListenerChainDoesNotOverflow() throws Exception {
+        int length = 100000;
+        List<DefaultEnhancePromise<Integer>> promises = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            promises.add(new DefaultEnhancePromise<>());
+        }
+        for (int i = 0; i < length - 1; i++) {
+            DefaultEnhancePromise<Integer> next = promises.get(i + 1);
+            promises.get(i).addSuccessListener(next::setSuccess);
+        }
+        promises.get(0).setSuccess(1);
+        Assert.assertTrue(promises.get(length - 1).await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void composeWithoutBlocking() {
+        DefaultEnhancePromise<Integer> a = new DefaultEnhancePromise<>();
+        DefaultEnhancePromise<Integer> b = new DefaultEnhancePromise<>();
+        EnhanceFuture<String> applied = a.thenApply(v -> "v" + v);
+        EnhanceFuture<Integer> composed = a.thenComposeFuture(v -> b.thenApply(u -> u + v));
+        EnhanceFuture<Integer> zipped = a.zip(b, (x, y) -> x * y);
+        EnhanceFuture<List<Integer>> all = EnhanceFutureTools.allOf(a, b);
+        EnhanceFuture<Integer> any = EnhanceFutureTools.anyOf(a, b);
+        a.setSuccess(3);
+        Assert.assertEquals("v3", applied.getNow());
+        Assert.assertEquals(Integer.valueOf(3), any.getNow());
+        Assert.assertFalse(composed.isDone());
+        Assert.assertFalse(all.isDone());
+        b.setSuccess(4);
+        Assert.assertEquals(Integer.valueOf(7), composed.getNow());
+        Assert.assertEquals(Integer.valueOf(12), zipped.getNow());
+        Assert.assertEquals(Arrays.asList(3, 4), all.getNow());
+    }
+
+    @Test
+    public void composeFailures() {
+        DefaultEnhancePromise<Integer> a = new DefaultEnhancePromise<>();
+        DefaultEnhancePromise<Integer> b = new DefaultEnhancePromise<>();
+        DefaultEnhancePromise<Integer> c = new DefaultEnhancePromise<>();
+        EnhanceFuture<List<Integer>> all = EnhanceFutureTools.allOf(a, b, c);
+        EnhanceFuture<Integer> first = EnhanceFutureTools.firstSuccessful(a, b, c);
+        EnhanceFuture<Integer> applied = a.thenApply(v -> v / 0);
+        IllegalStateException error = new IllegalStateException("boom");
+        b.setFailure(error);
+        Assert.assertSame(error, all.cause());
+        Assert.assertFalse(first.isDone());
+        a.setSuccess(1);
+        Assert.assertTrue(applied.cause() instanceof ArithmeticException);
+        Assert.assertEquals(Integer.valueOf(1), first.getNow());
+        c.cancel(false);
+        Assert.assertTrue(c.thenApply(v -> v).isCancelled());
+    }
+
+    @Test
+    public void composeRejectsNullsBeforeRegisteringListeners() {
+        AtomicInteger registered = new AtomicInteger();
+        DefaultEnhancePromise<Integer> a = new DefaultEnhancePromise<Integer>() {
+            @Override
+            @SuppressWarnings("rawtypes")
+            public EnhanceFuture<Integer> addListener(EnhanceFutureListener listener) {
+                registered.incrementAndGet();
+                return super.addListener(listener);
+            }
+        };
+        try {
+            EnhanceFutureTools.allOf(a, null);
+            Assert.fail();
+        } catch (NullPointerException expected) {
+        }
+        try {
+            EnhanceFutureTools.anyOf(a, null);
+            Assert.fail();
+        } catch (NullPointerException expected) {
+        }
+        try {
+            EnhanceFutureTools.firstSuccessful(a, null);
+            Assert.fail();
+        } catch (NullPointerException expected) {
+        }
+        Assert.assertEquals(0, registered.get());
+    }
+
+    @Test
+    public void timeouts() throws Exception {
+        DefaultEnhancePromise<String> slow = new DefaultEnhancePromise<>();
+        EnhanceFuture<String> bounded = slow.withTimeout(50, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(bounded.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(bounded.cause() instanceof TimeoutException);
+        Assert.assertFalse(slow.isDone());
+
+        slow.orTimeout(50, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(slow.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(slow.cause() instanceof TimeoutException);
+
+        DefaultEnhancePromise<String> fast = new DefaultEnhancePromise<>();
+        fast.orTimeout(50, TimeUnit.MILLISECONDS);
+        fast.setSuccess("ok");
+        Thread.sleep(100);
+        Assert.assertEquals("ok", fast.getNow());
+    }
+}
@@ -0,0 +1,90 @@
+package com.hanframework.kit.futrue;
+
+import com.hanframework.kit.thread.HanThreadPoolExecutor;
+import com.hanframework.kit.thread.NamedThreadFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 对比ThreadPoolExecutor(共享LinkedBlockingQueue)与ForkJoin(工作窃取)两种后端在大量短任务下的吞吐量
+ * 1. external: N个外部线程并发提交空任务
+ * 2. nested: N个外部线程提交任务,每个任务在工作线程内部再提交若干子任务
+ * <p>
+ * 运行: mvn test-compile 之后
+ * java -cp target/classes:target/test-classes com.hanframework.kit.futrue.EnhanceExecutorServiceBenchmark
+ *
+ * @author liuxin
+ * 2026-10-18 14:40
+ */
+public class EnhanceExecutorServiceBenchmark {
+
+    private static final int[] SUBMITTERS = {1, 4, 16, 64};
+
+    private static final int TASKS = 400_000;
+
+    private static final int CHILDREN = 8;
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        Supplier<EnhanceExecutorService> threadPool = () -> EnhanceExecutorService.ofWrapper(
+                HanThreadPoolExecutor.builder()
+                .threadFactory(new NamedThreadFactory("bench-tpe"))
+                .corePoolSize(cores)
+                .maximumPoolSize(cores)
+                .build()
+                .getExecutory());
+        Supplier<EnhanceExecutorService> forkJoin = () -> EnhanceExecutorService.ofForkJoin("bench", cores, null);
+        System.out.println("cores=" + cores + ", tasks=" + TASKS);
+        System.out.printf("%-10s %-8s %12s %12s%n", "scenario", "threads", "tpe ops/s", "fj ops/s");
+        for (String scenario : new String[]{"external", "nested"}) {
+            for (int submitters : SUBMITTERS) {
+                //预热
+                run(threadPool, submitters, scenario);
+                run(forkJoin, submitters, scenario);
+                double tpe = run(threadPool, submitters, scenario);
+                double fj = run(forkJoin, submitters, scenario);
+                System.out.printf("%-10s %-8d %12.0f %12.0f%n", scenario, submitters, tpe, fj);
+            }
+        }
+    }
+
+    private static double run(Supplier<EnhanceExecutorService> supplier, int submitters, String scenario) throws Exception {
+        EnhanceExecutorService service = supplier.get();
+        boolean nested = "nested".equals(scenario);
+        int perSubmitter = TASKS / submitters / (nested ? CHILDREN + 1 : 1);
+        int total = perSubmitter * submitters * (nested ? CHILDREN + 1 : 1);
+        CountDownLatch done = new CountDownLatch(total);
+        CountDownLatch start = new CountDownLatch(1);
+        Runnable leaf = done::countDown;
+        Runnable parent = () -> {
+            for (int i = 0; i < CHILDREN; i++) {
+                service.execute(leaf);
+            }
+            done.countDown();
+        };
+        Runnable task = nested ? parent : leaf;
+        Thread[] threads = new Thread[submitters];
+        for (int i = 0; i < submitters; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < perSubmitter; j++) {
+                    service.execute(task);
+                }
+            });
+            threads[i].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - begin;
+        service.shutdown();
+        service.awaitTermination(1, TimeUnit.MINUTES);
+        return total * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+}
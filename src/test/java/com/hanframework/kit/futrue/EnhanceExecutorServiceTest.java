@@ -1,11 +1,30 @@
 package com.hanframework.kit.futrue;
 
 
+import com.hanframework.kit.metrics.ExecutorMetrics;
+import com.hanframework.kit.metrics.ExecutorMetricsSnapshot;
+import com.hanframework.kit.thread.HanThreadPoolExecutor;
+import com.hanframework.kit.thread.NamedThreadFactory;
+import com.hanframework.kit.thread.TaskPriority;
+import com.hanframework.kit.thread.VirtualThreads;
+import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.ObjectName;
 
 /**
  * @author liuxin
@@ -17,4 +36,325 @@ public class EnhanceExecutorServiceTest {
     public void createDeployment() {
     }
 
+    @Test
+    public void metrics() throws Exception {
+        ThreadPoolExecutor executor = HanThreadPoolExecutor.builder()
+                .threadFactory(new NamedThreadFactory("metrics-test"))
+                .corePoolSize(2)
+                .maximumPoolSize(2)
+                .build()
+                .getExecutory();
+        ExecutorMetrics metrics = new ExecutorMetrics("metrics-test").registerMBean();
+        EnhanceExecutorService service = EnhanceExecutorService.ofWrapper(executor, metrics);
+        try {
+            EnhanceFuture<String> ok = service.submit(() -> "ok");
+            EnhanceFuture<String> failed = service.submit(() -> {
+                throw new IllegalStateException("boom");
+            });
+            Assert.assertEquals("ok", ok.get(5, TimeUnit.SECONDS));
+            Assert.assertTrue(failed.await(5, TimeUnit.SECONDS));
+        } finally {
+            service.shutdown();
+            Assert.assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        ExecutorMetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(2, snapshot.getSubmittedCount());
+        Assert.assertEquals(1, snapshot.getCompletedCount());
+        Assert.assertEquals(1, snapshot.getFailedCount());
+        Assert.assertEquals(0, snapshot.getActiveCount());
+        Assert.assertEquals(0, snapshot.getQueueDepth());
+        Assert.assertEquals(2, snapshot.getRunTime().getCount());
+    }
+
+    @Test
+    public void discardedAndDrainedTasksLeaveTheQueue() throws Exception {
+        ThreadPoolExecutor executor = HanThreadPoolExecutor.builder()
+                .threadFactory(new NamedThreadFactory("discard-test"))
+                .corePoolSize(1)
+                .maximumPoolSize(1)
+                .workQueue(new ArrayBlockingQueue<>(1))
+                .rejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy())
+                .build()
+                .getExecutory();
+        ExecutorMetrics metrics = new ExecutorMetrics("discard-test");
+        EnhanceExecutorService service = EnhanceExecutorService.ofWrapper(executor, metrics);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            service.execute(() -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            });
+            Assert.assertTrue(running.await(5, TimeUnit.SECONDS));
+            service.execute(() -> {
+            });
+            service.execute(() -> {
+            });
+            Assert.assertEquals(1, metrics.snapshot().getRejectedCount());
+            Assert.assertEquals(1, metrics.snapshot().getQueueDepth());
+
+            Assert.assertEquals(1, service.shutdownNow().size());
+            Assert.assertEquals(0, metrics.snapshot().getQueueDepth());
+        } finally {
+            release.countDown();
+            service.shutdownNow();
+            Assert.assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void customHandlerDropsAreCounted() throws Exception {
+        ThreadPoolExecutor executor = HanThreadPoolExecutor.builder()
+                .threadFactory(new NamedThreadFactory("custom-drop-test"))
+                .corePoolSize(1)
+                .maximumPoolSize(1)
+                .workQueue(new ArrayBlockingQueue<>(1))
+                .rejectedExecutionHandler((r, e) -> {
+                })
+                .build()
+                .getExecutory();
+        ExecutorMetrics metrics = new ExecutorMetrics("custom-drop-test");
+        EnhanceExecutorService service = EnhanceExecutorService.ofWrapper(executor, metrics);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            service.execute(() -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            });
+            Assert.assertTrue(running.await(5, TimeUnit.SECONDS));
+            service.submit(() -> "queued");
+            service.submit(() -> "dropped");
+            Assert.assertEquals(1, metrics.snapshot().getRejectedCount());
+            Assert.assertEquals(1, metrics.snapshot().getQueueDepth());
+        } finally {
+            release.countDown();
+            service.shutdown();
+            Assert.assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(0, metrics.snapshot().getQueueDepth());
+    }
+
+    @Test
+    public void metricsCloseAfterTermination() throws Exception {
+        ThreadPoolExecutor executor = HanThreadPoolExecutor.builder()
+                .threadFactory(new NamedThreadFactory("graceful-test"))
+                .corePoolSize(1)
+                .maximumPoolSize(1)
+                .build()
+                .getExecutory();
+        ExecutorMetrics metrics = new ExecutorMetrics("graceful-test").registerMBean();
+        ObjectName name = new ObjectName("com.hanframework.kit:type=ExecutorMetrics,name=" + ObjectName.quote("graceful-test"));
+        EnhanceExecutorService service = EnhanceExecutorService.ofWrapper(executor, metrics);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        service.execute(() -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        Assert.assertTrue(running.await(5, TimeUnit.SECONDS));
+        service.shutdown();
+        //关闭后任务仍在执行,指标保持可读
+        Assert.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        release.countDown();
+        Assert.assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        Assert.assertEquals(1, metrics.snapshot().getCompletedCount());
+    }
+
+    @Test
+    public void cancelInterruptsAndEvicts() throws Exception {
+        ThreadPoolExecutor executor = HanThreadPoolExecutor.builder()
+                .threadFactory(new NamedThreadFactory("cancel-test"))
+                .corePoolSize(1)
+                .maximumPoolSize(1)
+                .build()
+                .getExecutory();
+        ExecutorMetrics metrics = new ExecutorMetrics("cancel-test");
+        EnhanceExecutorService service = EnhanceExecutorService.ofWrapper(executor, metrics);
+        try {
+            CountDownLatch running = new CountDownLatch(1);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            EnhanceFuture<?> blocking = service.submit(() -> {
+                running.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            });
+            EnhanceFuture<?> queued = service.submit(() -> {
+            });
+            Assert.assertTrue(running.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, executor.getQueue().size());
+
+            Assert.assertTrue(queued.cancel(false));
+            Assert.assertEquals(0, executor.getQueue().size());
+            Assert.assertEquals(1, service.getEvictedTaskCount());
+
+            Assert.assertTrue(blocking.cancel(true));
+            Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        } finally {
+            service.shutdown();
+            Assert.assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(2, metrics.snapshot().getCancelledCount());
+        Assert.assertEquals(1, metrics.snapshot().getEvictedCount());
+        Assert.assertEquals(0, metrics.snapshot().getQueueDepth());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void virtualThreadsUnsupported() {
+        Assume.assumeFalse(VirtualThreads.isSupported());
+        EnhanceExecutorService.ofVirtualThreads("vt-test");
+    }
+
+    @Test
+    public void virtualThreadsWithConcurrencyLimit() throws Exception {
+        Assume.assumeTrue(VirtualThreads.isSupported());
+        ExecutorMetrics metrics = new ExecutorMetrics("vt-test");
+        EnhanceExecutorService service = EnhanceExecutorService.ofVirtualThreads("vt-test", 2, metrics);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        EnhanceFuture<?>[] futures = new EnhanceFuture[20];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = service.submit(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ignored) {
+                }
+                running.decrementAndGet();
+            });
+        }
+        Assert.assertTrue(EnhanceFutureTools.allOf(futures).await(10, TimeUnit.SECONDS));
+        service.shutdown();
+        Assert.assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+        Assert.assertTrue(peak.get() <= 2);
+        Assert.assertEquals(20, metrics.snapshot().getCompletedCount());
+    }
+
+    @Test
+    public void forkJoinNestedSubmit() throws Exception {
+        EnhanceExecutorService service = EnhanceExecutorService.ofForkJoin("fj-test", 4, null);
+        try {
+            EnhanceFuture<Integer> future = service.submit(() -> 1)
+                    .thenComposeFuture(v -> service.submit(() -> v + 1));
+            Assert.assertEquals(Integer.valueOf(2), future.get(5, TimeUnit.SECONDS));
+            EnhanceFuture<String> threadName = service.submit(() -> service.submit(() -> Thread.currentThread().getName()))
+                    .thenComposeFuture(f -> f);
+            Assert.assertTrue(threadName.get(5, TimeUnit.SECONDS).startsWith("fj-test-fj-"));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void schedulingByPriorityAndDeadline() throws Exception {
+        ExecutorMetrics metrics = new ExecutorMetrics("scheduling-test");
+        EnhanceExecutorService service = EnhanceExecutorService.ofScheduling(
+                new NamedThreadFactory("scheduling-test"), 1, metrics);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            service.submit(() -> {
+                release.await();
+                return null;
+            });
+            List<String> order = new CopyOnWriteArrayList<>();
+            EnhanceFuture<?> low = service.submit(() -> order.add("low"), TaskPriority.LOW);
+            EnhanceFuture<?> normal = service.submit(() -> order.add("normal"), TaskPriority.NORMAL);
+            EnhanceFuture<?> high = service.submit(() -> order.add("high"), TaskPriority.HIGH);
+            EnhanceFuture<String> expired = service.submit(() -> "late", TaskPriority.HIGH, 1, TimeUnit.MILLISECONDS);
+            Thread.sleep(20);
+            release.countDown();
+
+            Assert.assertTrue(EnhanceFutureTools.allOf(low, normal, high).await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(Arrays.asList("high", "normal", "low"), order);
+            Assert.assertTrue(expired.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(expired.cause() instanceof TimeoutException);
+        } finally {
+            service.shutdown();
+            Assert.assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        ExecutorMetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(1, snapshot.getExpiredCount());
+        Assert.assertEquals(1, snapshot.getQueueWait(TaskPriority.LOW).getCount());
+    }
+
+    @Test
+    public void schedulingMixesPlainRunnablesInOrder() throws Exception {
+        ExecutorMetrics metrics = new ExecutorMetrics("scheduling-mixed-test");
+        EnhanceExecutorService service = EnhanceExecutorService.ofScheduling(
+                new NamedThreadFactory("scheduling-mixed-test"), 1, metrics);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            service.submit(() -> {
+                release.await();
+                return null;
+            });
+            List<String> order = new CopyOnWriteArrayList<>();
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String plain = "plain-" + i;
+                String task = "task-" + i;
+                //直接execute的Runnable与Promise任务交替入队,同一优先级内仍然先进先出
+                service.execute(() -> order.add(plain));
+                service.submit(() -> order.add(task), TaskPriority.NORMAL);
+                expected.add(plain);
+                expected.add(task);
+            }
+            EnhanceFuture<Boolean> urgent = service.submit(() -> order.add("deadline"), 5, TimeUnit.SECONDS);
+            expected.add(0, "deadline");
+            EnhanceFuture<?> last = service.submit(() -> order.add("high"), TaskPriority.HIGH);
+            expected.add(0, "high");
+            release.countDown();
+            Assert.assertTrue(urgent.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(last.await(5, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (order.size() < expected.size() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            Assert.assertEquals(expected, order);
+        } finally {
+            service.shutdown();
+            Assert.assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void priorityRequiresSchedulingQueue() throws Exception {
+        ThreadPoolExecutor executor = HanThreadPoolExecutor.builder()
+                .threadFactory(new NamedThreadFactory("priority-test"))
+                .corePoolSize(1)
+                .maximumPoolSize(1)
+                .build()
+                .getExecutory();
+        EnhanceExecutorService service = EnhanceExecutorService.ofWrapper(executor);
+        try {
+            try {
+                service.submit(() -> "x", TaskPriority.HIGH);
+                Assert.fail();
+            } catch (UnsupportedOperationException expected) {
+            }
+            try {
+                service.submit(() -> "x", TaskPriority.HIGH, 1, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (UnsupportedOperationException expected) {
+            }
+            //只带截止时间时任何执行器都支持
+            Assert.assertEquals("x", service.submit(() -> "x", 5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS));
+        } finally {
+            service.shutdown();
+            Assert.assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
 }
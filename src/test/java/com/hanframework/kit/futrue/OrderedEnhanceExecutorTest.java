@@ -0,0 +1,106 @@
+package com.hanframework.kit.futrue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author liuxin
+ * 2026-10-18 16:50
+ */
+public class OrderedEnhanceExecutorTest {
+
+    @Test
+    public void serialPerKey() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        OrderedEnhanceExecutor executor = new OrderedEnhanceExecutor(pool, 4);
+        int keys = 16;
+        int tasksPerKey = 200;
+        List<List<Integer>> applied = new ArrayList<>();
+        AtomicInteger[] running = new AtomicInteger[keys];
+        AtomicInteger overlaps = new AtomicInteger();
+        List<EnhanceFuture<?>> futures = new ArrayList<>();
+        for (int k = 0; k < keys; k++) {
+            applied.add(new ArrayList<>());
+            running[k] = new AtomicInteger();
+        }
+        try {
+            for (int i = 0; i < tasksPerKey; i++) {
+                for (int k = 0; k < keys; k++) {
+                    int key = k;
+                    int seq = i;
+                    futures.add(executor.submit("account-" + key, () -> {
+                        if (running[key].incrementAndGet() != 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        applied.get(key).add(seq);
+                        running[key].decrementAndGet();
+                    }));
+                }
+            }
+            Assert.assertTrue(EnhanceFutureTools.allOf(futures).await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(0, overlaps.get());
+            for (List<Integer> sequence : applied) {
+                Assert.assertEquals(tasksPerKey, sequence.size());
+                for (int i = 0; i < tasksPerKey; i++) {
+                    Assert.assertEquals(Integer.valueOf(i), sequence.get(i));
+                }
+            }
+            EnhanceFuture<String> result = executor.submit("account-0", () -> "done");
+            Assert.assertEquals("done", result.get(5, TimeUnit.SECONDS));
+            //最后一个任务完成后队列才会被删除
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (executor.getKeyCount() != 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            Assert.assertEquals(0, executor.getKeyCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectedWhenPoolShutdown() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        pool.shutdown();
+        OrderedEnhanceExecutor executor = new OrderedEnhanceExecutor(pool);
+        EnhanceFuture<String> future = executor.submit("key", () -> "never");
+        Assert.assertTrue(future.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(future.cause() instanceof RejectedExecutionException);
+        Assert.assertEquals(0, executor.getKeyCount());
+    }
+
+    @Test
+    public void cancelInterruptDoesNotLeakToNextTask() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        OrderedEnhanceExecutor executor = new OrderedEnhanceExecutor(pool);
+        try {
+            CountDownLatch running = new CountDownLatch(1);
+            EnhanceFuture<?> blocking = executor.submit("key", () -> {
+                running.countDown();
+                //只检查不清除中断标识,返回时中断标识仍然存在
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.yield();
+                }
+            });
+            //同一个key的下一个任务在同一轮中由同一个线程执行
+            EnhanceFuture<String> next = executor.submit("key", () -> {
+                Thread.sleep(10);
+                return "slept";
+            });
+            Assert.assertTrue(running.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(blocking.cancel(true));
+            Assert.assertEquals("slept", next.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.hanframework.kit.metrics;
+
+import com.hanframework.kit.thread.HanThreadPoolExecutor;
+import com.hanframework.kit.thread.QueueStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author liuxin
+ * 2026-10-18 16:20
+ */
+public class PoolSizeControllerTest {
+
+    private static final double US = 1000;
+
+    @Test
+    public void hillClimb() {
+        ThreadPoolExecutor executor = HanThreadPoolExecutor.builder()
+                .corePoolSize(2)
+                .maximumPoolSize(4)
+                .queueStrategy(QueueStrategy.EAGER, 16)
+                .build()
+                .getExecutory();
+        PoolSizeController controller = PoolSizeController.builder(executor)
+                .name("hill-climb-test")
+                .bounds(2, 6)
+                .interval(0, TimeUnit.SECONDS)
+                .targetQueueWait(1, TimeUnit.MILLISECONDS)
+                .build();
+        try {
+            //积压时增加线程,max保持与core的差值但不超过上限
+            Assert.assertEquals(PoolSizeDecision.Action.INCREASE, controller.decide(100, 5000 * US, 10, 2, 0.5).getAction());
+            Assert.assertEquals(3, executor.getCorePoolSize());
+            Assert.assertEquals(5, executor.getMaximumPoolSize());
+            Assert.assertEquals(PoolSizeDecision.Action.INCREASE, controller.decide(150, 5000 * US, 10, 3, 0.5).getAction());
+            Assert.assertEquals(4, executor.getCorePoolSize());
+            Assert.assertEquals(6, executor.getMaximumPoolSize());
+
+            //吞吐量下降,退回并且暂时不再超过峰值
+            PoolSizeDecision dropped = controller.decide(100, 5000 * US, 10, 4, 0.5);
+            Assert.assertEquals(PoolSizeDecision.Action.DECREASE, dropped.getAction());
+            Assert.assertEquals(3, dropped.getNewSize());
+            Assert.assertEquals(PoolSizeDecision.Action.HOLD, controller.decide(150, 5000 * US, 10, 3, 0.5).getAction());
+
+            //CPU饱和时减少
+            Assert.assertEquals(PoolSizeDecision.Action.DECREASE, controller.decide(150, 5000 * US, 10, 3, 0.95).getAction());
+            Assert.assertEquals(2, executor.getCorePoolSize());
+            //到达下限后保持
+            Assert.assertEquals(PoolSizeDecision.Action.HOLD, controller.decide(150, 5000 * US, 10, 2, 0.95).getAction());
+
+            Assert.assertEquals(2, controller.getIncreaseCount());
+            Assert.assertEquals(2, controller.getDecreaseCount());
+            Assert.assertEquals(2, controller.getHoldCount());
+            Assert.assertEquals(6, controller.recentDecisions().size());
+        } finally {
+            controller.close();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shrinkWhenIdle() {
+        ThreadPoolExecutor executor = HanThreadPoolExecutor.builder()
+                .corePoolSize(4)
+                .maximumPoolSize(4)
+                .build()
+                .getExecutory();
+        PoolSizeController controller = PoolSizeController.builder(executor)
+                .bounds(1, 8)
+                .interval(0, TimeUnit.SECONDS)
+                .build();
+        try {
+            Assert.assertEquals(PoolSizeDecision.Action.HOLD, controller.decide(10, -1, 0, 0, -1).getAction());
+            Assert.assertEquals(PoolSizeDecision.Action.HOLD, controller.decide(10, -1, 0, 0, -1).getAction());
+            Assert.assertEquals(PoolSizeDecision.Action.DECREASE, controller.decide(10, -1, 0, 0, -1).getAction());
+            Assert.assertEquals(3, executor.getCorePoolSize());
+            Assert.assertEquals(3, executor.getMaximumPoolSize());
+            //没有指标时以队列长度判断积压
+            Assert.assertEquals(PoolSizeDecision.Action.INCREASE, controller.decide(10, -1, 5, 3, -1).getAction());
+        } finally {
+            controller.close();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void probeDownFollowsThroughput() {
+        ThreadPoolExecutor executor = HanThreadPoolExecutor.builder()
+                .corePoolSize(5)
+                .maximumPoolSize(5)
+                .build()
+                .getExecutory();
+        PoolSizeController controller = PoolSizeController.builder(executor)
+                .bounds(1, 8)
+                .interval(0, TimeUnit.SECONDS)
+                .build();
+        try {
+            //连续空闲后向下试探
+            Assert.assertEquals(PoolSizeDecision.Action.HOLD, controller.decide(100, 0, 0, 1, -1).getAction());
+            Assert.assertEquals(PoolSizeDecision.Action.HOLD, controller.decide(100, 0, 0, 1, -1).getAction());
+            Assert.assertEquals(PoolSizeDecision.Action.DECREASE, controller.decide(100, 0, 0, 1, -1).getAction());
+            Assert.assertEquals(4, executor.getCorePoolSize());
+            //吞吐量不变,继续沿同一方向
+            Assert.assertEquals(PoolSizeDecision.Action.DECREASE, controller.decide(100, 0, 0, 2, -1).getAction());
+            Assert.assertEquals(3, executor.getCorePoolSize());
+            //吞吐量下降,退回并且暂时不再减少到该线程数
+            PoolSizeDecision reverted = controller.decide(60, 0, 0, 2, -1);
+            Assert.assertEquals(PoolSizeDecision.Action.INCREASE, reverted.getAction());
+            Assert.assertEquals(4, executor.getCorePoolSize());
+            for (int i = 0; i < 5; i++) {
+                Assert.assertEquals(PoolSizeDecision.Action.HOLD, controller.decide(100, 0, 0, 1, -1).getAction());
+            }
+            Assert.assertEquals(4, executor.getCorePoolSize());
+        } finally {
+            controller.close();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void cpuLoadInRange() {
+        double cpu = PoolSizeController.cpuLoad();
+        Assert.assertTrue(String.valueOf(cpu), cpu >= -1 && cpu <= 1);
+    }
+}
@@ -0,0 +1,90 @@
+package com.hanframework.kit.metrics;
+
+import com.hanframework.kit.thread.NamedThreadFactory;
+import com.hanframework.kit.thread.ThreadRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author liuxin
+ * 2026-10-18 18:20
+ */
+public class ThreadResourceSamplerTest {
+
+    @Test
+    public void perPoolDeltas() throws Exception {
+        ThreadResourceSampler sampler = new ThreadResourceSampler(0, TimeUnit.SECONDS);
+        CountDownLatch sampled = new CountDownLatch(1);
+        CountDownLatch exit = new CountDownLatch(1);
+        Thread thread = new NamedThreadFactory("resource-test").newThread(() -> {
+            List<byte[]> garbage = new ArrayList<>();
+            for (int i = 0; i < 1024; i++) {
+                garbage.add(new byte[1024]);
+            }
+            sampled.countDown();
+            try {
+                exit.await();
+            } catch (InterruptedException ignored) {
+            }
+            garbage.clear();
+        });
+        //未启动的线程不登记
+        Assert.assertNull(ThreadRegistry.threadsByPool().get("resource-test"));
+        thread.start();
+        try {
+            Assert.assertTrue(sampled.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(ThreadRegistry.threadsByPool().get("resource-test").contains(thread));
+            sampler.sample();
+            PoolResourceUsage usage = sampler.getUsage("resource-test");
+            Assert.assertNotNull(usage);
+            Assert.assertEquals(1, usage.getThreadCount());
+            if (usage.getAllocatedBytes() >= 0) {
+                Assert.assertTrue(usage.getAllocatedBytes() >= 1024 * 1024);
+            }
+            //线程在等待,第二个周期几乎没有分配
+            sampler.sample();
+            usage = sampler.getUsage("resource-test");
+            if (usage.getAllocatedBytes() >= 0) {
+                Assert.assertTrue(usage.getAllocatedBytes() < 1024 * 1024);
+            }
+        } finally {
+            exit.countDown();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+            sampler.close();
+        }
+        Assert.assertNull(ThreadRegistry.threadsByPool().get("resource-test"));
+    }
+
+    @Test
+    public void registerRacesWithLastUnregister() throws Exception {
+        Thread exiting = new Thread(() -> {
+        });
+        AtomicBoolean stop = new AtomicBoolean();
+        //模拟线程池最后一个线程退出的同时新线程启动
+        Thread churn = new Thread(() -> {
+            while (!stop.get()) {
+                ThreadRegistry.register("churn-test", exiting);
+                ThreadRegistry.unregister("churn-test", exiting);
+            }
+        });
+        churn.start();
+        try {
+            Thread current = Thread.currentThread();
+            for (int i = 0; i < 100000; i++) {
+                ThreadRegistry.register("churn-test", current);
+                List<Thread> threads = ThreadRegistry.threadsByPool().get("churn-test");
+                Assert.assertTrue(threads != null && threads.contains(current));
+                ThreadRegistry.unregister("churn-test", current);
+            }
+        } finally {
+            stop.set(true);
+            churn.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.hanframework.kit.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @author liuxin
+ * 2026-10-18 22:50
+ */
+public class ByteBufferPoolTest {
+
+    @Test
+    public void onlyBorrowedBuffersArePooled() {
+        ByteBufferPool pool = new ByteBufferPool(64, 4);
+        ByteBuffer borrowed = pool.acquire();
+        Assert.assertTrue(borrowed.isDirect());
+        Assert.assertEquals(64, borrowed.capacity());
+
+        //调用方自己的缓冲区: 大小和类型都与池一致也不能收回
+        ByteBuffer shared = ByteBuffer.allocateDirect(64);
+        pool.release(shared);
+        pool.release(shared.duplicate());
+        pool.release(shared.asReadOnlyBuffer());
+        pool.release(borrowed.duplicate());
+        Assert.assertEquals(0, pool.pooled());
+
+        pool.release(borrowed);
+        Assert.assertEquals(1, pool.pooled());
+        //重复归还被忽略,同一个缓冲区不会被借给两个调用方
+        pool.release(borrowed);
+        Assert.assertEquals(1, pool.pooled());
+        Assert.assertSame(borrowed, pool.acquire());
+        Assert.assertNotSame(borrowed, pool.acquire());
+    }
+}
@@ -0,0 +1,171 @@
+package com.hanframework.kit.server;
+
+import com.hanframework.kit.futrue.EnhanceExecutorService;
+import com.hanframework.kit.futrue.EnhanceFuture;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 业务线程池处理请求后从业务线程写回响应
+ *
+ * @author liuxin
+ * 2026-10-18 22:10
+ */
+public class CrossThreadWriteTest {
+
+    @Test
+    public void businessThreadsWriteResponses() throws Exception {
+        EnhanceExecutorService business = EnhanceExecutorService.ofForkJoin("business", 4, null);
+        int requests = 2000;
+        AtomicInteger flushed = new AtomicInteger();
+        AtomicReference<Thread> listenerThread = new AtomicReference<>();
+        AtomicReference<TcpHandler> serverSide = new AtomicReference<>();
+        TCPReactor reactor = TCPReactor.builder()
+                .port(0)
+                .workerCount(1)
+                .handler(() -> new ChannelPipeline()
+                        .addLast(new FixedLengthFrameDecoder(4))
+                        .addLast((ctx, msg) -> {
+                            //帧只在回调内有效,先取出数据再交给业务线程
+                            int request = ((ByteBuffer) msg).getInt();
+                            TcpHandler connection = ctx.connection();
+                            serverSide.set(connection);
+                            business.execute(() -> {
+                                ByteBuffer response = ByteBuffer.allocate(4);
+                                response.putInt(request * 2).flip();
+                                connection.writeAndFlush(response).addSuccessListener(v -> {
+                                    listenerThread.set(Thread.currentThread());
+                                    flushed.incrementAndGet();
+                                });
+                            });
+                        }))
+                .build();
+        Thread boss = new Thread(() -> {
+            try {
+                reactor.start();
+            } catch (Exception ignored) {
+            }
+        }, "tcp-boss");
+        boss.start();
+        try (SocketChannel client = SocketChannel.open(new InetSocketAddress("127.0.0.1", reactor.getLocalPort()))) {
+            ByteBuffer request = ByteBuffer.allocate(4 * requests);
+            for (int i = 0; i < requests; i++) {
+                request.putInt(i);
+            }
+            request.flip();
+            while (request.hasRemaining()) {
+                client.write(request);
+            }
+            ByteBuffer responses = ByteBuffer.allocate(4 * requests);
+            while (responses.hasRemaining()) {
+                Assert.assertTrue(client.read(responses) > 0);
+            }
+            responses.flip();
+            long sum = 0;
+            for (int i = 0; i < requests; i++) {
+                sum += responses.getInt();
+            }
+            //业务线程并发写,顺序不确定
+            Assert.assertEquals((long) requests * (requests - 1), sum);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (flushed.get() < requests && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(requests, flushed.get());
+            Assert.assertTrue(listenerThread.get().getName().startsWith("tcp-worker-"));
+            //跨线程提交的唤醒被合并
+            EventLoop eventLoop = serverSide.get().eventLoop();
+            System.out.println(requests + " cross-thread writes, " + eventLoop.wakeupCount() + " selector wakeups");
+            Assert.assertTrue(eventLoop.wakeupCount() <= requests + 1);
+
+            //连接关闭后写入以ClosedChannelException失败
+            serverSide.get().close();
+            EnhanceFuture<Void> late = serverSide.get().writeAndFlush(ByteBuffer.allocate(1));
+            Assert.assertTrue(late.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(late.cause() instanceof ClosedChannelException);
+        } finally {
+            reactor.close();
+            boss.join(TimeUnit.SECONDS.toMillis(5));
+            Assert.assertTrue(reactor.awaitTermination(5, TimeUnit.SECONDS));
+            business.shutdown();
+        }
+    }
+
+    @Test
+    public void writesAfterShutdownFailAndReleaseTheMessage() throws Exception {
+        AtomicReference<TcpHandler> serverSide = new AtomicReference<>();
+        AtomicInteger closedCallbacks = new AtomicInteger();
+        TCPReactor reactor = TCPReactor.builder()
+                .port(0)
+                .workerCount(1)
+                .handler(() -> new ConnectionHandler() {
+                    @Override
+                    public void onConnected(TcpHandler connection) {
+                        serverSide.set(connection);
+                    }
+
+                    @Override
+                    public void onRead(TcpHandler connection, ByteBuffer data) {
+                    }
+
+                    @Override
+                    public void onClosed(TcpHandler connection) {
+                        closedCallbacks.incrementAndGet();
+                        //onClosed抛出异常不能影响其他连接的关闭和事件循环的退出
+                        throw new IllegalStateException("onClosed failed");
+                    }
+                })
+                .build();
+        Thread boss = new Thread(() -> {
+            try {
+                reactor.start();
+            } catch (Exception ignored) {
+            }
+        }, "tcp-boss");
+        boss.start();
+        Path file = Files.createTempFile("cross-thread", ".bin");
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", reactor.getLocalPort());
+        try (SocketChannel first = SocketChannel.open(address);
+             SocketChannel second = SocketChannel.open(address)) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (serverSide.get() == null && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            TcpHandler connection = serverSide.get();
+            Assert.assertNotNull(connection);
+
+            reactor.close();
+            boss.join(TimeUnit.SECONDS.toMillis(5));
+            Assert.assertTrue(reactor.awaitTermination(5, TimeUnit.SECONDS));
+            Assert.assertEquals(2, closedCallbacks.get());
+            Assert.assertEquals(-1, first.read(ByteBuffer.allocate(1)));
+            Assert.assertEquals(-1, second.read(ByteBuffer.allocate(1)));
+
+            //事件循环已经退出,写入立即失败而不是永远不完成
+            EnhanceFuture<Void> buffer = connection.writeAndFlush(ByteBuffer.allocateDirect(16));
+            EnhanceFuture<Void> region = connection.writeAndFlush(FileRegion.open(file));
+            Assert.assertTrue(buffer.isDone());
+            Assert.assertTrue(buffer.cause() instanceof ClosedChannelException);
+            Assert.assertTrue(region.isDone());
+            Assert.assertTrue(region.cause() instanceof ClosedChannelException);
+            connection.flush();
+            connection.close();
+        } finally {
+            reactor.close();
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.hanframework.kit.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author liuxin
+ * 2026-10-18 21:10
+ */
+public class FileRegionTest {
+
+    @Test
+    public void fileRegionInterleavesWithBuffers() throws Exception {
+        byte[] content = new byte[8 << 20];
+        new Random(7).nextBytes(content);
+        Path file = Files.createTempFile("file-region", ".bin");
+        Files.write(file, content);
+        byte[] header = "HEADER\n".getBytes(StandardCharsets.UTF_8);
+        byte[] trailer = "\nTRAILER".getBytes(StandardCharsets.UTF_8);
+        TCPReactor reactor = TCPReactor.builder().port(0).workerCount(1).handler(() -> new ConnectionHandler() {
+            @Override
+            public void onConnected(TcpHandler connection) {
+                try {
+                    ByteBuffer head = connection.alloc();
+                    head.put(header).flip();
+                    connection.write(head);
+                    connection.write(FileRegion.open(file));
+                    ByteBuffer tail = connection.alloc();
+                    tail.put(trailer).flip();
+                    connection.writeAndFlush(tail);
+                } catch (IOException e) {
+                    onException(connection, e);
+                }
+            }
+
+            @Override
+            public void onRead(TcpHandler connection, ByteBuffer data) {
+            }
+        }).build();
+        Thread boss = new Thread(() -> {
+            try {
+                reactor.start();
+            } catch (Exception ignored) {
+            }
+        }, "tcp-boss");
+        boss.start();
+        try (SocketChannel client = SocketChannel.open()) {
+            //接收缓冲区很小且先不读,让服务端的transferTo只能发送一部分,之后靠OP_WRITE继续
+            client.setOption(StandardSocketOptions.SO_RCVBUF, 8192);
+            client.connect(new InetSocketAddress("127.0.0.1", reactor.getLocalPort()));
+            Thread.sleep(100);
+            ByteBuffer received = ByteBuffer.allocate(header.length + content.length + trailer.length);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (received.hasRemaining() && System.nanoTime() < deadline) {
+                Assert.assertTrue(client.read(received) >= 0);
+            }
+            Assert.assertFalse(received.hasRemaining());
+            received.flip();
+            byte[] actual = new byte[received.remaining()];
+            received.get(actual);
+            ByteBuffer expected = ByteBuffer.allocate(actual.length).put(header).put(content).put(trailer);
+            Assert.assertArrayEquals(expected.array(), actual);
+        } finally {
+            reactor.close();
+            boss.join(TimeUnit.SECONDS.toMillis(5));
+            Assert.assertTrue(reactor.awaitTermination(5, TimeUnit.SECONDS));
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void emptyFileRegionCompletes() throws Exception {
+        Path file = Files.createTempFile("file-region-empty", ".bin");
+        byte[] header = "HEADER\n".getBytes(StandardCharsets.UTF_8);
+        byte[] trailer = "\nTRAILER".getBytes(StandardCharsets.UTF_8);
+        TCPReactor reactor = TCPReactor.builder().port(0).workerCount(1).handler(() -> new ConnectionHandler() {
+            @Override
+            public void onConnected(TcpHandler connection) {
+                try {
+                    ByteBuffer head = connection.alloc();
+                    head.put(header).flip();
+                    connection.write(head);
+                    connection.write(FileRegion.open(file));
+                    ByteBuffer tail = connection.alloc();
+                    tail.put(trailer).flip();
+                    connection.writeAndFlush(tail);
+                } catch (IOException e) {
+                    onException(connection, e);
+                }
+            }
+
+            @Override
+            public void onRead(TcpHandler connection, ByteBuffer data) {
+            }
+        }).build();
+        Thread boss = new Thread(() -> {
+            try {
+                reactor.start();
+            } catch (Exception ignored) {
+            }
+        }, "tcp-boss");
+        boss.start();
+        try (SocketChannel client = SocketChannel.open()) {
+            client.connect(new InetSocketAddress("127.0.0.1", reactor.getLocalPort()));
+            ByteBuffer received = ByteBuffer.allocate(header.length + trailer.length);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (received.hasRemaining() && System.nanoTime() < deadline) {
+                //空文件不能被当作截断而关闭连接
+                Assert.assertTrue(client.read(received) >= 0);
+            }
+            Assert.assertFalse(received.hasRemaining());
+            ByteBuffer expected = ByteBuffer.allocate(received.capacity()).put(header).put(trailer);
+            Assert.assertArrayEquals(expected.array(), received.array());
+        } finally {
+            reactor.close();
+            boss.join(TimeUnit.SECONDS.toMillis(5));
+            Assert.assertTrue(reactor.awaitTermination(5, TimeUnit.SECONDS));
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.hanframework.kit.server;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 帧解码器吞吐量: 长度字段帧和换行分隔帧,帧大小64B、512B、4KB,按16KB一块输入(与默认读缓冲区大小一致),
+ * 帧会跨块,覆盖累积缓冲区的路径
+ * <p>
+ * 运行: mvn test-compile 之后
+ * java -cp target/classes:target/test-classes com.hanframework.kit.server.FrameDecoderBenchmark
+ *
+ * @author liuxin
+ * 2026-10-18 20:50
+ */
+public class FrameDecoderBenchmark {
+
+    private static final int[] FRAME_SIZES = {64, 512, 4096};
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private static final int STREAM_SIZE = 64 << 20;
+
+    public static void main(String[] args) {
+        System.out.printf("%-10s %8s %14s %10s %12s%n", "decoder", "frame", "frames/s", "MB/s", "compactions");
+        for (int frameSize : FRAME_SIZES) {
+            run("length", frameSize, lengthPrefixed(frameSize));
+            run("delimiter", frameSize, lineDelimited(frameSize));
+        }
+    }
+
+    private static void run(String name, int frameSize, byte[] stream) {
+        ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        long[] frames = new long[1];
+        FrameDecoder decoder = null;
+        long elapsed = 0;
+        //前两轮预热
+        for (int round = 0; round < 3; round++) {
+            decoder = "length".equals(name)
+                    ? new LengthFieldFrameDecoder(1 << 20, 0, 4, 0, 4)
+                    : new DelimiterFrameDecoder(1 << 20, new byte[]{'\n'}, true);
+            ChannelPipeline pipeline = new ChannelPipeline()
+                    .addLast(decoder)
+                    .addLast((ctx, msg) -> frames[0]++);
+            frames[0] = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < stream.length; i += CHUNK_SIZE) {
+                chunk.clear();
+                chunk.put(stream, i, Math.min(CHUNK_SIZE, stream.length - i)).flip();
+                pipeline.onRead(null, chunk);
+            }
+            elapsed = System.nanoTime() - start;
+        }
+        System.out.printf("%-10s %8d %14.0f %10.1f %12d%n", name, frameSize, frames[0] * 1e9 / elapsed,
+                stream.length / 1048576.0 * 1e9 / elapsed, decoder.compactions());
+    }
+
+    /**
+     * 块大小不是帧大小的整数倍,帧会跨块
+     */
+    private static byte[] lengthPrefixed(int frameSize) {
+        int count = STREAM_SIZE / (frameSize + 4);
+        ByteBuffer buffer = ByteBuffer.allocate(count * (frameSize + 4));
+        byte[] body = new byte[frameSize];
+        Arrays.fill(body, (byte) 'x');
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(frameSize).put(body);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] lineDelimited(int frameSize) {
+        int count = STREAM_SIZE / (frameSize + 1);
+        byte[] stream = new byte[count * (frameSize + 1)];
+        Arrays.fill(stream, (byte) 'x');
+        for (int i = frameSize; i < stream.length; i += frameSize + 1) {
+            stream[i] = '\n';
+        }
+        return stream;
+    }
+}
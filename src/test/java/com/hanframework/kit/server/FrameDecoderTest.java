@@ -0,0 +1,172 @@
+package com.hanframework.kit.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author liuxin
+ * 2026-10-18 20:40
+ */
+public class FrameDecoderTest {
+
+    /**
+     * 帧只在回调期间有效,收集时复制出来
+     */
+    static final class Collector implements InboundHandler {
+        final List<String> frames = new ArrayList<>();
+
+        final List<ByteBuffer> raw = new ArrayList<>();
+
+        @Override
+        public void onRead(HandlerContext ctx, Object msg) {
+            ByteBuffer frame = (ByteBuffer) msg;
+            raw.add(frame);
+            byte[] bytes = new byte[frame.remaining()];
+            frame.get(bytes);
+            frames.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void feed(ChannelPipeline pipeline, byte[] data, int chunkSize) {
+        for (int i = 0; i < data.length; i += chunkSize) {
+            pipeline.onRead(null, ByteBuffer.wrap(data, i, Math.min(chunkSize, data.length - i)).slice());
+        }
+    }
+
+    private static byte[] lengthPrefixed(String... messages) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for (String message : messages) {
+            byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        buffer.flip();
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        return data;
+    }
+
+    @Test
+    public void lengthFieldAcrossChunks() {
+        byte[] data = lengthPrefixed("hello", "", "world!", "a longer message spanning several chunks");
+        for (int chunkSize : new int[]{1, 3, 7, data.length}) {
+            Collector collector = new Collector();
+            ChannelPipeline pipeline = new ChannelPipeline()
+                    .addLast(new LengthFieldFrameDecoder(1024, 0, 4, 0, 4))
+                    .addLast(collector);
+            feed(pipeline, data, chunkSize);
+            Assert.assertEquals("chunk " + chunkSize, 4, collector.frames.size());
+            Assert.assertEquals("hello", collector.frames.get(0));
+            Assert.assertEquals("", collector.frames.get(1));
+            Assert.assertEquals("world!", collector.frames.get(2));
+        }
+    }
+
+    @Test
+    public void lengthFieldKeepsHeaderAndRejectsOversizedFrames() {
+        Collector collector = new Collector();
+        //2字节长度字段包含了自身
+        LengthFieldFrameDecoder decoder = new LengthFieldFrameDecoder(16, 0, 2, -2, 0);
+        ChannelPipeline pipeline = new ChannelPipeline().addLast(decoder).addLast(collector);
+        pipeline.onRead(null, ByteBuffer.wrap(new byte[]{0, 4, 'o', 'k'}));
+        Assert.assertEquals(1, collector.raw.size());
+        Assert.assertEquals(4, collector.raw.get(0).capacity());
+
+        final Throwable[] caught = new Throwable[1];
+        ChannelPipeline failing = new ChannelPipeline().addLast(decoder).addLast(new InboundHandler() {
+            @Override
+            public void onRead(HandlerContext ctx, Object msg) {
+            }
+
+            @Override
+            public void onException(HandlerContext ctx, Throwable cause) {
+                caught[0] = cause;
+            }
+        });
+        failing.onRead(null, ByteBuffer.wrap(new byte[]{0, 100}));
+        Assert.assertTrue(caught[0] instanceof DecoderException);
+    }
+
+    @Test
+    public void delimiterSplitAcrossChunks() {
+        byte[] data = "GET /\r\nHost: a\r\n\r\nlast\r\n".getBytes(StandardCharsets.UTF_8);
+        for (int chunkSize : new int[]{1, 2, 5, data.length}) {
+            Collector stripped = new Collector();
+            ChannelPipeline pipeline = new ChannelPipeline()
+                    .addLast(new DelimiterFrameDecoder(64, "\r\n".getBytes(StandardCharsets.UTF_8), true))
+                    .addLast(stripped);
+            feed(pipeline, data, chunkSize);
+            Assert.assertEquals("chunk " + chunkSize, 4, stripped.frames.size());
+            Assert.assertEquals("GET /", stripped.frames.get(0));
+            Assert.assertEquals("Host: a", stripped.frames.get(1));
+            Assert.assertEquals("", stripped.frames.get(2));
+            Assert.assertEquals("last", stripped.frames.get(3));
+        }
+        Collector kept = new Collector();
+        feed(new ChannelPipeline()
+                .addLast(new DelimiterFrameDecoder(64, new byte[]{'\n'}, false))
+                .addLast(kept), "a\nbc\n".getBytes(StandardCharsets.UTF_8), 1);
+        Assert.assertEquals("a\n", kept.frames.get(0));
+        Assert.assertEquals("bc\n", kept.frames.get(1));
+    }
+
+    @Test
+    public void fixedLength() {
+        Collector collector = new Collector();
+        ChannelPipeline pipeline = new ChannelPipeline()
+                .addLast(new FixedLengthFrameDecoder(3))
+                .addLast(collector);
+        feed(pipeline, "abcdefgh".getBytes(StandardCharsets.UTF_8), 2);
+        feed(pipeline, "i".getBytes(StandardCharsets.UTF_8), 1);
+        Assert.assertEquals(3, collector.frames.size());
+        Assert.assertEquals("ghi", collector.frames.get(2));
+    }
+
+    @Test
+    public void completeFramesAreSlicedWithoutCopying() {
+        byte[] data = lengthPrefixed("one", "two", "three");
+        ByteBuffer in = ByteBuffer.wrap(data);
+        Collector collector = new Collector();
+        LengthFieldFrameDecoder decoder = new LengthFieldFrameDecoder(1024, 0, 4, 0, 4);
+        new ChannelPipeline().addLast(decoder).addLast(collector).onRead(null, in);
+        Assert.assertEquals(3, collector.frames.size());
+        for (ByteBuffer frame : collector.raw) {
+            //切片共享输入的数组
+            Assert.assertSame(data, frame.array());
+        }
+        Assert.assertEquals(0, decoder.compactions());
+        Assert.assertEquals(0, decoder.expansions());
+    }
+
+    @Test
+    public void cumulationCompactsOnlyWhenTailIsFull() {
+        LengthFieldFrameDecoder decoder = new LengthFieldFrameDecoder(1 << 16, 0, 4, 0, 4);
+        Collector collector = new Collector();
+        ChannelPipeline pipeline = new ChannelPipeline().addLast(decoder).addLast(collector);
+        String[] messages = new String[200];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = "message-" + i;
+        }
+        byte[] data = new byte[0];
+        for (int i = 0; i < messages.length; i += 20) {
+            byte[] part = lengthPrefixed(Arrays.copyOfRange(messages, i, i + 20));
+            byte[] merged = Arrays.copyOf(data, data.length + part.length);
+            System.arraycopy(part, 0, merged, data.length, part.length);
+            data = merged;
+        }
+        //奇数块大小让每次读取都以半个帧结束
+        feed(pipeline, data, 37);
+        Assert.assertEquals(messages.length, collector.frames.size());
+        Assert.assertEquals("message-199", collector.frames.get(199));
+        //每次只剩半个帧,累积缓冲区尾部写满时才整理一次,不需要扩容
+        int reads = (data.length + 36) / 37;
+        Assert.assertTrue("compactions: " + decoder.compactions(), decoder.compactions() <= data.length / 1024 + 1);
+        Assert.assertTrue(decoder.compactions() < reads / 10);
+        Assert.assertEquals(0, decoder.expansions());
+    }
+}
@@ -0,0 +1,75 @@
+package com.hanframework.kit.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author liuxin
+ * 2026-10-18 21:40
+ */
+public class HashedWheelTimerTest {
+
+    @Test
+    public void expiresInOrderWithinOneTick() {
+        HashedWheelTimer timer = new HashedWheelTimer(10, 8, 0);
+        List<String> fired = new ArrayList<>();
+        timer.schedule(() -> fired.add("a"), 25);
+        timer.schedule(() -> fired.add("b"), 5);
+        //超过一圈(8 * 10)
+        timer.schedule(() -> fired.add("c"), 205);
+        Assert.assertEquals(10, timer.nanosToNextTick(0));
+
+        timer.expire(9);
+        Assert.assertTrue(fired.isEmpty());
+        timer.expire(10);
+        Assert.assertEquals("[b]", fired.toString());
+        timer.expire(24);
+        Assert.assertEquals("[b]", fired.toString());
+        timer.expire(30);
+        Assert.assertEquals("[b, a]", fired.toString());
+        //c与5、85、165落在同一个槽,前两圈不能执行
+        timer.expire(200);
+        Assert.assertEquals("[b, a]", fired.toString());
+        timer.expire(210);
+        Assert.assertEquals("[b, a, c]", fired.toString());
+        Assert.assertTrue(timer.isEmpty());
+        Assert.assertEquals(-1, timer.nanosToNextTick(210));
+    }
+
+    @Test
+    public void cancelAndReschedule() {
+        HashedWheelTimer timer = new HashedWheelTimer(10, 4, 0);
+        int[] runs = new int[1];
+        HashedWheelTimer.Timeout first = timer.schedule(() -> runs[0]++, 15);
+        HashedWheelTimer.Timeout second = timer.schedule(() -> runs[0] += 10, 15);
+        timer.cancel(first);
+        Assert.assertFalse(first.isScheduled());
+        Assert.assertEquals(1, timer.expire(20));
+        Assert.assertEquals(10, runs[0]);
+
+        //到期的Timeout可以复用
+        timer.schedule(second, 45);
+        Assert.assertTrue(second.isScheduled());
+        Assert.assertEquals(0, timer.expire(40));
+        Assert.assertEquals(1, timer.expire(50));
+        Assert.assertEquals(20, runs[0]);
+    }
+
+    @Test
+    public void taskCanCancelOthersInTheSameTick() {
+        HashedWheelTimer timer = new HashedWheelTimer(10, 4, 0);
+        List<String> fired = new ArrayList<>();
+        HashedWheelTimer.Timeout[] other = new HashedWheelTimer.Timeout[1];
+        timer.schedule(() -> {
+            fired.add("x");
+            timer.cancel(other[0]);
+        }, 5);
+        other[0] = timer.schedule(() -> fired.add("y"), 5);
+        timer.expire(10);
+        Assert.assertEquals(1, fired.size());
+        Assert.assertTrue(timer.isEmpty());
+    }
+}
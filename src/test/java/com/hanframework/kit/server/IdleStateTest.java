@@ -0,0 +1,80 @@
+package com.hanframework.kit.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author liuxin
+ * 2026-10-18 21:40
+ */
+public class IdleStateTest {
+
+    @Test
+    public void readerIdleClosesAndWriterIdleSendsHeartbeat() throws Exception {
+        Queue<IdleState> events = new ConcurrentLinkedQueue<>();
+        TCPReactor reactor = TCPReactor.builder()
+                .port(0)
+                .workerCount(1)
+                .idleTimeout(400, 100, 0, TimeUnit.MILLISECONDS)
+                .handler(() -> new ChannelPipeline().addLast(new InboundHandler() {
+                    @Override
+                    public void onRead(HandlerContext ctx, Object msg) {
+                    }
+
+                    @Override
+                    public void onIdle(HandlerContext ctx, IdleState state) throws Exception {
+                        events.add(state);
+                        if (state == IdleState.WRITER_IDLE) {
+                            ByteBuffer heartbeat = ctx.connection().alloc();
+                            heartbeat.put((byte) 'h').flip();
+                            ctx.connection().writeAndFlush(heartbeat);
+                        }
+                        InboundHandler.super.onIdle(ctx, state);
+                    }
+                }))
+                .build();
+        Thread boss = new Thread(() -> {
+            try {
+                reactor.start();
+            } catch (Exception ignored) {
+            }
+        }, "tcp-boss");
+        boss.start();
+        try (SocketChannel active = SocketChannel.open(new InetSocketAddress("127.0.0.1", reactor.getLocalPort()));
+             SocketChannel silent = SocketChannel.open(new InetSocketAddress("127.0.0.1", reactor.getLocalPort()))) {
+            //active每100ms发送一次,读空闲不会触发;silent什么都不发,读空闲后被关闭
+            for (int i = 0; i < 10; i++) {
+                active.write(ByteBuffer.wrap(new byte[]{'p'}));
+                Thread.sleep(100);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            int heartbeats = 0;
+            int n;
+            while ((n = silent.read(buffer)) > 0) {
+                heartbeats += n;
+                buffer.clear();
+            }
+            Assert.assertEquals(-1, n);
+            //关闭前每100ms收到一次心跳
+            Assert.assertTrue("heartbeats: " + heartbeats, heartbeats >= 2);
+
+            active.configureBlocking(false);
+            buffer.clear();
+            Assert.assertTrue("active connection must stay open", active.read(buffer) >= 0);
+            Assert.assertTrue(events.contains(IdleState.READER_IDLE));
+            Assert.assertTrue(events.contains(IdleState.WRITER_IDLE));
+            Assert.assertFalse(events.contains(IdleState.ALL_IDLE));
+        } finally {
+            reactor.close();
+            boss.join(TimeUnit.SECONDS.toMillis(5));
+            Assert.assertTrue(reactor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.hanframework.kit.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * @author liuxin
+ * 2026-10-18 22:10
+ */
+public class MpscTaskQueueTest {
+
+    @Test
+    public void multipleProducersKeepPerProducerOrder() throws Exception {
+        MpscTaskQueue queue = new MpscTaskQueue();
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.poll());
+        int producers = 4;
+        int perProducer = 100_000;
+        int[] last = new int[producers];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            threads[p] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 1; i <= perProducer; i++) {
+                    final int seq = i;
+                    queue.offer(() -> {
+                        //同一个生产者的任务按提交顺序出队
+                        Assert.assertEquals(last[producer] + 1, seq);
+                        last[producer] = seq;
+                    });
+                }
+            });
+            threads[p].start();
+        }
+        start.countDown();
+        int consumed = 0;
+        while (consumed < producers * perProducer) {
+            Runnable task = queue.poll();
+            if (task != null) {
+                task.run();
+                consumed++;
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(queue.isEmpty());
+        for (int p = 0; p < producers; p++) {
+            Assert.assertEquals(perProducer, last[p]);
+        }
+    }
+}
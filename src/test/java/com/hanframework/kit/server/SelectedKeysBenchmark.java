@@ -0,0 +1,100 @@
+package com.hanframework.kit.server;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比工作事件循环使用JDK的HashSet和数组实现的已选择键集合时的每秒事件数
+ * 单个工作事件循环回显,客户端用一个Selector驱动多个连接做8字节的乒乓,每次往返服务端处理一次可读事件。
+ * <p>
+ * 运行: mvn test-compile 之后
+ * java -cp target/classes:target/test-classes com.hanframework.kit.server.SelectedKeysBenchmark
+ * JDK9+上反射替换需要--add-opens java.base/sun.nio.ch=ALL-UNNAMED,否则通过Unsafe替换
+ *
+ * @author liuxin
+ * 2026-10-18 22:40
+ */
+public class SelectedKeysBenchmark {
+
+    private static final int[] CONNECTIONS = {1, 16, 256};
+
+    private static final long DURATION_MILLIS = 3000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-12s %14s %14s %8s%n", "connections", "hashset ev/s", "array ev/s", "gain");
+        for (int connections : CONNECTIONS) {
+            //预热
+            run(false, connections);
+            run(true, connections);
+            double plain = run(false, connections);
+            double optimized = run(true, connections);
+            System.out.printf("%-12d %14.0f %14.0f %7.1f%%%n", connections, plain, optimized,
+                    (optimized / plain - 1) * 100);
+        }
+    }
+
+    private static double run(boolean optimize, int connections) throws Exception {
+        TCPReactor reactor = TCPReactor.builder()
+                .port(0)
+                .workerCount(1)
+                .optimizeSelectedKeys(optimize)
+                .handler(TcpHandlerTest.EchoHandler::new)
+                .build();
+        if (optimize && !reactor.isSelectedKeysOptimized()) {
+            System.out.println("array-backed selected-key set is not available, measuring the fallback");
+        }
+        Thread boss = new Thread(() -> {
+            try {
+                reactor.start();
+            } catch (Exception ignored) {
+            }
+        }, "tcp-boss");
+        boss.start();
+        long events = 0;
+        try (Selector selector = Selector.open()) {
+            InetSocketAddress address = new InetSocketAddress("127.0.0.1", reactor.getLocalPort());
+            for (int i = 0; i < connections; i++) {
+                SocketChannel client = SocketChannel.open(address);
+                client.configureBlocking(false);
+                ByteBuffer buffer = ByteBuffer.allocate(8);
+                buffer.putLong(i).flip();
+                client.write(buffer);
+                buffer.clear();
+                client.register(selector, SelectionKey.OP_READ, buffer);
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+            long start = System.nanoTime();
+            while (System.nanoTime() < deadline) {
+                selector.select(100);
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+                    SocketChannel client = (SocketChannel) key.channel();
+                    ByteBuffer buffer = (ByteBuffer) key.attachment();
+                    client.read(buffer);
+                    if (!buffer.hasRemaining()) {
+                        buffer.flip();
+                        client.write(buffer);
+                        buffer.clear();
+                        events++;
+                    }
+                }
+            }
+            double elapsed = System.nanoTime() - start;
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            return events * 1e9 / elapsed;
+        } finally {
+            reactor.close();
+            boss.join(TimeUnit.SECONDS.toMillis(5));
+            reactor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
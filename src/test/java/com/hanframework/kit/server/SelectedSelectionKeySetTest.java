@@ -0,0 +1,80 @@
+package com.hanframework.kit.server;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author liuxin
+ * 2026-10-18 22:40
+ */
+public class SelectedSelectionKeySetTest {
+
+    @Test
+    public void replacesSelectorKeySet() throws Exception {
+        try (Selector selector = Selector.open();
+             ServerSocketChannel server = ServerSocketChannel.open()) {
+            SelectedSelectionKeySet keySet = SelectedSelectionKeySet.install(selector);
+            Assume.assumeNotNull(keySet);
+            Assert.assertSame(keySet, selector.selectedKeys());
+
+            server.bind(new InetSocketAddress("127.0.0.1", 0));
+            server.configureBlocking(false);
+            SelectionKey key = server.register(selector, SelectionKey.OP_ACCEPT);
+            try (SocketChannel client = SocketChannel.open(server.getLocalAddress())) {
+                Assert.assertEquals(1, selector.select(5000));
+                Assert.assertEquals(1, keySet.size);
+                Assert.assertSame(key, keySet.keys[0]);
+                keySet.reset();
+                Assert.assertEquals(0, keySet.size);
+                Assert.assertNull(keySet.keys[0]);
+                Assert.assertNotNull(server.accept());
+                Assert.assertTrue(client.isConnected());
+            }
+        }
+    }
+
+    @Test
+    public void echoWithOptimizedSelector() throws Exception {
+        TCPReactor reactor = TCPReactor.builder()
+                .port(0)
+                .workerCount(1)
+                .optimizeSelectedKeys(true)
+                .handler(TcpHandlerTest.EchoHandler::new)
+                .build();
+        System.out.println("selected keys optimized: " + reactor.isSelectedKeysOptimized());
+        Thread boss = new Thread(() -> {
+            try {
+                reactor.start();
+            } catch (Exception ignored) {
+            }
+        }, "tcp-boss");
+        boss.start();
+        try (SocketChannel client = SocketChannel.open(new InetSocketAddress("127.0.0.1", reactor.getLocalPort()))) {
+            ByteBuffer out = ByteBuffer.allocate(8);
+            ByteBuffer in = ByteBuffer.allocate(8);
+            for (long i = 0; i < 1000; i++) {
+                out.clear();
+                out.putLong(i).flip();
+                client.write(out);
+                in.clear();
+                while (in.hasRemaining()) {
+                    Assert.assertTrue(client.read(in) > 0);
+                }
+                Assert.assertEquals(i, in.getLong(0));
+            }
+        } finally {
+            reactor.close();
+            boss.join(TimeUnit.SECONDS.toMillis(5));
+            Assert.assertTrue(reactor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.hanframework.kit.server;
+
+import com.hanframework.kit.thread.ThreadRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author liuxin
+ * 2026-10-18 19:20
+ */
+public class TCPReactorTest {
+
+    @Test
+    public void acceptorHandsOffToWorkers() throws Exception {
+        ThreadRegistry.enable();
+        TCPReactor reactor = TCPReactor.builder().port(0).workerCount(2).build();
+        Thread boss = new Thread(() -> {
+            try {
+                reactor.start();
+            } catch (Exception ignored) {
+            }
+        }, "tcp-boss");
+        boss.start();
+        try {
+            InetSocketAddress address = new InetSocketAddress("127.0.0.1", reactor.getLocalPort());
+            for (int i = 0; i < 4; i++) {
+                try (SocketChannel client = SocketChannel.open(address)) {
+                    client.write(ByteBuffer.wrap("ping".getBytes()));
+                    //服务端读到EOF后关闭连接
+                    client.shutdownOutput();
+                    Assert.assertEquals(-1, client.read(ByteBuffer.allocate(16)));
+                }
+            }
+            List<Thread> workers = ThreadRegistry.threadsByPool().get("tcp-worker-" + reactor.getLocalPort());
+            Assert.assertEquals(2, workers.size());
+        } finally {
+            reactor.close();
+            boss.join(TimeUnit.SECONDS.toMillis(5));
+            Assert.assertTrue(reactor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void failingHandlerDoesNotKillTheEventLoop() throws Exception {
+        //onRead和onException都抛出异常,只关闭这一个连接,同一个事件循环上的其他连接不受影响
+        TCPReactor reactor = TCPReactor.builder().port(0).workerCount(1).handler(() -> new ConnectionHandler() {
+            @Override
+            public void onRead(TcpHandler connection, ByteBuffer data) {
+                if (data.get(0) == 'b') {
+                    throw new IllegalStateException("boom");
+                }
+                ByteBuffer out = connection.alloc();
+                out.put(data).flip();
+                connection.writeAndFlush(out);
+            }
+
+            @Override
+            public void onException(TcpHandler connection, Throwable cause) {
+                throw new IllegalStateException("onException failed", cause);
+            }
+        }).build();
+        Thread boss = new Thread(() -> {
+            try {
+                reactor.start();
+            } catch (Exception ignored) {
+            }
+        }, "tcp-boss");
+        boss.start();
+        try {
+            InetSocketAddress address = new InetSocketAddress("127.0.0.1", reactor.getLocalPort());
+            try (SocketChannel bad = SocketChannel.open(address)) {
+                bad.write(ByteBuffer.wrap("boom".getBytes()));
+                Assert.assertEquals(-1, bad.read(ByteBuffer.allocate(16)));
+            }
+            try (SocketChannel good = SocketChannel.open(address)) {
+                good.write(ByteBuffer.wrap("ping".getBytes()));
+                ByteBuffer in = ByteBuffer.allocate(4);
+                while (in.hasRemaining()) {
+                    Assert.assertTrue(good.read(in) > 0);
+                }
+                Assert.assertEquals("ping", new String(in.array()));
+            }
+        } finally {
+            reactor.close();
+            boss.join(TimeUnit.SECONDS.toMillis(5));
+            Assert.assertTrue(reactor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void defaultWorkerCountIsCores() throws Exception {
+        TCPReactor reactor = new TCPReactor(0);
+        try {
+            Assert.assertEquals(Runtime.getRuntime().availableProcessors(), reactor.getWorkerCount());
+        } finally {
+            reactor.close();
+        }
+    }
+}
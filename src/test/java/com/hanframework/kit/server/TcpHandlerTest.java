@@ -0,0 +1,116 @@
+package com.hanframework.kit.server;
+
+import com.hanframework.kit.metrics.PoolResourceUsage;
+import com.hanframework.kit.metrics.ThreadResourceSampler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * @author liuxin
+ * 2026-10-18 19:50
+ */
+public class TcpHandlerTest {
+
+    /**
+     * 回显: 读到的数据复制到池化缓冲区后写回
+     */
+    static final class EchoHandler implements ConnectionHandler {
+        @Override
+        public void onRead(TcpHandler connection, ByteBuffer data) {
+            ByteBuffer out = connection.alloc();
+            out.put(data).flip();
+            connection.writeAndFlush(out);
+        }
+    }
+
+    @Test
+    public void loopbackEchoThroughput() throws Exception {
+        //先创建采样器开启线程登记,工作线程启动时才会登记
+        ThreadResourceSampler sampler = new ThreadResourceSampler(0, TimeUnit.SECONDS);
+        TCPReactor reactor = TCPReactor.builder().port(0).workerCount(1).handler(EchoHandler::new).build();
+        Thread boss = new Thread(() -> {
+            try {
+                reactor.start();
+            } catch (Exception ignored) {
+            }
+        }, "tcp-boss");
+        boss.start();
+        try (SocketChannel client = SocketChannel.open(new InetSocketAddress("127.0.0.1", reactor.getLocalPort()))) {
+            //预热,让池中缓存足够的缓冲区
+            roundTrip(client, 1 << 20);
+            sampler.sample();
+
+            int total = 32 << 20;
+            long start = System.nanoTime();
+            roundTrip(client, total);
+            long elapsed = System.nanoTime() - start;
+            sampler.sample();
+            System.out.printf("echo %d MB in %d ms, %.1f MB/s%n", total >> 20, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    (total >> 20) * 1e9 / elapsed);
+
+            PoolResourceUsage usage = sampler.getUsage("tcp-worker-" + reactor.getLocalPort());
+            Assert.assertNotNull(usage);
+            if (usage.getAllocatedBytes() >= 0) {
+                System.out.println("event loop allocated " + usage.getAllocatedBytes() + " bytes");
+                Assert.assertTrue(usage.getAllocatedBytes() < total / 64);
+            }
+        } finally {
+            sampler.close();
+            reactor.close();
+            boss.join(TimeUnit.SECONDS.toMillis(5));
+            Assert.assertTrue(reactor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * 一个线程写,当前线程读回,校验内容一致
+     */
+    private static void roundTrip(SocketChannel client, int total) throws Exception {
+        CRC32 sent = new CRC32();
+        Thread writer = new Thread(() -> {
+            ByteBuffer chunk = ByteBuffer.allocate(8192);
+            int written = 0;
+            int seq = 0;
+            try {
+                while (written < total) {
+                    chunk.clear();
+                    while (chunk.hasRemaining() && written + chunk.position() < total) {
+                        chunk.put((byte) seq++);
+                    }
+                    chunk.flip();
+                    synchronized (sent) {
+                        sent.update(chunk.array(), 0, chunk.limit());
+                    }
+                    written += chunk.limit();
+                    while (chunk.hasRemaining()) {
+                        client.write(chunk);
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        CRC32 received = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(65536);
+        int read = 0;
+        while (read < total) {
+            buffer.clear();
+            int n = client.read(buffer);
+            Assert.assertTrue(n > 0);
+            received.update(buffer.array(), 0, n);
+            read += n;
+        }
+        writer.join();
+        synchronized (sent) {
+            Assert.assertEquals(sent.getValue(), received.getValue());
+        }
+    }
+}
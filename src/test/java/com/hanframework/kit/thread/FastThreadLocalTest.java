@@ -0,0 +1,70 @@
+package com.hanframework.kit.thread;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author liuxin
+ * 2026-10-18 17:50
+ */
+public class FastThreadLocalTest {
+
+    @Test
+    public void fastThreadAndFallback() throws Exception {
+        FastThreadLocal<String> local = new FastThreadLocal<String>() {
+            @Override
+            protected String initialValue() {
+                return Thread.currentThread().getName();
+            }
+        };
+        ExecutorService fast = Executors.newSingleThreadExecutor(new NamedThreadFactory("ftl-test", true, true));
+        try {
+            Assert.assertTrue(fast.submit(() -> Thread.currentThread() instanceof FastThreadLocalThread).get());
+            Assert.assertEquals("ftl-test-thread-1", fast.submit(local::get).get());
+        } finally {
+            fast.shutdown();
+        }
+        //普通线程退化为ThreadLocal
+        Assert.assertFalse(local.isSet());
+        Assert.assertEquals(Thread.currentThread().getName(), local.get());
+        local.set("changed");
+        Assert.assertEquals("changed", local.get());
+        local.remove();
+        Assert.assertFalse(local.isSet());
+    }
+
+    @Test
+    public void removedWhenThreadTerminates() throws Exception {
+        List<String> removed = new CopyOnWriteArrayList<>();
+        List<FastThreadLocal<String>> locals = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            locals.add(new FastThreadLocal<String>() {
+                @Override
+                protected void onRemoval(String value) {
+                    removed.add(value);
+                }
+            });
+        }
+        Thread thread = new NamedThreadFactory("ftl-exit").newThread(() -> {
+        });
+        Assert.assertFalse(thread instanceof FastThreadLocalThread);
+
+        thread = new NamedThreadFactory("ftl-exit", false, true).newThread(() -> {
+            for (int i = 0; i < locals.size(); i++) {
+                locals.get(i).set("v" + i);
+            }
+            locals.get(0).remove();
+        });
+        thread.start();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+        Assert.assertEquals(locals.size(), removed.size());
+        Assert.assertEquals("v0", removed.get(0));
+    }
+}
@@ -0,0 +1,111 @@
+package com.hanframework.kit.thread;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author liuxin
+ * 2026-10-18 15:40
+ */
+public class HanThreadPoolExecutorTest {
+
+    @Test
+    public void eagerGrowsBeforeQueueing() throws Exception {
+        ThreadPoolExecutor executor = HanThreadPoolExecutor.builder()
+                .threadFactory(new NamedThreadFactory("eager-test"))
+                .corePoolSize(1)
+                .maximumPoolSize(3)
+                .queueStrategy(QueueStrategy.EAGER, 1)
+                .build()
+                .getExecutory();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 3; i++) {
+                executor.execute(() -> await(release));
+            }
+            Assert.assertEquals(3, executor.getPoolSize());
+            Assert.assertEquals(0, executor.getQueue().size());
+
+            executor.execute(() -> await(release));
+            Assert.assertEquals(1, executor.getQueue().size());
+            try {
+                executor.execute(() -> await(release));
+                Assert.fail();
+            } catch (RejectedExecutionException expected) {
+            }
+            Assert.assertEquals(4, ((EagerThreadPoolExecutor) executor).getSubmittedCount());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(0, ((EagerThreadPoolExecutor) executor).getSubmittedCount());
+    }
+
+    @Test
+    public void boundedQueuesBeforeGrowing() throws Exception {
+        ThreadPoolExecutor executor = HanThreadPoolExecutor.builder()
+                .corePoolSize(1)
+                .maximumPoolSize(2)
+                .queueStrategy(QueueStrategy.BOUNDED, 1)
+                .build()
+                .getExecutory();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(release));
+            executor.execute(() -> await(release));
+            Assert.assertEquals(1, executor.getPoolSize());
+            executor.execute(() -> await(release));
+            Assert.assertEquals(2, executor.getPoolSize());
+            try {
+                executor.execute(() -> await(release));
+                Assert.fail();
+            } catch (RejectedExecutionException expected) {
+            }
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void synchronousRunsInCallerWhenSaturated() throws Exception {
+        ThreadPoolExecutor executor = HanThreadPoolExecutor.builder()
+                .corePoolSize(0)
+                .maximumPoolSize(1)
+                .queueStrategy(QueueStrategy.SYNCHRONOUS)
+                .build()
+                .getExecutory();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(release));
+            AtomicReference<Thread> runner = new AtomicReference<>();
+            executor.execute(() -> runner.set(Thread.currentThread()));
+            Assert.assertSame(Thread.currentThread(), runner.get());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void boundedRequiresCapacity() {
+        HanThreadPoolExecutor.builder().queueStrategy(QueueStrategy.BOUNDED).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
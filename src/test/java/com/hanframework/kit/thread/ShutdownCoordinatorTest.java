@@ -0,0 +1,97 @@
+package com.hanframework.kit.thread;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author liuxin
+ * 2026-10-18 18:50
+ */
+public class ShutdownCoordinatorTest {
+
+    @Test
+    public void phasesInOrderHooksInParallel() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        ShutdownCoordinator coordinator = new ShutdownCoordinator()
+                .addPhase("reactor", 5, TimeUnit.SECONDS)
+                .addPhase("executor", 5, TimeUnit.SECONDS, "reactor")
+                .addPhase("writer", 100, TimeUnit.MILLISECONDS, "executor");
+        coordinator.addHook("writer", "file", () -> events.add("writer"));
+        coordinator.addHook("reactor", "tcp", () -> events.add("reactor"));
+        for (String pool : new String[]{"a", "b"}) {
+            //两个钩子互相等待,只有并行执行才能完成
+            coordinator.addHook("executor", pool, () -> {
+                bothRunning.countDown();
+                try {
+                    Assert.assertTrue(bothRunning.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                events.add("executor");
+            });
+        }
+        coordinator.addHook("writer", "stuck", () -> {
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException ignored) {
+            }
+        });
+        coordinator.addHook("writer", "broken", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        ShutdownReport report = coordinator.shutdown();
+        Assert.assertEquals("reactor", events.get(0));
+        Assert.assertEquals("executor", events.get(1));
+        Assert.assertEquals("executor", events.get(2));
+        Assert.assertEquals("writer", events.get(3));
+        Assert.assertEquals(6, report.getHooks().size());
+        Assert.assertFalse(report.isSuccess());
+        Assert.assertTrue(report.getDurationNanos() < TimeUnit.SECONDS.toNanos(5));
+        for (ShutdownReport.HookResult hook : report.getHooks()) {
+            if (hook.getName().equals("stuck")) {
+                Assert.assertEquals(ShutdownReport.Status.TIMED_OUT, hook.getStatus());
+            } else if (hook.getName().equals("broken")) {
+                Assert.assertEquals(ShutdownReport.Status.FAILED, hook.getStatus());
+            } else {
+                Assert.assertEquals(ShutdownReport.Status.SUCCESS, hook.getStatus());
+            }
+        }
+        Assert.assertSame(report, coordinator.shutdown());
+    }
+
+    @Test
+    public void phaseStartsWhenItsOwnDependenciesFinish() {
+        CountDownLatch released = new CountDownLatch(1);
+        ShutdownCoordinator coordinator = new ShutdownCoordinator()
+                .addPhase("slow", 5, TimeUnit.SECONDS)
+                .addPhase("reactor", 5, TimeUnit.SECONDS)
+                .addPhase("executor", 5, TimeUnit.SECONDS, "reactor");
+        //slow阶段要等executor阶段释放,如果executor要等slow所在的一批阶段全部结束就只能超时
+        coordinator.addHook("slow", "wait", () -> {
+            try {
+                Assert.assertTrue(released.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        coordinator.addHook("reactor", "tcp", () -> {
+        });
+        coordinator.addHook("executor", "pool", released::countDown);
+
+        ShutdownReport report = coordinator.shutdown();
+        Assert.assertTrue(report.isSuccess());
+        Assert.assertTrue(report.getDurationNanos() < TimeUnit.SECONDS.toNanos(4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void dependencyMustExist() {
+        new ShutdownCoordinator().addPhase("executor", 1, TimeUnit.SECONDS, "reactor");
+    }
+}